@@ -0,0 +1,85 @@
+package com.archivist.ArchDrive.config;
+
+import com.archivist.ArchDrive.service.cluster.ClusterTransport;
+import com.archivist.ArchDrive.service.cluster.MulticastTransport;
+import com.archivist.ArchDrive.service.cluster.TcpMeshTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The transport bean exists whether or not clustering is enabled: AOT processing (-Pfast-startup)
+ * evaluates bean conditions at build time, so {@code archdrive.cluster.enabled} is read at startup
+ * by {@link com.archivist.ArchDrive.service.cluster.InvalidationBus} instead. Creating a transport
+ * opens no sockets; that only happens when the bus starts it.
+ */
+@Configuration
+public class ClusterConfig {
+
+    @Value("${archdrive.cluster.transport:multicast}")
+    private String transport;
+
+    @Value("${archdrive.cluster.multicast.group:239.255.42.99}")
+    private String multicastGroup;
+
+    @Value("${archdrive.cluster.multicast.port:45680}")
+    private int multicastPort;
+
+    @Value("${archdrive.cluster.multicast.ttl:1}")
+    private int multicastTtl;
+
+    @Value("${archdrive.cluster.multicast.interface:}")
+    private String multicastInterface;
+
+    @Value("${archdrive.cluster.tcp.bind-address:}")
+    private String tcpBindAddress;
+
+    @Value("${archdrive.cluster.tcp.port:45681}")
+    private int tcpPort;
+
+    @Value("${archdrive.cluster.tcp.peers:}")
+    private String tcpPeers;
+
+    @Value("${archdrive.cluster.tcp.queue-size:10000}")
+    private int tcpQueueSize;
+
+    @Value("${archdrive.cluster.tcp.reconnect-delay-ms:2000}")
+    private long tcpReconnectDelayMs;
+
+    @Bean(destroyMethod = "close")
+    public ClusterTransport clusterTransport() throws UnknownHostException {
+        // Транспорт створюється завжди, а чи запускати його, вирішує InvalidationBus
+        switch (transport) {
+            case "multicast":
+                return new MulticastTransport(InetAddress.getByName(multicastGroup), multicastPort, multicastTtl, multicastInterface);
+            case "tcp":
+                return new TcpMeshTransport(tcpBindAddress, tcpPort, parsePeers(tcpPeers), tcpQueueSize, tcpReconnectDelayMs);
+            default:
+                throw new IllegalArgumentException("Unknown archdrive.cluster.transport: " + transport);
+        }
+    }
+
+    private static List<InetSocketAddress> parsePeers(String peers) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String peer : peers.split(",")) {
+            String trimmed = peer.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cluster peer must be host:port, got '" + trimmed + "'");
+            }
+            // Адреса резолвиться при кожному підключенні, тож DNS-імена сервісів теж підходять
+            addresses.add(InetSocketAddress.createUnresolved(trimmed.substring(0, separator),
+                    Integer.parseInt(trimmed.substring(separator + 1))));
+        }
+        return addresses;
+    }
+}
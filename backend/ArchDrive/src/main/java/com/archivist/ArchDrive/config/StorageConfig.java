@@ -1,8 +1,13 @@
 package com.archivist.ArchDrive.config;
 
+import com.archivist.ArchDrive.model.ShardSpec;
+import com.archivist.ArchDrive.service.shard.ShardRouter;
+import com.archivist.ArchDrive.service.shard.StorageShard;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.core.retry.RetryPolicy;
@@ -14,6 +19,8 @@ import software.amazon.awssdk.http.apache.ApacheHttpClient;
 
 import java.net.URI;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 public class StorageConfig {
@@ -30,8 +37,84 @@ public class StorageConfig {
     @Value("${cloudflare.r2.endpoint}")
     private String endpoint;
 
-    @Bean
-    public S3Client s3Client() {
+    @Value("${cloudflare.r2.bucket}")
+    private String bucketName;
+
+    @Value("${cloudflare.r2.publicUrl:}")
+    private String publicUrl;
+
+    // Порожньо — один шард з налаштувань cloudflare.r2.*
+    @Value("${archdrive.sharding.shards:}")
+    private String shardNames;
+
+    @Value("${archdrive.sharding.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Value("${archdrive.sharding.max-connections:100}")
+    private int maxConnections;
+
+    // Клієнт S3 створюється при першому зверненні або фоновим прогрівом, а не під час старту контексту
+    @Value("${archdrive.startup.lazy-s3-client:true}")
+    private boolean lazyClient;
+
+    @Autowired
+    private Environment environment;
+
+    /**
+     * Shards are listed by name in archdrive.sharding.shards; each one reads
+     * archdrive.sharding.shard.&lt;name&gt;.* and falls back to cloudflare.r2.* for anything not set,
+     * so shards in the same account only need a bucket.
+     */
+    @Bean(destroyMethod = "close")
+    public ShardRouter shardRouter() {
+        List<StorageShard> shards = new ArrayList<>();
+        if (shardNames == null || shardNames.isBlank()) {
+            shards.add(createShard(shardSpec("default")));
+        } else {
+            for (String name : shardNames.split(",")) {
+                if (!name.isBlank()) {
+                    shards.add(createShard(shardSpec(name.trim())));
+                }
+            }
+        }
+        return new ShardRouter(shards, virtualNodes);
+    }
+
+    private ShardSpec shardSpec(String name) {
+        String prefix = "archdrive.sharding.shard." + name + ".";
+        ShardSpec spec = new ShardSpec();
+        spec.setName(name);
+        spec.setEndpoint(environment.getProperty(prefix + "endpoint"));
+        spec.setBucket(environment.getProperty(prefix + "bucket"));
+        spec.setAccessKey(environment.getProperty(prefix + "access-key"));
+        spec.setSecretKey(environment.getProperty(prefix + "secret-key"));
+        spec.setAccountId(environment.getProperty(prefix + "account-id"));
+        spec.setPublicUrl(environment.getProperty(prefix + "public-url"));
+        spec.setWeight(environment.getProperty(prefix + "weight", Integer.class, 1));
+        return spec;
+    }
+
+    /**
+     * Builds a shard with its own client and connection pool.
+     */
+    private StorageShard createShard(ShardSpec spec) {
+        String shardEndpoint = orDefault(spec.getEndpoint(), endpoint);
+        String shardAccountId = orDefault(spec.getAccountId(), accountId);
+        String shardAccessKey = orDefault(spec.getAccessKey(), accessKey);
+        String shardSecretKey = orDefault(spec.getSecretKey(), secretKey);
+        StorageShard shard = new StorageShard(spec.getName(), shardEndpoint, orDefault(spec.getBucket(), bucketName), Math.max(1, spec.getWeight()),
+                orDefault(spec.getPublicUrl(), publicUrl), shardAccountId, () -> s3Client(shardEndpoint, shardAccessKey, shardSecretKey));
+        if (!lazyClient) {
+            shard.getClient();
+        }
+        return shard;
+    }
+
+    private static String orDefault(String value, String defaultValue) {
+        return value != null && !value.isBlank() ? value : defaultValue;
+    }
+
+    private S3Client s3Client(String endpoint, String accessKey, String secretKey) {
         AwsBasicCredentials awsCreds = AwsBasicCredentials.create(accessKey, secretKey);
 
         // R2 вимагає path-style запити (bucket у шляху, а не в хості)
@@ -49,7 +132,7 @@ public class StorageConfig {
                 .serviceConfiguration(s3Config)
                 .httpClientBuilder(
                         ApacheHttpClient.builder()
-                                .maxConnections(100)
+                                .maxConnections(maxConnections)
                                 .connectionTimeout(Duration.ofSeconds(30))
                                 .socketTimeout(Duration.ofSeconds(60))
                                 .expectContinueEnabled(false)
@@ -1,7 +1,15 @@
 package com.archivist.ArchDrive.config;
 
+import com.archivist.ArchDrive.service.admission.AdmissionFilter;
+import com.archivist.ArchDrive.service.admission.TransferAdmission;
+import com.archivist.ArchDrive.service.index.FileSearchIndex;
+import com.archivist.ArchDrive.service.startup.FirstRequestFilter;
+import com.archivist.ArchDrive.service.startup.StartupMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
@@ -13,4 +21,21 @@ public class WebConfig {
     public RestTemplate restTemplate() {
         return new RestTemplate();
     }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(TransferAdmission admission, FileSearchIndex fileSearchIndex,
+                                                                   @Value("${archdrive.preview.text.max-scan-bytes:67108864}") long textScanBytes) {
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionFilter(admission, fileSearchIndex, textScanBytes));
+        registration.addUrlPatterns("/api/files", "/api/files/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<FirstRequestFilter> firstRequestFilter(StartupMetrics startupMetrics) {
+        FilterRegistrationBean<FirstRequestFilter> registration = new FilterRegistrationBean<>(new FirstRequestFilter(startupMetrics));
+        // Першим у ланцюжку, щоб час очікування в admission теж потрапив у вимір
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
 }
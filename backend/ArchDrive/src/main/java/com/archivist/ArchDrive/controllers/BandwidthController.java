@@ -0,0 +1,22 @@
+package com.archivist.ArchDrive.controllers;
+
+import com.archivist.ArchDrive.model.BandwidthSettings;
+import com.archivist.ArchDrive.service.bandwidth.BandwidthShaper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/bandwidth")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "https://arch-drive.vercel.app/", "https://arch-drive-aarchivists-projects.vercel.app/"})
+public class BandwidthController {
+
+    @Autowired
+    private BandwidthShaper bandwidthShaper;
+
+    // Лише для читання: ліміти задаються в archdrive.bandwidth.*, бо без автентифікації їх міг би змінити будь-хто
+    @GetMapping
+    public ResponseEntity<BandwidthSettings> getSettings() {
+        return ResponseEntity.ok(bandwidthShaper.getSettings());
+    }
+}
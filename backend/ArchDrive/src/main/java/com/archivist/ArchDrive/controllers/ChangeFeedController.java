@@ -0,0 +1,222 @@
+package com.archivist.ArchDrive.controllers;
+
+import com.archivist.ArchDrive.model.ChangeFeed;
+import com.archivist.ArchDrive.model.FileChange;
+import com.archivist.ArchDrive.service.storage.ChangeJournal;
+import com.archivist.ArchDrive.service.storage.ChangeListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RestController
+@RequestMapping("/api/files/changes")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "https://arch-drive.vercel.app/", "https://arch-drive-aarchivists-projects.vercel.app/"})
+public class ChangeFeedController {
+
+    private static final int MAX_LIMIT = 5000;
+
+    @Autowired
+    private ChangeJournal changeJournal;
+
+    @Value("${archdrive.changes.stream-queue:1000}")
+    private int streamQueueSize;
+
+    @Value("${archdrive.changes.stream-threads:8}")
+    private int streamThreads;
+
+    // Розсилка SSE не повинна блокувати потік, що записав зміну, а повільний клієнт — інших клієнтів
+    private ExecutorService streamExecutor;
+
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        streamExecutor = Executors.newFixedThreadPool(streamThreads, runnable -> {
+            Thread thread = new Thread(runnable, "change-stream-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        streamExecutor.shutdownNow();
+    }
+
+    @GetMapping
+    public ResponseEntity<ChangeFeed> getChanges(@RequestParam(required = false) String since,
+                                                 @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(changeJournal.since(since, Math.min(limit, MAX_LIMIT)));
+    }
+
+    @GetMapping("/poll")
+    public DeferredResult<ChangeFeed> pollChanges(@RequestParam(required = false) String since,
+                                                  @RequestParam(defaultValue = "1000") int limit,
+                                                  @RequestParam(defaultValue = "30000") long timeoutMs) {
+        int boundedLimit = Math.min(limit, MAX_LIMIT);
+        DeferredResult<ChangeFeed> result = new DeferredResult<>(Math.min(timeoutMs, 120000L),
+                () -> changeJournal.since(since, boundedLimit));
+
+        // Підписуємось до перевірки, щоб не пропустити зміну між перевіркою і підпискою
+        ChangeListener listener = change -> result.setResult(changeJournal.since(since, boundedLimit));
+        Runnable resetListener = () -> result.setResult(changeJournal.since(since, boundedLimit));
+        changeJournal.addListener(listener);
+        changeJournal.addResetListener(resetListener);
+        result.onCompletion(() -> {
+            changeJournal.removeListener(listener);
+            changeJournal.removeResetListener(resetListener);
+        });
+
+        ChangeFeed feed = changeJournal.since(since, boundedLimit);
+        if (feed.isResetRequired() || !feed.getChanges().isEmpty()) {
+            result.setResult(feed);
+        }
+        return result;
+    }
+
+    @GetMapping("/stream")
+    public SseEmitter streamChanges(@RequestParam(required = false) String since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        ChangeStream stream = new ChangeStream(emitter, lastEventId != null ? lastEventId : since);
+
+        // Підписуємось до наздоганяння: дублікати відсіє номер останньої надісланої зміни
+        ChangeListener listener = stream::enqueue;
+        Runnable resetListener = stream::resetRequested;
+        changeJournal.addListener(listener);
+        changeJournal.addResetListener(resetListener);
+        Runnable unsubscribe = () -> {
+            stream.closed = true;
+            changeJournal.removeListener(listener);
+            changeJournal.removeResetListener(resetListener);
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+
+        stream.schedule();
+        return emitter;
+    }
+
+    /**
+     * One SSE client. Changes are queued per client and sent by a pool thread, one drain at a time
+     * per client, so a client that reads slowly only holds up itself. If its queue overflows it gets
+     * a reset event and the stream is closed; it reconnects and re-lists instead of growing a backlog.
+     */
+    private class ChangeStream {
+        private final SseEmitter emitter;
+        private final BlockingQueue<FileChange> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private String token; // null після наздоганяння
+        private long lastSent;
+        private volatile boolean overflowed;
+        private volatile boolean resetPending;
+        private volatile boolean closed;
+
+        ChangeStream(SseEmitter emitter, String token) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(streamQueueSize);
+            this.token = token != null ? token : "";
+        }
+
+        void enqueue(FileChange change) {
+            if (!closed && !queue.offer(change)) {
+                overflowed = true;
+            }
+            schedule();
+        }
+
+        void resetRequested() {
+            resetPending = true;
+            schedule();
+        }
+
+        void schedule() {
+            if (!closed && draining.compareAndSet(false, true)) {
+                streamExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (token != null) {
+                    catchUp();
+                }
+                while (!closed) {
+                    if (overflowed) {
+                        sendReset(changeJournal.currentToken());
+                        emitter.complete();
+                        closed = true;
+                        return;
+                    }
+                    if (resetPending) {
+                        resetPending = false;
+                        queue.clear();
+                        sendReset(changeJournal.currentToken());
+                        lastSent = sequenceOf(changeJournal.currentToken());
+                        continue;
+                    }
+                    FileChange change = queue.poll();
+                    if (change == null) {
+                        break;
+                    }
+                    if (change.getSequence() > lastSent) {
+                        emitter.send(SseEmitter.event()
+                                .name("change")
+                                .id(changeJournal.tokenFor(change.getSequence()))
+                                .data(change));
+                        lastSent = change.getSequence();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                closed = true;
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // Зміна могла прийти між останньою перевіркою черги і зняттям прапорця
+            if (!queue.isEmpty() || overflowed || resetPending) {
+                schedule();
+            }
+        }
+
+        private void catchUp() throws IOException {
+            ChangeFeed feed;
+            do {
+                feed = changeJournal.since(token, MAX_LIMIT);
+                if (feed.isResetRequired()) {
+                    sendReset(feed.getNextToken());
+                }
+                for (FileChange change : feed.getChanges()) {
+                    emitter.send(SseEmitter.event()
+                            .name("change")
+                            .id(changeJournal.tokenFor(change.getSequence()))
+                            .data(change));
+                }
+                token = feed.getNextToken();
+            } while (feed.isHasMore());
+            lastSent = sequenceOf(token);
+            token = null;
+        }
+
+        private void sendReset(String nextToken) throws IOException {
+            emitter.send(SseEmitter.event().name("reset").id(nextToken).data(nextToken));
+        }
+    }
+
+    private static long sequenceOf(String token) {
+        return Long.parseLong(token.substring(token.lastIndexOf(':') + 1));
+    }
+}
@@ -0,0 +1,21 @@
+package com.archivist.ArchDrive.controllers;
+
+import com.archivist.ArchDrive.model.ClusterStatus;
+import com.archivist.ArchDrive.service.cluster.InvalidationBus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/cluster")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "https://arch-drive.vercel.app/", "https://arch-drive-aarchivists-projects.vercel.app/"})
+public class ClusterController {
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @GetMapping
+    public ResponseEntity<ClusterStatus> getStatus() {
+        return ResponseEntity.ok(invalidationBus.getStatus());
+    }
+}
@@ -1,8 +1,34 @@
 package com.archivist.ArchDrive.controllers;
 
+import com.archivist.ArchDrive.model.BatchRequest;
+import com.archivist.ArchDrive.model.BatchResult;
+import com.archivist.ArchDrive.model.FileInfo;
 import com.archivist.ArchDrive.model.Folder;
+import com.archivist.ArchDrive.model.FolderNode;
+import com.archivist.ArchDrive.model.IntegrityReport;
+import com.archivist.ArchDrive.model.MoveJob;
+import com.archivist.ArchDrive.model.SearchQuery;
+import com.archivist.ArchDrive.model.SearchResult;
 import com.archivist.ArchDrive.model.StoredFile;
+import com.archivist.ArchDrive.model.TextPage;
+import com.archivist.ArchDrive.service.admission.TransferAdmission;
+import com.archivist.ArchDrive.service.admission.TransferAdmission.TransferClass;
+import com.archivist.ArchDrive.service.admission.WeightedPool;
+import com.archivist.ArchDrive.service.bandwidth.BandwidthShaper;
+import com.archivist.ArchDrive.service.batch.BatchOperationService;
+import com.archivist.ArchDrive.service.index.FileSearchIndex;
+import com.archivist.ArchDrive.service.index.FolderTree;
+import com.archivist.ArchDrive.service.preview.NotTextException;
+import com.archivist.ArchDrive.service.preview.PreviewLimitException;
+import com.archivist.ArchDrive.service.preview.TextPreviewService;
+import com.archivist.ArchDrive.service.storage.ContentTypes;
+import com.archivist.ArchDrive.service.storage.FileContent;
 import com.archivist.ArchDrive.service.storage.FileStorageService;
+import com.archivist.ArchDrive.service.storage.IntegrityMonitor;
+import com.archivist.ArchDrive.service.storage.IntegrityScrubber;
+import com.archivist.ArchDrive.service.storage.RangeNotSatisfiableException;
+import com.archivist.ArchDrive.service.storage.TargetExistsException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
@@ -13,7 +39,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -26,9 +55,35 @@ public class FileController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private FolderTree folderTree;
+
+    @Autowired
+    private FileSearchIndex fileSearchIndex;
+
+    @Autowired
+    private IntegrityMonitor integrityMonitor;
+
+    @Autowired
+    private IntegrityScrubber integrityScrubber;
+
+    @Autowired
+    private BandwidthShaper bandwidthShaper;
+
+    @Autowired
+    private TextPreviewService textPreviewService;
+
+    @Autowired
+    private BatchOperationService batchOperationService;
+
+    @Autowired
+    private TransferAdmission transferAdmission;
+
     @PostMapping("/upload")
-    public ResponseEntity<StoredFile> uploadFile(@RequestParam("file") MultipartFile file, @RequestParam(required = false) String folder) {
+    public ResponseEntity<StoredFile> uploadFile(@RequestParam("file") MultipartFile file, @RequestParam(required = false) String folder,
+                                                 HttpServletRequest request) {
         try {
+            file = bandwidthShaper.shapeUpload(file, bandwidthShaper.clientId(request));
             StoredFile storedFile;
             if (folder != null && !folder.trim().isEmpty()) {
                 storedFile = fileStorageService.uploadFile(file, folder);
@@ -42,6 +97,81 @@ public class FileController {
         }
     }
 
+    @PostMapping("/upload/batch")
+    public ResponseEntity<List<BatchResult>> uploadFiles(@RequestParam("files") List<MultipartFile> files, @RequestParam(required = false) String folder,
+                                                         HttpServletRequest request) {
+        try {
+            String clientId = bandwidthShaper.clientId(request);
+            List<MultipartFile> shaped = new ArrayList<>(files.size());
+            for (MultipartFile file : files) {
+                shaped.add(bandwidthShaper.shapeUpload(file, clientId));
+            }
+            List<BatchResult> results = batchOperationService.uploadAll(shaped, folder);
+            boolean allUploaded = results.stream().allMatch(result -> result.getStatus() == BatchResult.Status.OK);
+            // 207, якщо частина файлів не завантажилась — деталі в результатах
+            return ResponseEntity.status(allUploaded ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Batch upload failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Runs delete/copy/move operations and streams one JSON result per line (NDJSON) as they finish.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ResponseBodyEmitter> runBatch(@RequestBody BatchRequest batch) {
+        // Пакет займає в admission стільки, скільки в ньому операцій, і тримає дозвіл до кінця виконання
+        int operations = batch.getOperations() != null ? batch.getOperations().size() : 0;
+        long weight = transferAdmission.weightFor(TransferClass.BATCH, operations);
+        boolean admitted = transferAdmission.isEnabled();
+        if (admitted) {
+            WeightedPool.Outcome outcome;
+            try {
+                outcome = transferAdmission.acquire(TransferClass.BATCH, weight);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                outcome = WeightedPool.Outcome.TIMED_OUT;
+            }
+            if (outcome != WeightedPool.Outcome.ADMITTED) {
+                log.warn("Rejected batch of {} operations ({})", operations, outcome);
+                return ResponseEntity.status(outcome == WeightedPool.Outcome.QUEUE_FULL ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, Integer.toString(transferAdmission.retryAfterSeconds(TransferClass.BATCH)))
+                        .build();
+            }
+        }
+        Runnable release = () -> {
+            if (admitted) {
+                transferAdmission.release(TransferClass.BATCH, weight);
+            }
+        };
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        try {
+            batchOperationService.execute(batch.getOperations(), result -> sendResult(emitter, result))
+                    .whenComplete((ignored, e) -> {
+                        release.run();
+                        emitter.complete();
+                    });
+        } catch (IllegalArgumentException e) {
+            release.run();
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    private void sendResult(ResponseBodyEmitter emitter, BatchResult result) {
+        try {
+            emitter.send(result, MediaType.APPLICATION_JSON);
+            emitter.send("\n", MediaType.TEXT_PLAIN);
+        } catch (IOException | IllegalStateException e) {
+            // Клієнт відключився — операції все одно завершуються, журнал змін їх побачить
+            log.debug("Could not stream batch result #{}: {}", result.getIndex(), e.getMessage());
+        }
+    }
+
     @GetMapping
     public ResponseEntity<List<StoredFile>> getAllFiles(@RequestParam(required = false) String folder) {
         try {
@@ -74,10 +204,35 @@ public class FileController {
         }
     }
 
+    @GetMapping("/tree")
+    public ResponseEntity<FolderNode> getFolderTree(@RequestParam(required = false) String root,
+                                                    @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int depth) {
+        FolderNode tree = folderTree.getTree(root, depth);
+        if (tree == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // Поки перший обхід бакета не завершено, дерево може бути неповним
+        return ResponseEntity.ok()
+                .header("X-Index-Ready", Boolean.toString(folderTree.isReady()))
+                .body(tree);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<SearchResult> searchFiles(SearchQuery query) {
+        try {
+            return ResponseEntity.ok(fileSearchIndex.search(query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/download")
-    public ResponseEntity<Resource> getFile(@RequestParam("fileName") String fileName) {
+    public ResponseEntity<Resource> getFile(@RequestParam("fileName") String fileName,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                            HttpServletRequest request) {
         try {
-            Resource resource = fileStorageService.downloadFile(fileName);
+            FileContent content = fileStorageService.openFile(fileName, acceptEncoding, range);
 
             // Extract original filename for Content-Disposition header
             String originalFileName = fileName;
@@ -85,10 +240,12 @@ public class FileController {
                 originalFileName = fileName.substring(fileName.indexOf("_") + 1);
             }
 
-            return ResponseEntity.ok()
+            return contentResponse(content)
                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + originalFileName + "\"")
-                    .body(resource);
+                    .body(bandwidthShaper.shapeDownload(content.getResource(), bandwidthShaper.clientId(request)));
+        } catch (RangeNotSatisfiableException e) {
+            return rangeNotSatisfiable(e);
         } catch (Exception e) {
             log.error("Download failed for {}: {}", fileName, e.getMessage(), e);
             return ResponseEntity.notFound().build();
@@ -96,107 +253,84 @@ public class FileController {
     }
 
     @GetMapping("/preview")
-    public ResponseEntity<Resource> previewFile(@RequestParam("fileName") String fileName) {
+    public ResponseEntity<Resource> previewFile(@RequestParam("fileName") String fileName,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                HttpServletRequest request) {
         try {
-            Resource resource = fileStorageService.downloadFile(fileName);
+            FileContent content = fileStorageService.openFile(fileName, acceptEncoding, range);
 
-            // Determine content type based on file extension
-            String contentType = determineContentType(fileName);
+            // Тип, визначений за вмістом при завантаженні, приходить у відповіді R2; для старих файлів — за розширенням
+            String contentType = content.getDetectedContentType() != null
+                    ? content.getDetectedContentType()
+                    : ContentTypes.fromFileName(fileName);
 
-            return ResponseEntity.ok()
+            return contentResponse(content)
                     .contentType(MediaType.parseMediaType(contentType))
-                    .body(resource);
+                    .body(bandwidthShaper.shapeDownload(content.getResource(), bandwidthShaper.clientId(request)));
+        } catch (RangeNotSatisfiableException e) {
+            return rangeNotSatisfiable(e);
         } catch (Exception e) {
             log.error("Preview failed for {}: {}", fileName, e.getMessage(), e);
             return ResponseEntity.notFound().build();
         }
     }
 
-    private String determineContentType(String fileName) {
-        String extension = "";
-        if (fileName.contains(".")) {
-            extension = fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
-        }
-
-        switch (extension) {
-            // Images
-            case "jpg":
-            case "jpeg":
-                return "image/jpeg";
-            case "png":
-                return "image/png";
-            case "gif":
-                return "image/gif";
-            case "webp":
-                return "image/webp";
-            case "svg":
-                return "image/svg+xml";
-            case "bmp":
-                return "image/bmp";
-            case "ico":
-                return "image/x-icon";
-
-            // Text files
-            case "txt":
-                return "text/plain;charset=UTF-8";
-            case "md":
-                return "text/markdown;charset=UTF-8";
-            case "json":
-                return "application/json;charset=UTF-8";
-            case "xml":
-                return "application/xml;charset=UTF-8";
-            case "html":
-            case "htm":
-                return "text/html;charset=UTF-8";
-            case "css":
-                return "text/css;charset=UTF-8";
-            case "js":
-                return "application/javascript;charset=UTF-8";
-            case "ts":
-                return "application/typescript;charset=UTF-8";
-            case "java":
-                return "text/x-java-source;charset=UTF-8";
-            case "py":
-                return "text/x-python;charset=UTF-8";
-            case "sql":
-                return "application/sql;charset=UTF-8";
-            case "yaml":
-            case "yml":
-                return "application/x-yaml;charset=UTF-8";
-
-            // Documents
-            case "pdf":
-                return "application/pdf";
-
-            // Video
-            case "mp4":
-                return "video/mp4";
-            case "webm":
-                return "video/webm";
-            case "avi":
-                return "video/x-msvideo";
-            case "mov":
-                return "video/quicktime";
-            case "wmv":
-                return "video/x-ms-wmv";
-
-            // Audio
-            case "mp3":
-                return "audio/mpeg";
-            case "wav":
-                return "audio/wav";
-            case "ogg":
-                return "audio/ogg";
-            case "aac":
-                return "audio/aac";
-            case "flac":
-                return "audio/flac";
-
-            default:
-                return "application/octet-stream";
+    @GetMapping("/text")
+    public ResponseEntity<TextPage> previewText(@RequestParam("fileName") String fileName,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Long line,
+                                                @RequestParam(required = false) Long offset,
+                                                @RequestParam(defaultValue = "65536") int maxBytes) {
+        try {
+            return ResponseEntity.ok(textPreviewService.readPage(fileName, cursor, line, offset, maxBytes));
+        } catch (NotTextException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        } catch (PreviewLimitException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Text preview failed for {}: {}", fileName, e.getMessage(), e);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/info")
+    public ResponseEntity<FileInfo> getFileInfo(@RequestParam("fileName") String fileName) {
+        try {
+            return ResponseEntity.ok(fileStorageService.getFileInfo(fileName));
+        } catch (Exception e) {
+            log.error("File info failed for {}: {}", fileName, e.getMessage(), e);
+            return ResponseEntity.notFound().build();
         }
     }
 
+    private ResponseEntity.BodyBuilder contentResponse(FileContent content) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(content.isPartial() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (content.isRangeSupported()) {
+            builder.header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        }
+        if (content.isPartial()) {
+            builder.header(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + content.getRangeStart() + "-" + content.getRangeEnd() + "/" + content.getTotalLength());
+        }
+        if (content.getContentEncoding() != null) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, content.getContentEncoding());
+        }
+        if (content.getContentLength() >= 0) {
+            builder.contentLength(content.getContentLength());
+        }
+        return builder;
+    }
+
+    private ResponseEntity<Resource> rangeNotSatisfiable(RangeNotSatisfiableException e) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + e.getTotalLength())
+                .build();
+    }
+
     @DeleteMapping
     public ResponseEntity<Void> deleteFile(@RequestParam("fileName") String fileName) {
         try {
@@ -235,5 +369,63 @@ public class FileController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @PostMapping("/move")
+    public ResponseEntity<StoredFile> moveFile(@RequestParam("fileName") String fileName, @RequestParam(required = false) String targetFolder) {
+        try {
+            StoredFile storedFile = fileStorageService.moveFile(fileName, targetFolder);
+            return ResponseEntity.ok(storedFile);
+        } catch (TargetExistsException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Move failed for {}: {}", fileName, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/folders/rename")
+    public ResponseEntity<MoveJob> renameFolder(@RequestParam("folder") String folderName, @RequestParam("newName") String newFolderName) {
+        try {
+            MoveJob job = fileStorageService.renameFolder(folderName, newFolderName);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (TargetExistsException | IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Rename folder failed for {}: {}", folderName, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<MoveJob> getMoveJob(@PathVariable String jobId) {
+        MoveJob job = fileStorageService.getMoveJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/jobs/{jobId}/resume")
+    public ResponseEntity<MoveJob> resumeMoveJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(fileStorageService.resumeMoveJob(jobId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/integrity")
+    public ResponseEntity<IntegrityReport> getIntegrityReport() {
+        return ResponseEntity.ok(integrityMonitor.getReport());
+    }
+
+    @PostMapping("/integrity/scrub")
+    public ResponseEntity<IntegrityReport> startScrub() {
+        boolean started = integrityScrubber.scrubNow();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(integrityMonitor.getReport());
+    }
 }
 
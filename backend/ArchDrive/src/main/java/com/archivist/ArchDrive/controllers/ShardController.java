@@ -0,0 +1,28 @@
+package com.archivist.ArchDrive.controllers;
+
+import com.archivist.ArchDrive.model.ShardingStatus;
+import com.archivist.ArchDrive.service.shard.ShardRebalancer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/shards")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "https://arch-drive.vercel.app/", "https://arch-drive-aarchivists-projects.vercel.app/"})
+public class ShardController {
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @GetMapping
+    public ResponseEntity<ShardingStatus> getStatus() {
+        return ResponseEntity.ok(shardRebalancer.getStatus());
+    }
+
+    @PostMapping("/rebalance")
+    public ResponseEntity<ShardingStatus> rebalance() {
+        shardRebalancer.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(shardRebalancer.getStatus());
+    }
+}
@@ -0,0 +1,21 @@
+package com.archivist.ArchDrive.controllers;
+
+import com.archivist.ArchDrive.model.StartupReport;
+import com.archivist.ArchDrive.service.startup.StartupMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/startup")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "https://arch-drive.vercel.app/", "https://arch-drive-aarchivists-projects.vercel.app/"})
+public class StartupController {
+
+    @Autowired
+    private StartupMetrics startupMetrics;
+
+    @GetMapping
+    public ResponseEntity<StartupReport> getReport() {
+        return ResponseEntity.ok(startupMetrics.getReport());
+    }
+}
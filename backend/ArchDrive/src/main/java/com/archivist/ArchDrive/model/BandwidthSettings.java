@@ -0,0 +1,93 @@
+package com.archivist.ArchDrive.model;
+
+/**
+ * Bandwidth limits in bytes per second as configured under {@code archdrive.bandwidth}; 0 means
+ * unlimited.
+ */
+public class BandwidthSettings {
+    private Boolean enabled;
+    private Long clientDownloadBytesPerSecond;
+    private Long clientUploadBytesPerSecond;
+    private Long nodeDownloadBytesPerSecond;
+    private Long nodeUploadBytesPerSecond;
+    private Integer quantumBytes; // Скільки байтів отримує потік за один оберт round robin
+    private int activeDownloads; // Лише для читання
+    private int activeUploads;
+    private int trackedClients;
+
+    public BandwidthSettings() {
+    }
+
+    // Getters and setters
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Long getClientDownloadBytesPerSecond() {
+        return clientDownloadBytesPerSecond;
+    }
+
+    public void setClientDownloadBytesPerSecond(Long clientDownloadBytesPerSecond) {
+        this.clientDownloadBytesPerSecond = clientDownloadBytesPerSecond;
+    }
+
+    public Long getClientUploadBytesPerSecond() {
+        return clientUploadBytesPerSecond;
+    }
+
+    public void setClientUploadBytesPerSecond(Long clientUploadBytesPerSecond) {
+        this.clientUploadBytesPerSecond = clientUploadBytesPerSecond;
+    }
+
+    public Long getNodeDownloadBytesPerSecond() {
+        return nodeDownloadBytesPerSecond;
+    }
+
+    public void setNodeDownloadBytesPerSecond(Long nodeDownloadBytesPerSecond) {
+        this.nodeDownloadBytesPerSecond = nodeDownloadBytesPerSecond;
+    }
+
+    public Long getNodeUploadBytesPerSecond() {
+        return nodeUploadBytesPerSecond;
+    }
+
+    public void setNodeUploadBytesPerSecond(Long nodeUploadBytesPerSecond) {
+        this.nodeUploadBytesPerSecond = nodeUploadBytesPerSecond;
+    }
+
+    public Integer getQuantumBytes() {
+        return quantumBytes;
+    }
+
+    public void setQuantumBytes(Integer quantumBytes) {
+        this.quantumBytes = quantumBytes;
+    }
+
+    public int getActiveDownloads() {
+        return activeDownloads;
+    }
+
+    public void setActiveDownloads(int activeDownloads) {
+        this.activeDownloads = activeDownloads;
+    }
+
+    public int getActiveUploads() {
+        return activeUploads;
+    }
+
+    public void setActiveUploads(int activeUploads) {
+        this.activeUploads = activeUploads;
+    }
+
+    public int getTrackedClients() {
+        return trackedClients;
+    }
+
+    public void setTrackedClients(int trackedClients) {
+        this.trackedClients = trackedClients;
+    }
+}
@@ -0,0 +1,49 @@
+package com.archivist.ArchDrive.model;
+
+public class BatchOperation {
+
+    public enum Op {
+        DELETE,
+        COPY,
+        MOVE,
+        UPLOAD // Лише в результатах POST /api/files/upload/batch
+    }
+
+    private Op op;
+    private String fileName; // Object key (e.g., "documents/uuid_report.pdf")
+    private String targetFolder; // For COPY and MOVE, "" or null for root
+
+    public BatchOperation() {
+    }
+
+    public BatchOperation(Op op, String fileName, String targetFolder) {
+        this.op = op;
+        this.fileName = fileName;
+        this.targetFolder = targetFolder;
+    }
+
+    // Getters and setters
+    public Op getOp() {
+        return op;
+    }
+
+    public void setOp(Op op) {
+        this.op = op;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getTargetFolder() {
+        return targetFolder;
+    }
+
+    public void setTargetFolder(String targetFolder) {
+        this.targetFolder = targetFolder;
+    }
+}
@@ -0,0 +1,20 @@
+package com.archivist.ArchDrive.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchRequest {
+    private List<BatchOperation> operations = new ArrayList<>();
+
+    public BatchRequest() {
+    }
+
+    // Getters and setters
+    public List<BatchOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<BatchOperation> operations) {
+        this.operations = operations;
+    }
+}
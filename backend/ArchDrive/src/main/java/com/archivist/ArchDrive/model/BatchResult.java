@@ -0,0 +1,100 @@
+package com.archivist.ArchDrive.model;
+
+public class BatchResult {
+
+    public enum Status {
+        OK,
+        FAILED
+    }
+
+    private int index; // Position of the operation (or uploaded file) in the request
+    private BatchOperation.Op op;
+    private String fileName;
+    private Status status;
+    private StoredFile file; // Resulting object for COPY, MOVE and UPLOAD
+    private String error;
+
+    public BatchResult() {
+    }
+
+    public static BatchResult ok(BatchOperation.Op op, String fileName, StoredFile file) {
+        BatchResult result = new BatchResult();
+        result.op = op;
+        result.fileName = fileName;
+        result.status = Status.OK;
+        result.file = file;
+        return result;
+    }
+
+    public static BatchResult failed(BatchOperation.Op op, String fileName, String error) {
+        BatchResult result = new BatchResult();
+        result.op = op;
+        result.fileName = fileName;
+        result.status = Status.FAILED;
+        result.error = error;
+        return result;
+    }
+
+    /**
+     * Copy of this result for another request position, used when the same key was listed twice.
+     */
+    public BatchResult withIndex(int index) {
+        BatchResult copy = new BatchResult();
+        copy.index = index;
+        copy.op = op;
+        copy.fileName = fileName;
+        copy.status = status;
+        copy.file = file;
+        copy.error = error;
+        return copy;
+    }
+
+    // Getters and setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public BatchOperation.Op getOp() {
+        return op;
+    }
+
+    public void setOp(BatchOperation.Op op) {
+        this.op = op;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public StoredFile getFile() {
+        return file;
+    }
+
+    public void setFile(StoredFile file) {
+        this.file = file;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,52 @@
+package com.archivist.ArchDrive.model;
+
+import java.util.List;
+
+public class ChangeFeed {
+    private List<FileChange> changes;
+    private String nextToken; // Pass as "since" on the next call
+    private boolean resetRequired; // Token unknown or too old: re-list everything, then continue from nextToken
+    private boolean hasMore;
+
+    public ChangeFeed() {
+    }
+
+    public ChangeFeed(List<FileChange> changes, String nextToken, boolean resetRequired, boolean hasMore) {
+        this.changes = changes;
+        this.nextToken = nextToken;
+        this.resetRequired = resetRequired;
+        this.hasMore = hasMore;
+    }
+
+    public List<FileChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<FileChange> changes) {
+        this.changes = changes;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+
+    public boolean isResetRequired() {
+        return resetRequired;
+    }
+
+    public void setResetRequired(boolean resetRequired) {
+        this.resetRequired = resetRequired;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
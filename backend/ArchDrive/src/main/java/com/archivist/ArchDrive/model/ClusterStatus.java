@@ -0,0 +1,162 @@
+package com.archivist.ArchDrive.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ClusterStatus {
+
+    public static class PeerInfo {
+        private String nodeId;
+        private String epoch;
+        private long version; // Остання версія, отримана від вузла
+        private LocalDateTime lastSeen;
+
+        public PeerInfo() {
+        }
+
+        public PeerInfo(String nodeId, String epoch, long version, LocalDateTime lastSeen) {
+            this.nodeId = nodeId;
+            this.epoch = epoch;
+            this.version = version;
+            this.lastSeen = lastSeen;
+        }
+
+        // Getters and setters
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public String getEpoch() {
+            return epoch;
+        }
+
+        public void setEpoch(String epoch) {
+            this.epoch = epoch;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public void setVersion(long version) {
+            this.version = version;
+        }
+
+        public LocalDateTime getLastSeen() {
+            return lastSeen;
+        }
+
+        public void setLastSeen(LocalDateTime lastSeen) {
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    private boolean enabled;
+    private String nodeId;
+    private String transport;
+    private long version; // Скільки змін цей вузол розіслав
+    private long received;
+    private long duplicates;
+    private long gaps; // Пропуски, які не вдалося заповнити, кожен закінчився скиданням журналу
+    private long recovered; // Пропуски, заповнені пересиланням
+    private long resent; // Повідомлень переслано на запит інших вузлів
+    private long rejected; // Кадрів з неправильним підписом
+    private List<PeerInfo> peers = new ArrayList<>();
+
+    public ClusterStatus() {
+    }
+
+    // Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public void setReceived(long received) {
+        this.received = received;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public long getGaps() {
+        return gaps;
+    }
+
+    public void setGaps(long gaps) {
+        this.gaps = gaps;
+    }
+
+    public long getRecovered() {
+        return recovered;
+    }
+
+    public void setRecovered(long recovered) {
+        this.recovered = recovered;
+    }
+
+    public long getResent() {
+        return resent;
+    }
+
+    public void setResent(long resent) {
+        this.resent = resent;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<PeerInfo> getPeers() {
+        return peers;
+    }
+
+    public void setPeers(List<PeerInfo> peers) {
+        this.peers = peers;
+    }
+}
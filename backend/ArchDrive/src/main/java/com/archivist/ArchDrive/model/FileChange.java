@@ -0,0 +1,100 @@
+package com.archivist.ArchDrive.model;
+
+import java.time.LocalDateTime;
+
+public class FileChange {
+
+    public enum Type {
+        UPLOAD,
+        DELETE,
+        MOVE,
+        CREATE_FOLDER,
+        DELETE_FOLDER
+    }
+
+    private long sequence;
+    private Type type;
+    private String key; // Object key, or folder path for folder changes
+    private String previousKey; // Only for MOVE
+    private long size;
+    private String contentType;
+    private LocalDateTime timestamp;
+    private String origin; // Node that made the change, null when it was made on this node
+
+    public FileChange() {
+    }
+
+    public FileChange(Type type, String key, String previousKey, long size, String contentType) {
+        this.type = type;
+        this.key = key;
+        this.previousKey = previousKey;
+        this.size = size;
+        this.contentType = contentType;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    // Getters and setters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getPreviousKey() {
+        return previousKey;
+    }
+
+    public void setPreviousKey(String previousKey) {
+        this.previousKey = previousKey;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+}
@@ -0,0 +1,86 @@
+package com.archivist.ArchDrive.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a stored file is, without downloading it: lets the frontend decide between a text viewer,
+ * a media player or a download link.
+ */
+public class FileInfo {
+    private String id;
+    private String fileName;
+    private long size; // Розмір оригіналу (для стиснутих об'єктів — до стиснення)
+    private String contentType;
+    private String charset; // Лише для тексту
+    private boolean text;
+    private String sha256;
+    private LocalDateTime uploadedAt;
+
+    public FileInfo() {
+    }
+
+    // Getters and setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getCharset() {
+        return charset;
+    }
+
+    public void setCharset(String charset) {
+        this.charset = charset;
+    }
+
+    public boolean isText() {
+        return text;
+    }
+
+    public void setText(boolean text) {
+        this.text = text;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public LocalDateTime getUploadedAt() {
+        return uploadedAt;
+    }
+
+    public void setUploadedAt(LocalDateTime uploadedAt) {
+        this.uploadedAt = uploadedAt;
+    }
+}
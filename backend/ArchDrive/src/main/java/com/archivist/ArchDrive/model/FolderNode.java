@@ -0,0 +1,73 @@
+package com.archivist.ArchDrive.model;
+
+import java.util.List;
+
+public class FolderNode {
+    private String name;
+    private String path; // Full path with trailing slash, "" for the root
+    private long fileCount; // Files directly in this folder
+    private long totalFileCount; // Files in this folder and all subfolders
+    private long totalSize; // Bytes in this folder and all subfolders
+    private int childCount;
+    private List<FolderNode> children; // Null when cut off by the requested depth
+
+    public FolderNode() {
+    }
+
+    // Getters and setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    public void setFileCount(long fileCount) {
+        this.fileCount = fileCount;
+    }
+
+    public long getTotalFileCount() {
+        return totalFileCount;
+    }
+
+    public void setTotalFileCount(long totalFileCount) {
+        this.totalFileCount = totalFileCount;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public int getChildCount() {
+        return childCount;
+    }
+
+    public void setChildCount(int childCount) {
+        this.childCount = childCount;
+    }
+
+    public List<FolderNode> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<FolderNode> children) {
+        this.children = children;
+    }
+}
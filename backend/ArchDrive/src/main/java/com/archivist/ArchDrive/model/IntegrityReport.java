@@ -0,0 +1,114 @@
+package com.archivist.ArchDrive.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class IntegrityReport {
+
+    public static class CorruptObject {
+        private String key;
+        private String expectedSha256;
+        private String actualSha256;
+        private String detectedBy; // "download" or "scrubber"
+        private LocalDateTime detectedAt;
+
+        public CorruptObject() {
+        }
+
+        public CorruptObject(String key, String expectedSha256, String actualSha256, String detectedBy, LocalDateTime detectedAt) {
+            this.key = key;
+            this.expectedSha256 = expectedSha256;
+            this.actualSha256 = actualSha256;
+            this.detectedBy = detectedBy;
+            this.detectedAt = detectedAt;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getExpectedSha256() {
+            return expectedSha256;
+        }
+
+        public String getActualSha256() {
+            return actualSha256;
+        }
+
+        public String getDetectedBy() {
+            return detectedBy;
+        }
+
+        public LocalDateTime getDetectedAt() {
+            return detectedAt;
+        }
+    }
+
+    private boolean scrubRunning;
+    private LocalDateTime lastScrubStartedAt;
+    private LocalDateTime lastScrubFinishedAt;
+    private long objectsChecked; // During the current or last scrub
+    private long bytesChecked;
+    private long objectsSkipped; // Objects stored before hashes were recorded
+    private List<CorruptObject> corruptObjects;
+
+    public IntegrityReport() {
+    }
+
+    // Getters and setters
+    public boolean isScrubRunning() {
+        return scrubRunning;
+    }
+
+    public void setScrubRunning(boolean scrubRunning) {
+        this.scrubRunning = scrubRunning;
+    }
+
+    public LocalDateTime getLastScrubStartedAt() {
+        return lastScrubStartedAt;
+    }
+
+    public void setLastScrubStartedAt(LocalDateTime lastScrubStartedAt) {
+        this.lastScrubStartedAt = lastScrubStartedAt;
+    }
+
+    public LocalDateTime getLastScrubFinishedAt() {
+        return lastScrubFinishedAt;
+    }
+
+    public void setLastScrubFinishedAt(LocalDateTime lastScrubFinishedAt) {
+        this.lastScrubFinishedAt = lastScrubFinishedAt;
+    }
+
+    public long getObjectsChecked() {
+        return objectsChecked;
+    }
+
+    public void setObjectsChecked(long objectsChecked) {
+        this.objectsChecked = objectsChecked;
+    }
+
+    public long getBytesChecked() {
+        return bytesChecked;
+    }
+
+    public void setBytesChecked(long bytesChecked) {
+        this.bytesChecked = bytesChecked;
+    }
+
+    public long getObjectsSkipped() {
+        return objectsSkipped;
+    }
+
+    public void setObjectsSkipped(long objectsSkipped) {
+        this.objectsSkipped = objectsSkipped;
+    }
+
+    public List<CorruptObject> getCorruptObjects() {
+        return corruptObjects;
+    }
+
+    public void setCorruptObjects(List<CorruptObject> corruptObjects) {
+        this.corruptObjects = corruptObjects;
+    }
+}
@@ -0,0 +1,145 @@
+package com.archivist.ArchDrive.model;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MoveJob {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private String id;
+    private String sourcePath; // Folder being moved (e.g., "documents/")
+    private String targetPath; // New folder path (e.g., "archive/documents/")
+    private volatile Status status;
+    private final AtomicLong copiedObjects = new AtomicLong();
+    private final AtomicLong deletedObjects = new AtomicLong();
+    private final AtomicLong failedObjects = new AtomicLong();
+    private final AtomicLong copiedBytes = new AtomicLong();
+    private volatile String lastKey; // Last source key processed, for progress display
+    private volatile String error;
+    private LocalDateTime createdAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile int attempts;
+
+    public MoveJob() {
+    }
+
+    public MoveJob(String id, String sourcePath, String targetPath) {
+        this.id = id;
+        this.sourcePath = sourcePath;
+        this.targetPath = targetPath;
+        this.status = Status.PENDING;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public void setSourcePath(String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    public String getTargetPath() {
+        return targetPath;
+    }
+
+    public void setTargetPath(String targetPath) {
+        this.targetPath = targetPath;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getCopiedObjects() {
+        return copiedObjects.get();
+    }
+
+    public long getDeletedObjects() {
+        return deletedObjects.get();
+    }
+
+    public long getFailedObjects() {
+        return failedObjects.get();
+    }
+
+    public long getCopiedBytes() {
+        return copiedBytes.get();
+    }
+
+    public void recordCopied(long bytes) {
+        copiedObjects.incrementAndGet();
+        copiedBytes.addAndGet(bytes);
+    }
+
+    public void recordDeleted(long count) {
+        deletedObjects.addAndGet(count);
+    }
+
+    public void recordFailed() {
+        failedObjects.incrementAndGet();
+    }
+
+    public void resetFailures() {
+        failedObjects.set(0);
+    }
+
+    public String getLastKey() {
+        return lastKey;
+    }
+
+    public void setLastKey(String lastKey) {
+        this.lastKey = lastKey;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
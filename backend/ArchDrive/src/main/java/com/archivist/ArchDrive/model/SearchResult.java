@@ -0,0 +1,72 @@
+package com.archivist.ArchDrive.model;
+
+import java.util.List;
+
+public class SearchResult {
+    private List<StoredFile> items; // Newest first
+    private long total; // Matches across all pages
+    private int page;
+    private int size;
+    private boolean indexReady; // False while the first bucket scan is still running
+    private long tookMicros;
+
+    public SearchResult() {
+    }
+
+    public SearchResult(List<StoredFile> items, long total, int page, int size, boolean indexReady, long tookMicros) {
+        this.items = items;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.indexReady = indexReady;
+        this.tookMicros = tookMicros;
+    }
+
+    public List<StoredFile> getItems() {
+        return items;
+    }
+
+    public void setItems(List<StoredFile> items) {
+        this.items = items;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isIndexReady() {
+        return indexReady;
+    }
+
+    public void setIndexReady(boolean indexReady) {
+        this.indexReady = indexReady;
+    }
+
+    public long getTookMicros() {
+        return tookMicros;
+    }
+
+    public void setTookMicros(long tookMicros) {
+        this.tookMicros = tookMicros;
+    }
+}
@@ -0,0 +1,160 @@
+package com.archivist.ArchDrive.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ShardingStatus {
+
+    public enum RebalanceState {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public static class ShardInfo {
+        private String name;
+        private String endpoint;
+        private String bucket;
+        private int weight;
+
+        public ShardInfo() {
+        }
+
+        public ShardInfo(String name, String endpoint, String bucket, int weight) {
+            this.name = name;
+            this.endpoint = endpoint;
+            this.bucket = bucket;
+            this.weight = weight;
+        }
+
+        // Getters and setters
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public String getBucket() {
+            return bucket;
+        }
+
+        public void setBucket(String bucket) {
+            this.bucket = bucket;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private List<ShardInfo> shards = new ArrayList<>();
+    private boolean rebalancing; // Lookups still probe old locations
+    private RebalanceState rebalanceState;
+    private long scannedObjects;
+    private long movedObjects;
+    private long movedBytes;
+    private long failedObjects;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    public ShardingStatus() {
+    }
+
+    // Getters and setters
+    public List<ShardInfo> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<ShardInfo> shards) {
+        this.shards = shards;
+    }
+
+    public boolean isRebalancing() {
+        return rebalancing;
+    }
+
+    public void setRebalancing(boolean rebalancing) {
+        this.rebalancing = rebalancing;
+    }
+
+    public RebalanceState getRebalanceState() {
+        return rebalanceState;
+    }
+
+    public void setRebalanceState(RebalanceState rebalanceState) {
+        this.rebalanceState = rebalanceState;
+    }
+
+    public long getScannedObjects() {
+        return scannedObjects;
+    }
+
+    public void setScannedObjects(long scannedObjects) {
+        this.scannedObjects = scannedObjects;
+    }
+
+    public long getMovedObjects() {
+        return movedObjects;
+    }
+
+    public void setMovedObjects(long movedObjects) {
+        this.movedObjects = movedObjects;
+    }
+
+    public long getMovedBytes() {
+        return movedBytes;
+    }
+
+    public void setMovedBytes(long movedBytes) {
+        this.movedBytes = movedBytes;
+    }
+
+    public long getFailedObjects() {
+        return failedObjects;
+    }
+
+    public void setFailedObjects(long failedObjects) {
+        this.failedObjects = failedObjects;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
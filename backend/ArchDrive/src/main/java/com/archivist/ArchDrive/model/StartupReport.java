@@ -0,0 +1,102 @@
+package com.archivist.ArchDrive.model;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class StartupReport {
+    private LocalDateTime jvmStartedAt;
+    private long readyMillis = -1; // JVM start -> ApplicationReadyEvent
+    private long springStartupMillis = -1; // SpringApplication.run() until ready, as measured by Spring
+    private long classesLoadedAtReady;
+    private boolean aotEnabled;
+    private boolean cdsArchive; // Started with -XX:SharedArchiveFile
+    private String firstRequest; // e.g. "GET /api/files"
+    private long firstRequestMillis = -1; // JVM start -> first request arrived
+    private long firstRequestLatencyMillis = -1;
+    private Map<String, Long> s3WarmupMillis = new LinkedHashMap<>(); // Per shard: client creation + pre-warmed connections
+
+    public StartupReport() {
+    }
+
+    // Getters and setters
+    public LocalDateTime getJvmStartedAt() {
+        return jvmStartedAt;
+    }
+
+    public void setJvmStartedAt(LocalDateTime jvmStartedAt) {
+        this.jvmStartedAt = jvmStartedAt;
+    }
+
+    public long getReadyMillis() {
+        return readyMillis;
+    }
+
+    public void setReadyMillis(long readyMillis) {
+        this.readyMillis = readyMillis;
+    }
+
+    public long getSpringStartupMillis() {
+        return springStartupMillis;
+    }
+
+    public void setSpringStartupMillis(long springStartupMillis) {
+        this.springStartupMillis = springStartupMillis;
+    }
+
+    public long getClassesLoadedAtReady() {
+        return classesLoadedAtReady;
+    }
+
+    public void setClassesLoadedAtReady(long classesLoadedAtReady) {
+        this.classesLoadedAtReady = classesLoadedAtReady;
+    }
+
+    public boolean isAotEnabled() {
+        return aotEnabled;
+    }
+
+    public void setAotEnabled(boolean aotEnabled) {
+        this.aotEnabled = aotEnabled;
+    }
+
+    public boolean isCdsArchive() {
+        return cdsArchive;
+    }
+
+    public void setCdsArchive(boolean cdsArchive) {
+        this.cdsArchive = cdsArchive;
+    }
+
+    public String getFirstRequest() {
+        return firstRequest;
+    }
+
+    public void setFirstRequest(String firstRequest) {
+        this.firstRequest = firstRequest;
+    }
+
+    public long getFirstRequestMillis() {
+        return firstRequestMillis;
+    }
+
+    public void setFirstRequestMillis(long firstRequestMillis) {
+        this.firstRequestMillis = firstRequestMillis;
+    }
+
+    public long getFirstRequestLatencyMillis() {
+        return firstRequestLatencyMillis;
+    }
+
+    public void setFirstRequestLatencyMillis(long firstRequestLatencyMillis) {
+        this.firstRequestLatencyMillis = firstRequestLatencyMillis;
+    }
+
+    public Map<String, Long> getS3WarmupMillis() {
+        return s3WarmupMillis;
+    }
+
+    public void setS3WarmupMillis(Map<String, Long> s3WarmupMillis) {
+        this.s3WarmupMillis = s3WarmupMillis;
+    }
+}
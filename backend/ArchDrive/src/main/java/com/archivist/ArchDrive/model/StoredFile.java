@@ -8,6 +8,7 @@ public class StoredFile {
     private String folder; // Optional folder path (e.g., "documents/", "images/")
     private String url;
     private long size;
+    private String contentType;
     private LocalDateTime uploadedAt;
 
     public StoredFile() {
@@ -62,6 +63,14 @@ public class StoredFile {
         this.size = size;
     }
 
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
     public LocalDateTime getUploadedAt() {
         return uploadedAt;
     }
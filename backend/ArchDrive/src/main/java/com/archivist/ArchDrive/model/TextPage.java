@@ -0,0 +1,85 @@
+package com.archivist.ArchDrive.model;
+
+import java.util.List;
+
+/**
+ * One line-aligned window of a text file. Pass {@code nextCursor} back to get the following page.
+ */
+public class TextPage {
+    private String fileName;
+    private String charset;
+    private long offset; // Байтова позиція першого рядка сторінки
+    private long firstLine; // Номер першого рядка (з 0) або -1, якщо невідомий
+    private List<String> lines;
+    private String nextCursor; // null — кінець файлу
+    private long totalSize;
+    private boolean truncated; // Рядок довший за вікно, повернуто лише його частину
+
+    public TextPage() {
+    }
+
+    // Getters and setters
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getCharset() {
+        return charset;
+    }
+
+    public void setCharset(String charset) {
+        this.charset = charset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public long getFirstLine() {
+        return firstLine;
+    }
+
+    public void setFirstLine(long firstLine) {
+        this.firstLine = firstLine;
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<String> lines) {
+        this.lines = lines;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+}
@@ -0,0 +1,163 @@
+package com.archivist.ArchDrive.service.admission;
+
+import com.archivist.ArchDrive.service.admission.TransferAdmission.TransferClass;
+import com.archivist.ArchDrive.service.index.FileSearchIndex;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits /api/files requests through {@link TransferAdmission} before anything reads the body, so
+ * an upload that is turned away never gets its multipart parsed. A full wait queue answers 429, a
+ * wait that times out answers 503; both carry Retry-After.
+ *
+ * <p>A request that goes async keeps its permit until the async response completes. Long-lived
+ * change feed requests (long poll and SSE) hold no transfer resources and are not counted. Batch
+ * requests are admitted by the controller, which only knows their weight once the body is parsed.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionFilter.class);
+
+    private final TransferAdmission admission;
+    private final FileSearchIndex fileSearchIndex;
+    private final long textScanBytes; // Скільки може прочитати перехід до рядка в текстовому перегляді
+
+    public AdmissionFilter(TransferAdmission admission, FileSearchIndex fileSearchIndex, long textScanBytes) {
+        this.admission = admission;
+        this.fileSearchIndex = fileSearchIndex;
+        this.textScanBytes = textScanBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!admission.isEnabled() || "OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/api/files/changes/poll") || path.startsWith("/api/files/changes/stream")
+                || path.equals("/api/files/batch");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        TransferClass transferClass = classify(request);
+        long weight = admission.weightFor(transferClass, transferSize(request, transferClass));
+
+        WeightedPool.Outcome outcome;
+        try {
+            outcome = admission.acquire(transferClass, weight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response, transferClass, HttpStatus.SERVICE_UNAVAILABLE);
+            return;
+        }
+        if (outcome != WeightedPool.Outcome.ADMITTED) {
+            HttpStatus status = outcome == WeightedPool.Outcome.QUEUE_FULL ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+            log.warn("Rejected {} {} ({} pool {}, weight {})", request.getMethod(), request.getRequestURI(),
+                    transferClass, outcome, weight);
+            reject(response, transferClass, status);
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                admission.release(transferClass, weight);
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Відповідь ще пишеться в іншому потоці — дозвіл тримаємо до її завершення
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private TransferClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("POST".equals(request.getMethod()) && (path.equals("/api/files/upload") || path.equals("/api/files/upload/batch"))) {
+            return TransferClass.UPLOAD;
+        }
+        if ("GET".equals(request.getMethod())
+                && (path.equals("/api/files/download") || path.equals("/api/files/preview") || path.equals("/api/files/text"))) {
+            return TransferClass.DOWNLOAD;
+        }
+        return TransferClass.METADATA;
+    }
+
+    private long transferSize(HttpServletRequest request, TransferClass transferClass) {
+        switch (transferClass) {
+            case UPLOAD:
+                return request.getContentLengthLong();
+            case DOWNLOAD:
+                if (request.getRequestURI().endsWith("/text")) {
+                    // Текстовий перегляд читає одну сторінку, а перехід до рядка ще й підраховує рядки до неї
+                    long page = parseLong(request.getParameter("maxBytes"), 65536);
+                    return parseLong(request.getParameter("line"), 0) > 0 ? page + textScanBytes : page;
+                }
+                String fileName = request.getParameter("fileName");
+                return fileName != null ? fileSearchIndex.sizeOf(fileName) : -1;
+            default:
+                return 1;
+        }
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return value != null ? Long.parseLong(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private void reject(HttpServletResponse response, TransferClass transferClass, HttpStatus status) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(admission.retryAfterSeconds(transferClass)));
+    }
+
+    private static final class ReleasingListener implements AsyncListener {
+        private final Runnable release;
+
+        ReleasingListener(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Повторний startAsync: слухача треба зареєструвати знову
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.archivist.ArchDrive.service.admission;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds separate admission pools for uploads, downloads, metadata calls and batch operations.
+ * Transfers are weighted by their size in bytes so a few large files fill the pool as much as many
+ * small ones, and metadata calls have their own pool so listings stay fast while transfers saturate
+ * the node. Batches are weighted by their number of operations.
+ */
+@Component
+public class TransferAdmission {
+
+    public enum TransferClass { UPLOAD, DOWNLOAD, METADATA, BATCH }
+
+    @Value("${archdrive.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archdrive.admission.min-weight-bytes:1048576}")
+    private long minWeightBytes;
+
+    @Value("${archdrive.admission.upload.capacity-bytes:1073741824}")
+    private long uploadCapacity;
+
+    @Value("${archdrive.admission.upload.max-active:8}")
+    private int uploadMaxActive;
+
+    @Value("${archdrive.admission.upload.max-queue:16}")
+    private int uploadMaxQueue;
+
+    @Value("${archdrive.admission.upload.max-wait-ms:30000}")
+    private long uploadMaxWaitMs;
+
+    @Value("${archdrive.admission.upload.retry-after-seconds:30}")
+    private int uploadRetryAfter;
+
+    @Value("${archdrive.admission.download.capacity-bytes:2147483648}")
+    private long downloadCapacity;
+
+    @Value("${archdrive.admission.download.max-active:32}")
+    private int downloadMaxActive;
+
+    @Value("${archdrive.admission.download.max-queue:64}")
+    private int downloadMaxQueue;
+
+    @Value("${archdrive.admission.download.max-wait-ms:15000}")
+    private long downloadMaxWaitMs;
+
+    @Value("${archdrive.admission.download.retry-after-seconds:10}")
+    private int downloadRetryAfter;
+
+    @Value("${archdrive.admission.download.default-weight-bytes:33554432}")
+    private long downloadDefaultWeight;
+
+    @Value("${archdrive.admission.metadata.max-active:64}")
+    private int metadataMaxActive;
+
+    @Value("${archdrive.admission.metadata.max-queue:128}")
+    private int metadataMaxQueue;
+
+    @Value("${archdrive.admission.metadata.max-wait-ms:2000}")
+    private long metadataMaxWaitMs;
+
+    @Value("${archdrive.admission.metadata.retry-after-seconds:1}")
+    private int metadataRetryAfter;
+
+    @Value("${archdrive.admission.batch.capacity-operations:2000}")
+    private long batchCapacity;
+
+    @Value("${archdrive.admission.batch.max-active:4}")
+    private int batchMaxActive;
+
+    @Value("${archdrive.admission.batch.max-queue:8}")
+    private int batchMaxQueue;
+
+    @Value("${archdrive.admission.batch.max-wait-ms:30000}")
+    private long batchMaxWaitMs;
+
+    @Value("${archdrive.admission.batch.retry-after-seconds:10}")
+    private int batchRetryAfter;
+
+    private WeightedPool uploads;
+    private WeightedPool downloads;
+    private WeightedPool metadata;
+    private WeightedPool batches;
+
+    @PostConstruct
+    void createPools() {
+        uploads = new WeightedPool("upload", uploadCapacity, uploadMaxActive, uploadMaxQueue);
+        downloads = new WeightedPool("download", downloadCapacity, downloadMaxActive, downloadMaxQueue);
+        // Метадані рахуються запитами, а не байтами
+        metadata = new WeightedPool("metadata", metadataMaxActive, metadataMaxActive, metadataMaxQueue);
+        batches = new WeightedPool("batch", batchCapacity, batchMaxActive, batchMaxQueue);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Admission weight for a transfer of {@code bytes}; -1 means the size is unknown. For a batch the
+     * amount is its number of operations.
+     */
+    public long weightFor(TransferClass transferClass, long bytes) {
+        if (transferClass == TransferClass.METADATA) {
+            return 1;
+        }
+        if (transferClass == TransferClass.BATCH) {
+            return batches.normalize(bytes);
+        }
+        if (bytes < 0) {
+            bytes = transferClass == TransferClass.DOWNLOAD ? downloadDefaultWeight : minWeightBytes;
+        }
+        return pool(transferClass).normalize(Math.max(bytes, minWeightBytes));
+    }
+
+    public WeightedPool.Outcome acquire(TransferClass transferClass, long weight) throws InterruptedException {
+        return pool(transferClass).acquire(weight, maxWaitMs(transferClass));
+    }
+
+    public void release(TransferClass transferClass, long weight) {
+        pool(transferClass).release(weight);
+    }
+
+    public int retryAfterSeconds(TransferClass transferClass) {
+        switch (transferClass) {
+            case UPLOAD:
+                return uploadRetryAfter;
+            case DOWNLOAD:
+                return downloadRetryAfter;
+            case BATCH:
+                return batchRetryAfter;
+            default:
+                return metadataRetryAfter;
+        }
+    }
+
+    public WeightedPool pool(TransferClass transferClass) {
+        switch (transferClass) {
+            case UPLOAD:
+                return uploads;
+            case DOWNLOAD:
+                return downloads;
+            case BATCH:
+                return batches;
+            default:
+                return metadata;
+        }
+    }
+
+    private long maxWaitMs(TransferClass transferClass) {
+        switch (transferClass) {
+            case UPLOAD:
+                return uploadMaxWaitMs;
+            case DOWNLOAD:
+                return downloadMaxWaitMs;
+            case BATCH:
+                return batchMaxWaitMs;
+            default:
+                return metadataMaxWaitMs;
+        }
+    }
+}
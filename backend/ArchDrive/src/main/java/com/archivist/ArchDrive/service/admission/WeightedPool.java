@@ -0,0 +1,173 @@
+package com.archivist.ArchDrive.service.admission;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Semaphore over a weighted capacity (bytes in flight) and a count of active requests, with a
+ * bounded FIFO wait queue. Waiters are admitted strictly in arrival order, so a large transfer at
+ * the head of the queue is not starved by a stream of small ones behind it.
+ */
+public class WeightedPool {
+
+    public enum Outcome { ADMITTED, QUEUE_FULL, TIMED_OUT }
+
+    private final String name;
+    private final long capacity;
+    private final int maxActive;
+    private final int maxQueue;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+    private long used;
+    private int active;
+    private long rejected;
+
+    public WeightedPool(String name, long capacity, int maxActive, int maxQueue) {
+        this.name = name;
+        this.capacity = capacity;
+        this.maxActive = maxActive;
+        this.maxQueue = maxQueue;
+    }
+
+    /**
+     * Clamps a request's weight into [1, capacity]; anything bigger than the whole pool still gets
+     * in, just alone.
+     */
+    public long normalize(long weight) {
+        return Math.max(1, Math.min(weight, capacity));
+    }
+
+    /**
+     * Waits up to {@code maxWaitMs} for {@code weight} (already normalized) to fit. On
+     * {@link Outcome#ADMITTED} the caller must call {@link #release(long)} with the same weight.
+     */
+    public Outcome acquire(long weight, long maxWaitMs) throws InterruptedException {
+        lock.lock();
+        try {
+            if (queue.isEmpty() && fits(weight)) {
+                grant(weight);
+                return Outcome.ADMITTED;
+            }
+            if (queue.size() >= maxQueue) {
+                rejected++;
+                return Outcome.QUEUE_FULL;
+            }
+            Waiter waiter = new Waiter(weight);
+            queue.addLast(waiter);
+            long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+            try {
+                while (!waiter.granted) {
+                    if (remaining <= 0) {
+                        queue.remove(waiter);
+                        rejected++;
+                        // Наступний у черзі міг стати головою і вже вміщатися
+                        grantWaiters();
+                        return Outcome.TIMED_OUT;
+                    }
+                    remaining = changed.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    release(weight);
+                } else {
+                    queue.remove(waiter);
+                    grantWaiters();
+                }
+                throw e;
+            }
+            return Outcome.ADMITTED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long weight) {
+        lock.lock();
+        try {
+            used -= weight;
+            active--;
+            grantWaiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getUsed() {
+        lock.lock();
+        try {
+            return used;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActive() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(long weight) {
+        return active < maxActive && used + weight <= capacity;
+    }
+
+    private void grant(long weight) {
+        used += weight;
+        active++;
+    }
+
+    private void grantWaiters() {
+        boolean any = false;
+        while (!queue.isEmpty() && fits(queue.peekFirst().weight)) {
+            Waiter waiter = queue.pollFirst();
+            grant(waiter.weight);
+            waiter.granted = true;
+            any = true;
+        }
+        if (any) {
+            changed.signalAll();
+        }
+    }
+
+    private static final class Waiter {
+        final long weight;
+        boolean granted;
+
+        Waiter(long weight) {
+            this.weight = weight;
+        }
+    }
+}
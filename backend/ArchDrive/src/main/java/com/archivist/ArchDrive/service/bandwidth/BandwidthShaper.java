@@ -0,0 +1,151 @@
+package com.archivist.ArchDrive.service.bandwidth;
+
+import com.archivist.ArchDrive.model.BandwidthSettings;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shapes transfer streams twice: a token bucket per client caps each client's own rate, and a
+ * fair-share scheduler per direction splits the node's rate evenly between active transfers.
+ * Limits can be changed at runtime and apply to transfers already in progress.
+ */
+@Component
+public class BandwidthShaper {
+
+    private static final Logger log = LoggerFactory.getLogger(BandwidthShaper.class);
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    public static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private static final long CLIENT_IDLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    @Value("${archdrive.bandwidth.enabled:true}")
+    private volatile boolean enabled;
+
+    @Value("${archdrive.bandwidth.client.download-bytes-per-second:0}")
+    private volatile long clientDownloadRate;
+
+    @Value("${archdrive.bandwidth.client.upload-bytes-per-second:0}")
+    private volatile long clientUploadRate;
+
+    @Value("${archdrive.bandwidth.node.download-bytes-per-second:0}")
+    private long nodeDownloadRate;
+
+    @Value("${archdrive.bandwidth.node.upload-bytes-per-second:0}")
+    private long nodeUploadRate;
+
+    @Value("${archdrive.bandwidth.quantum-bytes:65536}")
+    private int quantum;
+
+    // Адреси проксі, яким довіряємо X-Client-Id і X-Forwarded-For; від решти заголовки ігноруються
+    @Value("${archdrive.bandwidth.trusted-proxies:}")
+    private Set<String> trustedProxies;
+
+    private FairShareScheduler downloads;
+    private FairShareScheduler uploads;
+
+    private final Map<String, ClientBuckets> clients = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void createSchedulers() {
+        downloads = new FairShareScheduler(nodeDownloadRate, quantum);
+        uploads = new FairShareScheduler(nodeUploadRate, quantum);
+    }
+
+    /**
+     * Identifies the client a transfer is charged to: the authenticated user if there is one,
+     * otherwise the remote address. Behind a trusted proxy the X-Client-Id header, or failing that
+     * the address the proxy appended to X-Forwarded-For, is used instead; a client talking to the
+     * node directly cannot pick its own key and so cannot get a fresh allowance by changing it.
+     */
+    public String clientId(HttpServletRequest request) {
+        if (request.getUserPrincipal() != null) {
+            return "user:" + request.getUserPrincipal().getName();
+        }
+        String remote = request.getRemoteAddr();
+        if (trustedProxies == null || !trustedProxies.contains(remote)) {
+            return remote;
+        }
+        String header = request.getHeader(CLIENT_ID_HEADER);
+        if (header != null && !header.trim().isEmpty()) {
+            return header.trim();
+        }
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwardedFor != null && !forwardedFor.trim().isEmpty()) {
+            // Останню адресу дописав наш проксі, попередні міг підставити сам клієнт
+            String[] hops = forwardedFor.split(",");
+            return hops[hops.length - 1].trim();
+        }
+        return remote;
+    }
+
+    public Resource shapeDownload(Resource resource, String clientId) throws IOException {
+        if (!enabled) {
+            return resource;
+        }
+        return new InputStreamResource(new ShapedInputStream(resource.getInputStream(), buckets(clientId).download, downloads));
+    }
+
+    public MultipartFile shapeUpload(MultipartFile file, String clientId) {
+        if (!enabled) {
+            return file;
+        }
+        return new ShapedMultipartFile(file, buckets(clientId).upload, uploads);
+    }
+
+    public synchronized BandwidthSettings getSettings() {
+        BandwidthSettings settings = new BandwidthSettings();
+        settings.setEnabled(enabled);
+        settings.setClientDownloadBytesPerSecond(clientDownloadRate);
+        settings.setClientUploadBytesPerSecond(clientUploadRate);
+        settings.setNodeDownloadBytesPerSecond(nodeDownloadRate);
+        settings.setNodeUploadBytesPerSecond(nodeUploadRate);
+        settings.setQuantumBytes(quantum);
+        settings.setActiveDownloads(downloads.getOpenFlows());
+        settings.setActiveUploads(uploads.getOpenFlows());
+        settings.setTrackedClients(clients.size());
+        return settings;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    void evictIdleClients() {
+        clients.values().removeIf(buckets -> buckets.download.idleNanos() > CLIENT_IDLE_NANOS
+                && buckets.upload.idleNanos() > CLIENT_IDLE_NANOS);
+    }
+
+    private ClientBuckets buckets(String clientId) {
+        return clients.computeIfAbsent(clientId, id -> new ClientBuckets(
+                new TokenBucket(clientDownloadRate, burst(clientDownloadRate)),
+                new TokenBucket(clientUploadRate, burst(clientUploadRate))));
+    }
+
+    private long burst(long bytesPerSecond) {
+        // Пів секунди трафіку, але не менше одного кванту
+        return Math.max(quantum, bytesPerSecond / 2);
+    }
+
+    private static final class ClientBuckets {
+        final TokenBucket download;
+        final TokenBucket upload;
+
+        ClientBuckets(TokenBucket download, TokenBucket upload) {
+            this.download = download;
+            this.upload = upload;
+        }
+    }
+}
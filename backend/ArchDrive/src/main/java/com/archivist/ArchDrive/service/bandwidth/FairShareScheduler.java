@@ -0,0 +1,146 @@
+package com.archivist.ArchDrive.service.bandwidth;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares one node-wide byte rate between active transfers with deficit round robin. Each transfer
+ * is a {@link Flow} that asks for the bytes of its next chunk; flows waiting for bandwidth form a
+ * ring, and every visit adds one quantum to the flow's deficit and grants its chunk once the deficit
+ * covers it. A bulk download therefore gets one chunk per round like everyone else instead of
+ * draining the rate as fast as it can read.
+ *
+ * <p>There is no dispatcher thread: whichever waiting caller holds the lock serves the ring for all.
+ */
+class FairShareScheduler {
+
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final ArrayDeque<Flow> ring = new ArrayDeque<>();
+    private final AtomicInteger openFlows = new AtomicInteger();
+
+    private volatile long bytesPerSecond;
+    private volatile int quantum;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    FairShareScheduler(long bytesPerSecond, int quantum) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.quantum = quantum;
+        this.tokens = burst();
+    }
+
+    Flow open() {
+        openFlows.incrementAndGet();
+        return new Flow();
+    }
+
+    int getOpenFlows() {
+        return openFlows.get();
+    }
+
+    int getQuantum() {
+        return quantum;
+    }
+
+    /**
+     * Blocks until {@code flow} may move {@code bytes} more bytes.
+     */
+    void acquire(Flow flow, int bytes) throws InterruptedIOException {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            flow.demand = bytes;
+            flow.granted = false;
+            ring.addLast(flow);
+            while (true) {
+                long waitNanos = serve();
+                if (flow.granted) {
+                    return;
+                }
+                if (bytesPerSecond <= 0) {
+                    // Обмеження зняли, поки ми чекали
+                    ring.remove(flow);
+                    return;
+                }
+                changed.awaitNanos(waitNanos > 0 ? waitNanos : IDLE_WAIT_NANOS);
+            }
+        } catch (InterruptedException e) {
+            ring.remove(flow);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grants as many waiting flows as the tokens allow, in ring order. Returns how long until the
+     * flow at the head can be served, or 0 when the ring is empty.
+     */
+    private long serve() {
+        refill();
+        boolean grantedAny = false;
+        long waitNanos = 0;
+        while (!ring.isEmpty()) {
+            Flow head = ring.peekFirst();
+            if (head.deficit < head.demand) {
+                head.deficit += quantum;
+                if (head.deficit < head.demand) {
+                    ring.addLast(ring.pollFirst());
+                    continue;
+                }
+            }
+            if (tokens < head.demand) {
+                waitNanos = (long) ((head.demand - tokens) * 1_000_000_000D / bytesPerSecond);
+                break;
+            }
+            tokens -= head.demand;
+            ring.pollFirst();
+            // Потік вийшов з кільця без черги — дефіцит обнуляється, як у класичному DRR
+            head.deficit = 0;
+            head.granted = true;
+            grantedAny = true;
+        }
+        if (grantedAny) {
+            changed.signalAll();
+        }
+        return waitNanos;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (bytesPerSecond > 0) {
+            tokens = Math.min(burst(), tokens + (now - lastRefillNanos) * bytesPerSecond / 1_000_000_000D);
+        }
+        lastRefillNanos = now;
+    }
+
+    private long burst() {
+        // Не більше ~50 мс трафіку наперед, але щонайменше один квант
+        return Math.max(quantum, bytesPerSecond / 20);
+    }
+
+    final class Flow implements AutoCloseable {
+        private long deficit;
+        private int demand;
+        private boolean granted;
+        private boolean closed;
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                openFlows.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.archivist.ArchDrive.service.bandwidth;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Charges every chunk read to the client's token bucket and to the node's fair-share scheduler.
+ * Reads are capped at one scheduler quantum so a single read cannot jump the round robin.
+ */
+class ShapedInputStream extends FilterInputStream {
+
+    private final TokenBucket clientBucket;
+    private final FairShareScheduler scheduler;
+    private final FairShareScheduler.Flow flow;
+
+    ShapedInputStream(InputStream in, TokenBucket clientBucket, FairShareScheduler scheduler) {
+        super(in);
+        this.clientBucket = clientBucket;
+        this.scheduler = scheduler;
+        this.flow = scheduler.open();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            charge(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, Math.min(length, scheduler.getQuantum()));
+        if (read > 0) {
+            charge(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) {
+            charge((int) Math.min(skipped, Integer.MAX_VALUE));
+        }
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flow.close();
+        super.close();
+    }
+
+    private void charge(int bytes) throws IOException {
+        clientBucket.consume(bytes);
+        scheduler.acquire(flow, bytes);
+    }
+}
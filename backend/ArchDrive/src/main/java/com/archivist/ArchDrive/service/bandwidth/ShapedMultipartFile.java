@@ -0,0 +1,77 @@
+package com.archivist.ArchDrive.service.bandwidth;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Uploaded file whose stream is rate limited while it is sent on to R2. Every way of reading the
+ * content goes through the shaped stream; everything else is passed straight to the original.
+ */
+class ShapedMultipartFile implements MultipartFile {
+
+    private final MultipartFile delegate;
+    private final TokenBucket clientBucket;
+    private final FairShareScheduler scheduler;
+
+    ShapedMultipartFile(MultipartFile delegate, TokenBucket clientBucket, FairShareScheduler scheduler) {
+        this.delegate = delegate;
+        this.clientBucket = clientBucket;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return delegate.getOriginalFilename();
+    }
+
+    @Override
+    public String getContentType() {
+        return delegate.getContentType();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    public long getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        try (InputStream in = getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new ShapedInputStream(delegate.getInputStream(), clientBucket, scheduler);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException, IllegalStateException {
+        // Через обмежений потік, а не копіюванням тимчасового файлу оригіналу
+        try (InputStream in = getInputStream()) {
+            Files.copy(in, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void transferTo(Path dest) throws IOException, IllegalStateException {
+        transferTo(dest.toFile());
+    }
+}
@@ -0,0 +1,63 @@
+package com.archivist.ArchDrive.service.bandwidth;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Byte-rate limiter. Callers pay for bytes after moving them; a caller that overdraws the bucket
+ * sleeps until the debt is paid back, so the long-run rate never exceeds the limit.
+ */
+class TokenBucket {
+
+    private long bytesPerSecond; // <= 0 — без обмеження
+    private long burst;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+    private volatile long lastUsedNanos = System.nanoTime();
+
+    TokenBucket(long bytesPerSecond, long burst) {
+        setRate(bytesPerSecond, burst);
+        this.tokens = this.burst;
+    }
+
+    synchronized void setRate(long bytesPerSecond, long burst) {
+        refill();
+        this.bytesPerSecond = bytesPerSecond;
+        this.burst = Math.max(1, burst);
+        tokens = Math.min(tokens, this.burst);
+    }
+
+    void consume(long bytes) throws InterruptedIOException {
+        lastUsedNanos = System.nanoTime();
+        long waitNanos = reserve(bytes);
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while rate limited");
+            }
+        }
+    }
+
+    long idleNanos() {
+        return System.nanoTime() - lastUsedNanos;
+    }
+
+    private synchronized long reserve(long bytes) {
+        if (bytesPerSecond <= 0) {
+            return 0;
+        }
+        refill();
+        tokens -= bytes;
+        return tokens >= 0 ? 0 : (long) (-tokens * 1_000_000_000D / bytesPerSecond);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (bytesPerSecond > 0) {
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * bytesPerSecond / 1_000_000_000D);
+        }
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,223 @@
+package com.archivist.ArchDrive.service.batch;
+
+import com.archivist.ArchDrive.model.BatchOperation;
+import com.archivist.ArchDrive.model.BatchResult;
+import com.archivist.ArchDrive.model.StoredFile;
+import com.archivist.ArchDrive.service.storage.FileStorageService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs bulk requests (a selection of files to delete, copy or move, or a multi-file upload) on a
+ * bounded pool instead of one HTTP request per file. Deletes and moves are grouped into chunks so
+ * the storage layer can remove each chunk with a single DeleteObjects call; copies and uploads run
+ * one per task. Operations on different keys are independent and finish in any order, so every
+ * result carries the index of the operation it answers.
+ */
+@Service
+public class BatchOperationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchOperationService.class);
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Value("${archdrive.batch.parallelism:8}")
+    private int parallelism;
+
+    @Value("${archdrive.batch.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${archdrive.batch.max-operations:5000}")
+    private int maxOperations;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts the operations and hands each result to {@code sink} as soon as it is known, from
+     * whichever thread produced it (calls are serialized). The returned future completes once every
+     * operation has a result.
+     */
+    public CompletableFuture<Void> execute(List<BatchOperation> operations, Consumer<BatchResult> sink) {
+        if (operations == null || operations.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("Too many operations: " + operations.size() + " (max " + maxOperations + ")");
+        }
+
+        Object lock = new Object();
+        Consumer<BatchResult> serialized = result -> {
+            synchronized (lock) {
+                sink.accept(result);
+            }
+        };
+
+        // Однакові ключі в одній групі виконуються один раз, результат дублюється для кожного індексу
+        Map<String, List<Integer>> deletes = new LinkedHashMap<>();
+        Map<String, Map<String, List<Integer>>> movesByFolder = new LinkedHashMap<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            if (operation == null || operation.getOp() == null || operation.getFileName() == null || operation.getFileName().isEmpty()) {
+                serialized.accept(failed(i, operation, "Operation and fileName are required"));
+                continue;
+            }
+            switch (operation.getOp()) {
+                case DELETE:
+                    deletes.computeIfAbsent(operation.getFileName(), key -> new ArrayList<>()).add(i);
+                    break;
+                case MOVE:
+                    String folder = operation.getTargetFolder() != null ? operation.getTargetFolder() : "";
+                    movesByFolder.computeIfAbsent(folder, key -> new LinkedHashMap<>())
+                            .computeIfAbsent(operation.getFileName(), key -> new ArrayList<>()).add(i);
+                    break;
+                case COPY:
+                    tasks.add(copy(i, operation, serialized));
+                    break;
+                default:
+                    serialized.accept(failed(i, operation, "Unsupported operation " + operation.getOp()));
+            }
+        }
+
+        for (Map<String, List<Integer>> chunk : chunks(deletes)) {
+            tasks.add(runChunk(BatchOperation.Op.DELETE, chunk, keys -> fileStorageService.deleteFiles(keys), serialized));
+        }
+        for (Map.Entry<String, Map<String, List<Integer>>> moves : movesByFolder.entrySet()) {
+            for (Map<String, List<Integer>> chunk : chunks(moves.getValue())) {
+                tasks.add(runChunk(BatchOperation.Op.MOVE, chunk, keys -> fileStorageService.moveFiles(keys, moves.getKey()), serialized));
+            }
+        }
+
+        log.info("Batch of {} operations split into {} tasks", operations.size(), tasks.size());
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Uploads the files of one multipart request into {@code folder} with bounded parallelism and
+     * returns one result per file, in request order.
+     */
+    public List<BatchResult> uploadAll(List<MultipartFile> files, String folder) {
+        if (files.size() > maxOperations) {
+            throw new IllegalArgumentException("Too many files: " + files.size() + " (max " + maxOperations + ")");
+        }
+
+        List<CompletableFuture<BatchResult>> uploads = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            uploads.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    StoredFile storedFile = folder != null && !folder.trim().isEmpty()
+                            ? fileStorageService.uploadFile(file, folder)
+                            : fileStorageService.uploadFile(file);
+                    return BatchResult.ok(BatchOperation.Op.UPLOAD, storedFile.getId(), storedFile);
+                } catch (Exception e) {
+                    return BatchResult.failed(BatchOperation.Op.UPLOAD, file.getOriginalFilename(), e.getMessage());
+                }
+            }, executor));
+        }
+
+        List<BatchResult> results = new ArrayList<>(files.size());
+        for (int i = 0; i < uploads.size(); i++) {
+            results.add(uploads.get(i).join().withIndex(i));
+        }
+        return results;
+    }
+
+    private CompletableFuture<Void> copy(int index, BatchOperation operation, Consumer<BatchResult> sink) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                StoredFile storedFile = fileStorageService.copyFile(operation.getFileName(), operation.getTargetFolder());
+                sink.accept(BatchResult.ok(BatchOperation.Op.COPY, operation.getFileName(), storedFile).withIndex(index));
+            } catch (Exception e) {
+                sink.accept(failed(index, operation, e.getMessage()));
+            }
+        }, executor);
+    }
+
+    private CompletableFuture<Void> runChunk(BatchOperation.Op op, Map<String, List<Integer>> chunk,
+                                             Function<List<String>, List<BatchResult>> call, Consumer<BatchResult> sink) {
+        return CompletableFuture.runAsync(() -> {
+            Set<String> answered = new HashSet<>();
+            String error = "No result from storage";
+            try {
+                for (BatchResult result : call.apply(new ArrayList<>(chunk.keySet()))) {
+                    List<Integer> indexes = chunk.get(result.getFileName());
+                    if (indexes == null || !answered.add(result.getFileName())) {
+                        continue;
+                    }
+                    for (int index : indexes) {
+                        sink.accept(result.withIndex(index));
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Batch {} of {} keys failed: {}", op, chunk.size(), e.getMessage(), e);
+                error = e.getMessage();
+            }
+            // Ключі без відповіді від сховища (або після винятку) теж отримують результат
+            for (Map.Entry<String, List<Integer>> entry : chunk.entrySet()) {
+                if (!answered.contains(entry.getKey())) {
+                    for (int index : entry.getValue()) {
+                        sink.accept(BatchResult.failed(op, entry.getKey(), error).withIndex(index));
+                    }
+                }
+            }
+        }, executor);
+    }
+
+    private List<Map<String, List<Integer>>> chunks(Map<String, List<Integer>> keys) {
+        List<Map<String, List<Integer>>> chunks = new ArrayList<>();
+        Map<String, List<Integer>> current = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : keys.entrySet()) {
+            current.put(entry.getKey(), entry.getValue());
+            if (current.size() == chunkSize) {
+                chunks.add(current);
+                current = new LinkedHashMap<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    private static BatchResult failed(int index, BatchOperation operation, String error) {
+        BatchOperation.Op op = operation != null ? operation.getOp() : null;
+        String fileName = operation != null ? operation.getFileName() : null;
+        return BatchResult.failed(op, fileName, error).withIndex(index);
+    }
+}
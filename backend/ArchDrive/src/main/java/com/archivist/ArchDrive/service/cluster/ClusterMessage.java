@@ -0,0 +1,96 @@
+package com.archivist.ArchDrive.service.cluster;
+
+import com.archivist.ArchDrive.model.FileChange;
+
+/**
+ * What nodes send each other: a change made on {@code node}, or a heartbeat when {@code change} is
+ * null. {@code version} counts the changes the node has published since {@code epoch} began, so a
+ * receiver can tell a lost message from a duplicate. {@code oldest} is the first version the sender
+ * can still retransmit; a heartbeat with {@code resendNode} set asks that node to resend versions
+ * {@code resendFrom} to {@code resendTo}.
+ */
+public class ClusterMessage {
+    private String node;
+    private String epoch; // Новий після кожного перезапуску вузла
+    private long version;
+    private FileChange change;
+    private long oldest;
+    private String resendNode;
+    private long resendFrom;
+    private long resendTo;
+
+    public ClusterMessage() {
+    }
+
+    public ClusterMessage(String node, String epoch, long version, FileChange change) {
+        this.node = node;
+        this.epoch = epoch;
+        this.version = version;
+        this.change = change;
+    }
+
+    // Getters and setters
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(String epoch) {
+        this.epoch = epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public FileChange getChange() {
+        return change;
+    }
+
+    public void setChange(FileChange change) {
+        this.change = change;
+    }
+
+    public long getOldest() {
+        return oldest;
+    }
+
+    public void setOldest(long oldest) {
+        this.oldest = oldest;
+    }
+
+    public String getResendNode() {
+        return resendNode;
+    }
+
+    public void setResendNode(String resendNode) {
+        this.resendNode = resendNode;
+    }
+
+    public long getResendFrom() {
+        return resendFrom;
+    }
+
+    public void setResendFrom(long resendFrom) {
+        this.resendFrom = resendFrom;
+    }
+
+    public long getResendTo() {
+        return resendTo;
+    }
+
+    public void setResendTo(long resendTo) {
+        this.resendTo = resendTo;
+    }
+}
@@ -0,0 +1,28 @@
+package com.archivist.ArchDrive.service.cluster;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link InvalidationBus} messages between nodes. Delivery is best effort: a message may be
+ * lost, duplicated or reordered, and the bus detects that from the version stamps it carries.
+ * Define a {@code @Primary} bean of this type to plug in another transport. Frames are already
+ * signed by the bus, so a transport only has to move bytes.
+ */
+public interface ClusterTransport extends AutoCloseable {
+
+    /**
+     * Starts receiving; {@code receiver} is called with every message from another node.
+     */
+    void start(Consumer<byte[]> receiver) throws IOException;
+
+    /**
+     * Sends to every node without blocking on slow peers.
+     */
+    void send(byte[] message);
+
+    String getName();
+
+    @Override
+    void close();
+}
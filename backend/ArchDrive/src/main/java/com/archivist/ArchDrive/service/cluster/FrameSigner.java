@@ -0,0 +1,56 @@
+package com.archivist.ArchDrive.service.cluster;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Prefixes cluster frames with an HMAC-SHA256 of the payload under the shared
+ * {@code archdrive.cluster.secret}, so only nodes that know the secret can inject changes.
+ */
+final class FrameSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    static final int MAC_LENGTH = 32;
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    FrameSigner(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    byte[] sign(byte[] payload) {
+        byte[] mac = macs.get().doFinal(payload);
+        byte[] frame = Arrays.copyOf(mac, MAC_LENGTH + payload.length);
+        System.arraycopy(payload, 0, frame, MAC_LENGTH, payload.length);
+        return frame;
+    }
+
+    /**
+     * The payload of a correctly signed frame, otherwise null.
+     */
+    byte[] verify(byte[] frame) {
+        if (frame.length < MAC_LENGTH) {
+            return null;
+        }
+        byte[] payload = Arrays.copyOfRange(frame, MAC_LENGTH, frame.length);
+        byte[] expected = macs.get().doFinal(payload);
+        // Порівняння за сталий час, щоб підпис не можна було підібрати по байту
+        return MessageDigest.isEqual(expected, Arrays.copyOf(frame, MAC_LENGTH)) ? payload : null;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
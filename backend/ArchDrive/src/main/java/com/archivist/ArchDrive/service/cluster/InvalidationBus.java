@@ -0,0 +1,350 @@
+package com.archivist.ArchDrive.service.cluster;
+
+import com.archivist.ArchDrive.model.ClusterStatus;
+import com.archivist.ArchDrive.model.FileChange;
+import com.archivist.ArchDrive.service.storage.ChangeJournal;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the change journals of several nodes in step. Every change this node records is sent to
+ * the others, which record it in their own journal; from there it reaches the indexes, the preview
+ * cache and the change feed clients exactly like a local write.
+ *
+ * <p>Each message carries the sender's epoch (its start time) and version. A duplicate or late
+ * message is dropped, and so is a frame from an epoch older than the one already seen for that
+ * node: a replayed frame from before a restart must not reset what is known about the peer.
+ * A skipped version, seen on a change or on the periodic heartbeat, means something was lost: the
+ * receiver holds back what arrived after the gap and asks the sender to resend the missing versions
+ * from its bounded send log. Only a gap the log no longer covers, or one still open after
+ * {@code archdrive.cluster.gap-timeout-ms}, resets the journal: tokens go stale, so clients
+ * re-list, and the indexes rebuild from the bucket.
+ *
+ * <p>Frames are signed with {@code archdrive.cluster.secret} and unsigned ones are dropped. Whether
+ * the bus runs is decided here at startup from {@code archdrive.cluster.enabled}, not by a bean
+ * condition, because AOT processing would fix such a condition at build time.
+ */
+@Component
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    @Autowired
+    private ChangeJournal changeJournal;
+
+    @Autowired(required = false)
+    private ClusterTransport transport;
+
+    @Value("${archdrive.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${archdrive.cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${archdrive.cluster.secret:}")
+    private String secret;
+
+    @Value("${archdrive.cluster.send-log-size:4096}")
+    private int sendLogSize;
+
+    @Value("${archdrive.cluster.gap-timeout-ms:5000}")
+    private long gapTimeoutMs;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private String nodeId;
+
+    private FrameSigner signer; // null — вузол працює сам
+
+    private long version; // Guarded by this: versions must go out in order
+
+    private byte[][] sendLog; // Guarded by this: підписані кадри останніх змін за version % length
+
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong gaps = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong resent = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isEmpty() ? configuredNodeId : defaultNodeId();
+        if (!enabled || transport == null) {
+            return;
+        }
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalStateException("archdrive.cluster.secret must be set when archdrive.cluster.enabled=true");
+        }
+        synchronized (this) {
+            sendLog = new byte[Math.max(1, sendLogSize)][];
+        }
+        signer = new FrameSigner(secret);
+        changeJournal.addListener(this::publish);
+        try {
+            transport.start(this::receive);
+        } catch (IOException e) {
+            log.error("Failed to start cluster transport {}: {}", transport.getName(), e.getMessage(), e);
+            throw new RuntimeException("Failed to start cluster transport: " + e.getMessage(), e);
+        }
+        log.info("Cluster node {} using {}", nodeId, transport.getName());
+    }
+
+    private void publish(FileChange change) {
+        // Зміни, що прийшли з інших вузлів, далі не розсилаємо
+        if (change.getOrigin() == null) {
+            send(change, null, 0, 0);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${archdrive.cluster.heartbeat-ms:1000}")
+    void heartbeat() {
+        if (signer == null) {
+            return;
+        }
+        send(null, null, 0, 0);
+
+        // Пропуски, які досі не заповнено: просимо ще раз або, після таймауту, скидаємо журнал
+        String gap = null;
+        List<long[]> requests = new ArrayList<>();
+        List<String> requestNodes = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Peer peer : peers.values()) {
+            synchronized (peer) {
+                if (peer.gapSince == 0) {
+                    continue;
+                }
+                if (now - peer.gapSince >= TimeUnit.MILLISECONDS.toNanos(gapTimeoutMs)) {
+                    gap = "node " + peer.nodeId + " did not resend versions " + (peer.version + 1) + " to " + peer.announced;
+                    peer.skipGap();
+                } else {
+                    requests.add(new long[]{peer.version + 1, peer.announced});
+                    requestNodes.add(peer.nodeId);
+                }
+            }
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            send(null, requestNodes.get(i), requests.get(i)[0], requests.get(i)[1]);
+        }
+        if (gap != null) {
+            gaps.incrementAndGet();
+            changeJournal.reset("missed cluster changes, " + gap);
+        }
+    }
+
+    private synchronized void send(FileChange change, String resendNode, long resendFrom, long resendTo) {
+        long stamp = change != null ? ++version : version;
+        int slot = (int) (stamp % sendLog.length);
+        if (change != null) {
+            sendLog[slot] = null;
+        }
+        byte[] frame;
+        try {
+            ClusterMessage message = new ClusterMessage(nodeId, epoch, stamp, change);
+            message.setOldest(oldestResendable());
+            message.setResendNode(resendNode);
+            message.setResendFrom(resendFrom);
+            message.setResendTo(resendTo);
+            frame = signer.sign(mapper.writeValueAsBytes(message));
+        } catch (Exception e) {
+            // Отримувачі побачать пропуск версії, якої немає і в журналі розсилки
+            log.warn("Failed to encode cluster message {}: {}", stamp, e.getMessage());
+            return;
+        }
+        if (change != null) {
+            sendLog[slot] = frame;
+        }
+        try {
+            transport.send(frame);
+        } catch (Exception e) {
+            log.warn("Failed to send cluster message {}: {}", stamp, e.getMessage());
+        }
+    }
+
+    private synchronized void resend(long from, long to) {
+        for (long stamp = Math.max(from, oldestResendable()); stamp <= Math.min(to, version); stamp++) {
+            byte[] frame = sendLog[(int) (stamp % sendLog.length)];
+            if (frame != null) {
+                transport.send(frame);
+                resent.incrementAndGet();
+            }
+        }
+    }
+
+    private long oldestResendable() {
+        return Math.max(1, version - sendLog.length + 1);
+    }
+
+    void receive(byte[] frame) {
+        byte[] payload = signer.verify(frame);
+        if (payload == null) {
+            rejected.incrementAndGet();
+            log.debug("Dropping cluster frame with a bad signature");
+            return;
+        }
+        ClusterMessage message;
+        try {
+            message = mapper.readValue(payload, ClusterMessage.class);
+        } catch (Exception e) {
+            log.warn("Ignoring malformed cluster message: {}", e.getMessage());
+            return;
+        }
+        if (message.getNode() == null || message.getEpoch() == null || message.getNode().equals(nodeId)) {
+            return;
+        }
+
+        String gap = null;
+        long[] request = null;
+        Peer peer = peers.computeIfAbsent(message.getNode(), Peer::new);
+        synchronized (peer) {
+            if (peer.epoch != null && compareEpochs(message.getEpoch(), peer.epoch) < 0) {
+                rejected.incrementAndGet();
+                log.debug("Dropping cluster frame from an earlier epoch {} of node {}", message.getEpoch(), peer.nodeId);
+                return;
+            }
+            if (!message.getEpoch().equals(peer.epoch)) {
+                // Новий або перезапущений вузол: усе, що він розіслав до цього, добираємо з його журналу розсилки
+                peer.epoch = message.getEpoch();
+                peer.version = 0;
+                peer.announced = 0;
+                peer.oldest = 0;
+                peer.held.clear();
+                peer.gapSince = 0;
+            }
+            peer.lastSeen = LocalDateTime.now();
+            peer.oldest = Math.max(peer.oldest, message.getOldest());
+            peer.announced = Math.max(peer.announced, message.getVersion());
+
+            FileChange change = message.getChange();
+            if (change != null) {
+                if (message.getVersion() <= peer.version || peer.held.containsKey(message.getVersion())) {
+                    duplicates.incrementAndGet();
+                } else {
+                    change.setOrigin(peer.nodeId);
+                    peer.held.put(message.getVersion(), change);
+                }
+            }
+            // Під замком вузла, щоб зміни одного вузла застосовувались по черзі
+            while (!peer.held.isEmpty() && peer.held.firstKey() == peer.version + 1) {
+                peer.version++;
+                received.incrementAndGet();
+                changeJournal.record(peer.held.pollFirstEntry().getValue());
+            }
+
+            if (peer.version >= peer.announced) {
+                if (peer.gapSince != 0) {
+                    recovered.incrementAndGet();
+                    peer.gapSince = 0;
+                }
+            } else if (peer.version + 1 < peer.oldest || peer.held.size() >= sendLog.length) {
+                gap = "node " + peer.nodeId + " is at version " + peer.announced + ", last received " + peer.version
+                        + ", oldest it can resend " + peer.oldest;
+                peer.skipGap();
+            } else if (peer.gapSince == 0) {
+                peer.gapSince = System.nanoTime();
+                request = new long[]{peer.version + 1, peer.announced};
+            }
+        }
+        if (nodeId.equals(message.getResendNode())) {
+            resend(message.getResendFrom(), message.getResendTo());
+        }
+        if (request != null) {
+            send(null, message.getNode(), request[0], request[1]);
+        }
+        if (gap != null) {
+            gaps.incrementAndGet();
+            changeJournal.reset("missed cluster changes, " + gap);
+        }
+    }
+
+    public ClusterStatus getStatus() {
+        ClusterStatus status = new ClusterStatus();
+        status.setEnabled(signer != null);
+        status.setNodeId(nodeId);
+        status.setTransport(signer != null ? transport.getName() : null);
+        synchronized (this) {
+            status.setVersion(version);
+        }
+        status.setReceived(received.get());
+        status.setDuplicates(duplicates.get());
+        status.setGaps(gaps.get());
+        status.setRecovered(recovered.get());
+        status.setResent(resent.get());
+        status.setRejected(rejected.get());
+        List<ClusterStatus.PeerInfo> peerInfos = new ArrayList<>();
+        for (Peer peer : peers.values()) {
+            synchronized (peer) {
+                peerInfos.add(new ClusterStatus.PeerInfo(peer.nodeId, peer.epoch, peer.version, peer.lastSeen));
+            }
+        }
+        status.setPeers(peerInfos);
+        return status;
+    }
+
+    /**
+     * Epochs are start times in base 36; one that does not parse only ever equals itself.
+     */
+    static int compareEpochs(String a, String b) {
+        try {
+            return Long.compare(Long.parseLong(a, 36), Long.parseLong(b, 36));
+        } catch (NumberFormatException e) {
+            return a.equals(b) ? 0 : 1;
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static final class Peer {
+        private final String nodeId;
+        private String epoch;
+        private long version; // Остання застосована версія; все до неї отримано
+        private long announced; // Найбільша версія, про яку відомо від вузла
+        private long oldest; // З якої версії вузол ще може переслати
+        private final TreeMap<Long, FileChange> held = new TreeMap<>(); // Прийшли після пропуску
+        private long gapSince; // nanoTime першого запиту на пересилання, 0 — пропуску немає
+        private LocalDateTime lastSeen;
+
+        Peer(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        /**
+         * Gives up on the missing versions; the journal reset that follows covers them.
+         */
+        void skipGap() {
+            version = announced;
+            held.clear();
+            gapSince = 0;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.archivist.ArchDrive.service.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * One UDP datagram per message to a multicast group. Nodes find each other without configuration,
+ * but the network between them has to route multicast (one L2 segment with the default TTL of 1).
+ */
+public class MulticastTransport implements ClusterTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(MulticastTransport.class);
+
+    private static final int MAX_DATAGRAM = 65507;
+
+    private final InetAddress group;
+    private final int port;
+    private final int ttl;
+    private final String interfaceName; // Порожньо — інтерфейс за замовчуванням
+
+    private MulticastSocket socket;
+    private volatile boolean running;
+
+    public MulticastTransport(InetAddress group, int port, int ttl, String interfaceName) {
+        this.group = group;
+        this.port = port;
+        this.ttl = ttl;
+        this.interfaceName = interfaceName;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) throws IOException {
+        NetworkInterface networkInterface = null;
+        if (interfaceName != null && !interfaceName.isEmpty()) {
+            networkInterface = NetworkInterface.getByName(interfaceName);
+            if (networkInterface == null) {
+                throw new IOException("Network interface not found: " + interfaceName);
+            }
+        }
+        socket = new MulticastSocket(port);
+        socket.setTimeToLive(ttl);
+        if (networkInterface != null) {
+            socket.setNetworkInterface(networkInterface);
+        }
+        socket.joinGroup(new InetSocketAddress(group, port), networkInterface);
+        running = true;
+
+        Thread thread = new Thread(() -> receive(receiver), "cluster-multicast");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Cluster multicast joined {}:{} (ttl {})", group.getHostAddress(), port, ttl);
+    }
+
+    private void receive(Consumer<byte[]> receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM];
+        while (running) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                receiver.accept(Arrays.copyOf(packet.getData(), packet.getLength()));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Cluster multicast receive failed: {}", e.getMessage());
+                }
+            } catch (Exception e) {
+                log.warn("Cluster message handling failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void send(byte[] message) {
+        if (message.length > MAX_DATAGRAM) {
+            // Не влазить у датаграму — отримувачі побачать пропуск версії і скинуть журнал після таймауту
+            log.warn("Cluster message of {} bytes is too large for multicast, dropped", message.length);
+            return;
+        }
+        try {
+            socket.send(new DatagramPacket(message, message.length, group, port));
+        } catch (IOException e) {
+            log.warn("Cluster multicast send failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "multicast " + group.getHostAddress() + ":" + port;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (socket != null) {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.archivist.ArchDrive.service.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Full mesh of TCP connections to a fixed peer list, for networks without multicast. Every node
+ * listens on one port and keeps an outbound connection to each peer; messages are length-prefixed
+ * frames and are never relayed. Each peer has its own bounded queue and sender thread, so a dead
+ * peer only loses its own messages. The listener binds to {@code archdrive.cluster.tcp.bind-address}
+ * only, never to every interface.
+ */
+public class TcpMeshTransport implements ClusterTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(TcpMeshTransport.class);
+
+    private static final int MAX_FRAME = 1 << 20;
+    private static final int CONNECT_TIMEOUT_MS = 1000;
+
+    private final String bindAddress;
+    private final int port;
+    private final List<Peer> peers = new ArrayList<>();
+    private final long reconnectDelayMs;
+
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+
+    public TcpMeshTransport(String bindAddress, int port, List<InetSocketAddress> peerAddresses, int queueSize, long reconnectDelayMs) {
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.reconnectDelayMs = reconnectDelayMs;
+        for (InetSocketAddress address : peerAddresses) {
+            peers.add(new Peer(address, queueSize));
+        }
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) throws IOException {
+        if (bindAddress == null || bindAddress.isEmpty()) {
+            throw new IllegalStateException("archdrive.cluster.tcp.bind-address must be set for the TCP transport");
+        }
+        serverSocket = new ServerSocket(port, 50, InetAddress.getByName(bindAddress));
+        running = true;
+
+        Thread acceptor = new Thread(() -> accept(receiver), "cluster-tcp-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        for (Peer peer : peers) {
+            Thread sender = new Thread(peer::run, "cluster-tcp-" + peer.address.getHostString() + ":" + peer.address.getPort());
+            sender.setDaemon(true);
+            sender.start();
+        }
+        log.info("Cluster TCP mesh listening on {}:{} with {} peers", bindAddress, port, peers.size());
+    }
+
+    private void accept(Consumer<byte[]> receiver) {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread reader = new Thread(() -> read(socket, receiver), "cluster-tcp-in-" + socket.getRemoteSocketAddress());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Cluster TCP accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void read(Socket socket, Consumer<byte[]> receiver) {
+        try (socket; DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (running) {
+                int length = in.readInt();
+                if (length < 0 || length > MAX_FRAME) {
+                    throw new IOException("Bad frame length " + length);
+                }
+                byte[] message = new byte[length];
+                in.readFully(message);
+                try {
+                    receiver.accept(message);
+                } catch (Exception e) {
+                    log.warn("Cluster message handling failed: {}", e.getMessage(), e);
+                }
+            }
+        } catch (EOFException e) {
+            log.debug("Cluster peer {} disconnected", socket.getRemoteSocketAddress());
+        } catch (IOException e) {
+            if (running) {
+                log.warn("Cluster TCP read from {} failed: {}", socket.getRemoteSocketAddress(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void send(byte[] message) {
+        for (Peer peer : peers) {
+            if (!peer.queue.offer(message)) {
+                // Черга повна — пір відстає; пропущене він попросить переслати
+                log.debug("Cluster queue for {} is full, message dropped", peer.address);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "tcp " + bindAddress + ":" + port + " (" + peers.size() + " peers)";
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            log.debug("Cluster TCP close failed: {}", e.getMessage());
+        }
+        peers.forEach(Peer::disconnect);
+    }
+
+    private class Peer {
+        private final InetSocketAddress address;
+        private final BlockingQueue<byte[]> queue;
+        private Socket socket;
+        private DataOutputStream out;
+
+        Peer(InetSocketAddress address, int queueSize) {
+            this.address = address;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        void run() {
+            while (running) {
+                byte[] message;
+                try {
+                    message = queue.poll(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (message == null) {
+                    continue;
+                }
+                try {
+                    if (out == null) {
+                        connect();
+                    }
+                    out.writeInt(message.length);
+                    out.write(message);
+                    if (queue.isEmpty()) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    log.debug("Cluster peer {} unreachable: {}", address, e.getMessage());
+                    disconnect();
+                    // Поки пір недоступний, його черга не росте безмежно: пропущене він попросить переслати
+                    queue.clear();
+                    sleep(reconnectDelayMs);
+                }
+            }
+        }
+
+        private void connect() throws IOException {
+            Socket connecting = new Socket();
+            connecting.setTcpNoDelay(true);
+            connecting.connect(new InetSocketAddress(address.getHostString(), address.getPort()), CONNECT_TIMEOUT_MS);
+            socket = connecting;
+            out = new DataOutputStream(new BufferedOutputStream(connecting.getOutputStream()));
+            log.info("Cluster peer {} connected", address);
+        }
+
+        synchronized void disconnect() {
+            try {
+                if (socket != null) {
+                    socket.close();
+                }
+            } catch (IOException e) {
+                log.debug("Closing cluster peer {} failed: {}", address, e.getMessage());
+            }
+            socket = null;
+            out = null;
+        }
+
+        private void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
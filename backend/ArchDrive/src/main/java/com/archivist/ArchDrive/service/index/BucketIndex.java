@@ -0,0 +1,171 @@
+package com.archivist.ArchDrive.service.index;
+
+import com.archivist.ArchDrive.model.FileChange;
+import com.archivist.ArchDrive.model.StoredFile;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * An in-memory view of the bucket that is loaded by a full scan and then kept current from the
+ * change journal. {@link BucketIndexer} drives both; subclasses only describe how a single object
+ * is added to or removed from one generation of their data.
+ *
+ * <p>A rebuild fills a fresh generation while the current one keeps serving reads. Changes that
+ * arrive during the scan are applied to the new generation right away for keys the scan has already
+ * passed. For keys further on the listing may already be fetched and stale, so the change is held
+ * as that key's latest state instead: the scan skips the key and the held state is applied when
+ * the scan finishes.
+ *
+ * @param <G> the data structure holding one generation of the index
+ */
+public abstract class BucketIndex<G> {
+
+    protected static final String FOLDER_PLACEHOLDER = ".keep";
+
+    // Читачі не блокують одне одного; зміни з журналу беруть запис
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    protected G current = emptyGeneration();
+
+    private G building;
+
+    private Map<String, Entry> pending; // Ключі, змінені попереду курсора обходу; null — об'єкта вже немає
+
+    private volatile boolean ready;
+
+    protected abstract G emptyGeneration();
+
+    protected abstract void objectAdded(G generation, String key, long size, String contentType, LocalDateTime uploadedAt);
+
+    protected abstract void objectRemoved(G generation, String key, long size);
+
+    /**
+     * False until the first full scan has finished; until then results may be incomplete.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            building = emptyGeneration();
+            pending = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void scanned(StoredFile file) {
+        lock.writeLock().lock();
+        try {
+            if (!pending.containsKey(file.getId())) {
+                objectAdded(building, file.getId(), file.getSize(), null, file.getUploadedAt());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void finishRebuild() {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, Entry> held : pending.entrySet()) {
+                Entry entry = held.getValue();
+                if (entry != null) {
+                    objectAdded(building, held.getKey(), entry.size, entry.contentType, entry.timestamp);
+                }
+            }
+            current = building;
+            building = null;
+            pending = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            building = null;
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void apply(FileChange change, Predicate<String> scanPassed) {
+        lock.writeLock().lock();
+        try {
+            switch (change.getType()) {
+                case UPLOAD:
+                    added(change.getKey(), new Entry(change.getSize(), change.getContentType(), change.getTimestamp()), scanPassed);
+                    break;
+                case DELETE:
+                    removed(change.getKey(), change.getSize(), scanPassed);
+                    break;
+                case MOVE:
+                    removed(change.getPreviousKey(), change.getSize(), scanPassed);
+                    added(change.getKey(), new Entry(change.getSize(), change.getContentType(), change.getTimestamp()), scanPassed);
+                    break;
+                case CREATE_FOLDER:
+                    // Папка в R2 — це об'єкт-заглушка .keep
+                    added(change.getKey() + FOLDER_PLACEHOLDER, new Entry(0, null, change.getTimestamp()), scanPassed);
+                    break;
+                case DELETE_FOLDER:
+                    // Every object in the folder already produced its own DELETE
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void added(String key, Entry entry, Predicate<String> scanPassed) {
+        objectAdded(current, key, entry.size, entry.contentType, entry.timestamp);
+        if (building == null) {
+            return;
+        }
+        if (pending.containsKey(key) || !scanPassed.test(key)) {
+            pending.put(key, entry);
+        } else {
+            objectAdded(building, key, entry.size, entry.contentType, entry.timestamp);
+        }
+    }
+
+    private void removed(String key, long size, Predicate<String> scanPassed) {
+        objectRemoved(current, key, size);
+        if (building == null) {
+            return;
+        }
+        if (pending.containsKey(key) || !scanPassed.test(key)) {
+            pending.put(key, null);
+        } else {
+            objectRemoved(building, key, size);
+        }
+    }
+
+    protected static boolean isPlaceholder(String key) {
+        return key.endsWith("/" + FOLDER_PLACEHOLDER) || key.equals(FOLDER_PLACEHOLDER);
+    }
+
+    private static final class Entry {
+        private final long size;
+        private final String contentType;
+        private final LocalDateTime timestamp;
+
+        Entry(long size, String contentType, LocalDateTime timestamp) {
+            this.size = size;
+            this.contentType = contentType;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.archivist.ArchDrive.service.index;
+
+import com.archivist.ArchDrive.model.FileChange;
+import com.archivist.ArchDrive.service.shard.MergedIterator;
+import com.archivist.ArchDrive.service.storage.ChangeJournal;
+import com.archivist.ArchDrive.service.storage.FileStorageService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads every {@link BucketIndex} with a single paginated walk of the bucket and feeds them the
+ * change journal afterwards. The walk runs at startup and then periodically to correct any drift.
+ */
+@Component
+public class BucketIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(BucketIndexer.class);
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ChangeJournal changeJournal;
+
+    @Autowired
+    private List<BucketIndex<?>> indexes;
+
+    @Value("${archdrive.index.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicBoolean rerun = new AtomicBoolean(); // Скидання під час обходу: пропущене могло бути позаду курсора
+
+    // Ключ, до якого дійшов поточний обхід бакета; null, коли обходу немає
+    private String scanCursor;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bucket-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void subscribe() {
+        changeJournal.addListener(this::onChange);
+        // Журнал скинуто — могли пропустити зміни з інших вузлів, тож переглядаємо бакет заново
+        changeJournal.addResetListener(this::rebuildAfterReset);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void buildOnStartup() {
+        if (buildOnStartup) {
+            rebuildAsync();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${archdrive.index.rebuild-interval-ms:21600000}",
+            fixedDelayString = "${archdrive.index.rebuild-interval-ms:21600000}")
+    void scheduledRebuild() {
+        rebuildAsync();
+    }
+
+    /**
+     * Starts a full rescan in the background unless one is already running.
+     */
+    public boolean rebuildAsync() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.submit(this::rebuild);
+        return true;
+    }
+
+    private void rebuildAfterReset() {
+        rerun.set(true);
+        rebuildAsync();
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        long[] objects = {0};
+        rerun.set(false);
+        try {
+            synchronized (this) {
+                scanCursor = "";
+                indexes.forEach(BucketIndex::beginRebuild);
+            }
+            fileStorageService.walkFiles("", file -> {
+                synchronized (this) {
+                    scanCursor = file.getId();
+                    for (BucketIndex<?> index : indexes) {
+                        index.scanned(file);
+                    }
+                }
+                objects[0]++;
+            });
+            synchronized (this) {
+                indexes.forEach(BucketIndex::finishRebuild);
+            }
+            log.info("Bucket indexes rebuilt from {} objects in {} ms", objects[0], System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            synchronized (this) {
+                indexes.forEach(BucketIndex::abortRebuild);
+            }
+            log.error("Bucket index rebuild failed after {} objects: {}", objects[0], e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                scanCursor = null;
+            }
+            rebuilding.set(false);
+        }
+        if (rerun.get()) {
+            rebuildAsync();
+        }
+    }
+
+    private synchronized void onChange(FileChange change) {
+        String cursor = scanCursor;
+        for (BucketIndex<?> index : indexes) {
+            // Лістинг іде в порядку байтів UTF-8, тож і з курсором порівнюємо так само
+            index.apply(change, key -> cursor != null && MergedIterator.compareKeys(key, cursor) <= 0);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.archivist.ArchDrive.service.index;
+
+import com.archivist.ArchDrive.model.SearchQuery;
+import com.archivist.ArchDrive.model.SearchResult;
+import com.archivist.ArchDrive.model.StoredFile;
+import com.archivist.ArchDrive.service.storage.ContentTypes;
+import com.archivist.ArchDrive.service.storage.FileStorageService;
+import com.archivist.ArchDrive.service.storage.ObjectKeys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Search over original file name, folder, content type, size and upload time, answered from memory.
+ */
+@Component
+public class FileSearchIndex extends BucketIndex<SearchData> {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Скільки документів пошук перебирає за одне взяття блокування: зміни з журналу чекають не довше
+    private static final int SCAN_CHUNK = 8192;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Override
+    protected SearchData emptyGeneration() {
+        return new SearchData();
+    }
+
+    @Override
+    protected void objectAdded(SearchData data, String key, long size, String contentType, LocalDateTime uploadedAt) {
+        if (isPlaceholder(key)) {
+            return;
+        }
+        String originalName = ObjectKeys.originalFileName(key);
+        String type = contentType != null && !contentType.isEmpty() ? contentType : ContentTypes.fromFileName(originalName);
+        long uploadedAtMillis = uploadedAt != null ? uploadedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+        data.add(key, originalName, ObjectKeys.folderOf(key), type, size, uploadedAtMillis);
+    }
+
+    @Override
+    protected void objectRemoved(SearchData data, String key, long size) {
+        data.remove(key);
+        if (data.needsCompaction()) {
+            data.compact();
+        }
+    }
+
+    /**
+     * Runs a query against the current generation.
+     *
+     * @throws IllegalArgumentException if the page or page size is out of range
+     */
+    public SearchResult search(SearchQuery query) {
+        long started = System.nanoTime();
+        String text = normalize(query.getQ());
+        String prefix = normalize(query.getPrefix());
+        int pageSize = query.getSize();
+        int page = query.getPage();
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (page < 0 || page >= Integer.MAX_VALUE / pageSize) {
+            throw new IllegalArgumentException("Page out of range: " + page);
+        }
+        long minSize = query.getMinSize() != null ? query.getMinSize() : Long.MIN_VALUE;
+        long maxSize = query.getMaxSize() != null ? query.getMaxSize() : Long.MAX_VALUE;
+        long fromMillis = query.getFrom() != null ? toMillis(query.getFrom()) : Long.MIN_VALUE;
+        long toMillis = query.getTo() != null ? toMillis(query.getTo()) : Long.MAX_VALUE;
+
+        List<StoredFile> items = new ArrayList<>();
+        long total;
+        search:
+        while (true) {
+            SearchData data;
+            int layout;
+            IntList candidates = null;
+            boolean[] folderFilter;
+            boolean[] typeFilter;
+            int count;
+            lock.readLock().lock();
+            try {
+                data = current;
+                layout = data.layout();
+                if (prefix != null) {
+                    candidates = data.candidates(SearchData.START + prefix);
+                }
+                if (text != null) {
+                    IntList textCandidates = data.candidates(text);
+                    if (candidates == null) {
+                        candidates = textCandidates;
+                    } else if (textCandidates != null) {
+                        candidates.retainSorted(textCandidates);
+                    }
+                }
+                folderFilter = query.getFolder() != null && !query.getFolder().isEmpty()
+                        ? data.foldersUnder(query.getFolder().endsWith("/") ? query.getFolder() : query.getFolder() + "/")
+                        : null;
+                typeFilter = query.getContentType() != null && !query.getContentType().isEmpty()
+                        ? data.contentTypesMatching(query.getContentType())
+                        : null;
+                // Документи, додані під час пошуку, вже не розглядаємо — фільтри їх ще не знають
+                count = candidates != null ? candidates.size() : data.docCount();
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            // Тримаємо лише (page + 1) * size найновіших збігів, а не сортуємо всі; більше, ніж живих файлів, їх не буде
+            int keep = (page + 1) * pageSize;
+            PriorityQueue<Integer> newest = new PriorityQueue<>(Math.min(keep, count) + 1,
+                    (a, b) -> Long.compare(data.uploadedAt(a), data.uploadedAt(b)));
+            total = 0;
+
+            // Перебираємо шматками й відпускаємо блокування між ними, щоб довгий пошук не тримав записи
+            for (int from = 0; from < count; from += SCAN_CHUNK) {
+                lock.readLock().lock();
+                try {
+                    if (current != data || data.layout() != layout) {
+                        continue search; // Індекс перебудовано або стиснено — номери документів уже інші
+                    }
+                    for (int i = from; i < Math.min(count, from + SCAN_CHUNK); i++) {
+                        int doc = candidates != null ? candidates.get(i) : i;
+                        if (!data.isLive(doc)
+                                || data.size(doc) < minSize || data.size(doc) > maxSize
+                                || data.uploadedAt(doc) < fromMillis || data.uploadedAt(doc) > toMillis
+                                || (folderFilter != null && !folderFilter[data.folderId(doc)])
+                                || (typeFilter != null && !typeFilter[data.contentTypeId(doc)])
+                                || (prefix != null && !data.lowerName(doc).startsWith(prefix))
+                                || (text != null && !data.lowerName(doc).contains(text))) {
+                            continue;
+                        }
+                        total++;
+                        newest.add(doc);
+                        if (newest.size() > keep) {
+                            newest.poll();
+                        }
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            if ((long) page * pageSize >= total) {
+                break;
+            }
+            lock.readLock().lock();
+            try {
+                if (current != data || data.layout() != layout) {
+                    continue search;
+                }
+                List<Integer> ordered = new ArrayList<>(newest);
+                ordered.sort((a, b) -> Long.compare(data.uploadedAt(b), data.uploadedAt(a)));
+                for (int i = page * pageSize; i < ordered.size(); i++) {
+                    items.add(toStoredFile(data, ordered.get(i)));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            break;
+        }
+
+        // Адреси будуємо вже без блокування
+        for (StoredFile item : items) {
+            item.setUrl(fileStorageService.getPublicUrl(item.getId()));
+        }
+        return new SearchResult(items, total, page, pageSize, isReady(), (System.nanoTime() - started) / 1000);
+    }
+
+    /**
+     * Size of the object at {@code key} as last seen by the index, or -1 if it is not known.
+     */
+    public long sizeOf(String key) {
+        lock.readLock().lock();
+        try {
+            int doc = current.doc(key);
+            return doc >= 0 ? current.size(doc) : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private StoredFile toStoredFile(SearchData data, int doc) {
+        String key = data.key(doc);
+        StoredFile storedFile = new StoredFile();
+        storedFile.setId(key);
+        storedFile.setFileName(ObjectKeys.originalFileName(key));
+        storedFile.setFolder(data.folder(doc));
+        storedFile.setSize(data.size(doc));
+        storedFile.setContentType(data.contentType(doc));
+        storedFile.setUploadedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(data.uploadedAt(doc)), ZoneId.systemDefault()));
+        return storedFile;
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long toMillis(LocalDateTime value) {
+        return value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
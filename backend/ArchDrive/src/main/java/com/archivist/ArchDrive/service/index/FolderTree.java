@@ -0,0 +1,49 @@
+package com.archivist.ArchDrive.service.index;
+
+import com.archivist.ArchDrive.model.FolderNode;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * The whole folder hierarchy with file counts and sizes, so the sidebar can be drawn from one
+ * in-memory lookup instead of one R2 listing per expanded folder.
+ */
+@Component
+public class FolderTree extends BucketIndex<FolderTrie> {
+
+    @Override
+    protected FolderTrie emptyGeneration() {
+        return new FolderTrie();
+    }
+
+    @Override
+    protected void objectAdded(FolderTrie trie, String key, long size, String contentType, LocalDateTime uploadedAt) {
+        trie.addObject(key, size);
+    }
+
+    @Override
+    protected void objectRemoved(FolderTrie trie, String key, long size) {
+        trie.removeObject(key, size);
+    }
+
+    /**
+     * Returns the subtree rooted at {@code root} ("" for the whole bucket), cut off after
+     * {@code depth} levels, or null if there is no such folder.
+     */
+    public FolderNode getTree(String root, int depth) {
+        String folderPath = root == null ? "" : root.trim();
+        while (folderPath.startsWith("/")) {
+            folderPath = folderPath.substring(1);
+        }
+        if (!folderPath.isEmpty() && !folderPath.endsWith("/")) {
+            folderPath = folderPath + "/";
+        }
+        lock.readLock().lock();
+        try {
+            return current.snapshot(folderPath, Math.max(0, depth));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
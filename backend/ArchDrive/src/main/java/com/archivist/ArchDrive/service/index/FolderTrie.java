@@ -0,0 +1,248 @@
+package com.archivist.ArchDrive.service.index;
+
+import com.archivist.ArchDrive.model.FolderNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact prefix trie of folder paths. Nodes live in parallel primitive arrays, path segments are
+ * interned to int ids, and the (parent, segment) to child lookup is a primitive hash map, so each
+ * folder costs a few dozen bytes regardless of how many objects it holds.
+ *
+ * <p>Every node keeps its own file count and size plus totals for its subtree; adding or removing
+ * an object updates the totals along the path to the root. Not thread-safe.
+ */
+final class FolderTrie {
+
+    static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final Map<String, Integer> segmentIds = new HashMap<>();
+    private final List<String> segmentNames = new ArrayList<>();
+
+    private int[] segment;
+    private int[] parent;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int[] childCount;
+    private long[] directFiles;
+    private long[] directBytes;
+    private long[] totalFiles;
+    private long[] totalBytes;
+    private boolean[] placeholder; // Папку створено явно (є об'єкт .keep)
+
+    private final LongIntHashMap children = new LongIntHashMap(1024);
+    private int nodeCount;
+    private int freeList = NONE; // Звільнені вузли, зв'язані через nextSibling
+
+    FolderTrie() {
+        segmentNames.add(""); // Сегмент 0 — корінь
+        allocate(256);
+        nodeCount = 1;
+        parent[ROOT] = NONE;
+        firstChild[ROOT] = NONE;
+        nextSibling[ROOT] = NONE;
+    }
+
+    void addObject(String key, long size) {
+        int slash = key.lastIndexOf('/');
+        int node = ensure(key, slash);
+        if (isPlaceholderName(key, slash)) {
+            placeholder[node] = true;
+            return;
+        }
+        directFiles[node]++;
+        directBytes[node] += size;
+        for (int n = node; n != NONE; n = parent[n]) {
+            totalFiles[n]++;
+            totalBytes[n] += size;
+        }
+    }
+
+    void removeObject(String key, long size) {
+        int slash = key.lastIndexOf('/');
+        int node = find(key, slash);
+        if (node == NONE) {
+            return;
+        }
+        if (isPlaceholderName(key, slash)) {
+            placeholder[node] = false;
+        } else if (directFiles[node] > 0) {
+            directFiles[node]--;
+            directBytes[node] = Math.max(0, directBytes[node] - size);
+            for (int n = node; n != NONE; n = parent[n]) {
+                totalFiles[n]--;
+                totalBytes[n] = Math.max(0, totalBytes[n] - size);
+            }
+        }
+        prune(node);
+    }
+
+    /**
+     * Returns the folder at {@code path} with its subfolders down to {@code depth} levels, or null if
+     * the folder is not known.
+     */
+    FolderNode snapshot(String path, int depth) {
+        String folderPath = path == null ? "" : path;
+        int node = find(folderPath, folderPath.length() - 1);
+        if (node == NONE) {
+            return null;
+        }
+        return toFolderNode(node, folderPath, depth);
+    }
+
+    private FolderNode toFolderNode(int node, String path, int depth) {
+        FolderNode folder = new FolderNode();
+        folder.setName(node == ROOT ? "" : segmentNames.get(segment[node]));
+        folder.setPath(path);
+        folder.setFileCount(directFiles[node]);
+        folder.setTotalFileCount(totalFiles[node]);
+        folder.setTotalSize(totalBytes[node]);
+        folder.setChildCount(childCount[node]);
+        if (depth > 0) {
+            List<FolderNode> result = new ArrayList<>(childCount[node]);
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                result.add(toFolderNode(child, path + segmentNames.get(segment[child]) + "/", depth - 1));
+            }
+            result.sort((a, b) -> a.getName().compareTo(b.getName()));
+            folder.setChildren(result);
+        }
+        return folder;
+    }
+
+    /**
+     * Walks the folder part of {@code key} (everything up to {@code end}, the last slash), creating
+     * missing nodes on the way.
+     */
+    private int ensure(String key, int end) {
+        int node = ROOT;
+        int start = 0;
+        while (start <= end) {
+            int slash = key.indexOf('/', start);
+            if (slash > start) {
+                int segmentId = intern(key.substring(start, slash));
+                int child = children.get(childKey(node, segmentId));
+                if (child == NONE) {
+                    child = newNode(node, segmentId);
+                }
+                node = child;
+            }
+            start = slash + 1;
+        }
+        return node;
+    }
+
+    private int find(String key, int end) {
+        int node = ROOT;
+        int start = 0;
+        while (start <= end) {
+            int slash = key.indexOf('/', start);
+            if (slash < 0) {
+                break;
+            }
+            if (slash > start) {
+                Integer segmentId = segmentIds.get(key.substring(start, slash));
+                if (segmentId == null) {
+                    return NONE;
+                }
+                node = children.get(childKey(node, segmentId));
+                if (node == NONE) {
+                    return NONE;
+                }
+            }
+            start = slash + 1;
+        }
+        return node;
+    }
+
+    /**
+     * Drops folders that no longer hold anything, the same way they disappear from R2 listings.
+     */
+    private void prune(int node) {
+        while (node != ROOT && directFiles[node] == 0 && !placeholder[node] && firstChild[node] == NONE) {
+            int up = parent[node];
+            unlink(up, node);
+            children.remove(childKey(up, segment[node]));
+            nextSibling[node] = freeList;
+            freeList = node;
+            node = up;
+        }
+    }
+
+    private void unlink(int up, int node) {
+        if (firstChild[up] == node) {
+            firstChild[up] = nextSibling[node];
+        } else {
+            int previous = firstChild[up];
+            while (nextSibling[previous] != node) {
+                previous = nextSibling[previous];
+            }
+            nextSibling[previous] = nextSibling[node];
+        }
+        childCount[up]--;
+    }
+
+    private int newNode(int up, int segmentId) {
+        int node;
+        if (freeList != NONE) {
+            node = freeList;
+            freeList = nextSibling[node];
+        } else {
+            if (nodeCount == segment.length) {
+                allocate(segment.length * 2);
+            }
+            node = nodeCount++;
+        }
+        segment[node] = segmentId;
+        parent[node] = up;
+        firstChild[node] = NONE;
+        nextSibling[node] = firstChild[up];
+        firstChild[up] = node;
+        childCount[up]++;
+        childCount[node] = 0;
+        directFiles[node] = 0;
+        directBytes[node] = 0;
+        totalFiles[node] = 0;
+        totalBytes[node] = 0;
+        placeholder[node] = false;
+        children.put(childKey(up, segmentId), node);
+        return node;
+    }
+
+    private int intern(String name) {
+        Integer id = segmentIds.get(name);
+        if (id == null) {
+            id = segmentNames.size();
+            segmentNames.add(name);
+            segmentIds.put(name, id);
+        }
+        return id;
+    }
+
+    private void allocate(int capacity) {
+        segment = segment == null ? new int[capacity] : Arrays.copyOf(segment, capacity);
+        parent = parent == null ? new int[capacity] : Arrays.copyOf(parent, capacity);
+        firstChild = firstChild == null ? new int[capacity] : Arrays.copyOf(firstChild, capacity);
+        nextSibling = nextSibling == null ? new int[capacity] : Arrays.copyOf(nextSibling, capacity);
+        childCount = childCount == null ? new int[capacity] : Arrays.copyOf(childCount, capacity);
+        directFiles = directFiles == null ? new long[capacity] : Arrays.copyOf(directFiles, capacity);
+        directBytes = directBytes == null ? new long[capacity] : Arrays.copyOf(directBytes, capacity);
+        totalFiles = totalFiles == null ? new long[capacity] : Arrays.copyOf(totalFiles, capacity);
+        totalBytes = totalBytes == null ? new long[capacity] : Arrays.copyOf(totalBytes, capacity);
+        placeholder = placeholder == null ? new boolean[capacity] : Arrays.copyOf(placeholder, capacity);
+    }
+
+    private static long childKey(int node, int segmentId) {
+        // segmentId >= 1, тому ключ ніколи не дорівнює 0 (порожній слот мапи)
+        return ((long) node << 32) | segmentId;
+    }
+
+    private static boolean isPlaceholderName(String key, int slash) {
+        return key.startsWith(BucketIndex.FOLDER_PLACEHOLDER, slash + 1)
+                && key.length() == slash + 1 + BucketIndex.FOLDER_PLACEHOLDER.length();
+    }
+}
@@ -0,0 +1,60 @@
+package com.archivist.ArchDrive.service.index;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of ints, used for posting lists and match sets.
+ */
+final class IntList {
+
+    private int[] values;
+    private int size;
+
+    IntList(int capacity) {
+        values = new int[Math.max(2, capacity)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int last() {
+        return size == 0 ? -1 : values[size - 1];
+    }
+
+    /**
+     * Keeps only values also present in {@code other}; both lists must be sorted ascending.
+     */
+    void retainSorted(IntList other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < other.size; i++) {
+            int value = values[i];
+            while (j < other.size && other.values[j] < value) {
+                j++;
+            }
+            if (j < other.size && other.values[j] == value) {
+                values[kept++] = value;
+            }
+        }
+        size = kept;
+    }
+
+    IntList copy() {
+        IntList copy = new IntList(size);
+        System.arraycopy(values, 0, copy.values, 0, size);
+        copy.size = size;
+        return copy;
+    }
+}
@@ -0,0 +1,247 @@
+package com.archivist.ArchDrive.service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One generation of the file search index. Documents are rows in parallel arrays; names are indexed
+ * by character trigrams (with a start-of-name marker so prefixes are covered too), folders and
+ * content types are interned so filters become bitmap lookups. Removed documents are only marked
+ * dead until they make up a quarter of the rows; then {@link #compact} renumbers the live ones.
+ * Not thread-safe.
+ */
+final class SearchData {
+
+    // Стискаємо, лише коли документів уже стільки, що перебір мертвих помітний
+    private static final int MIN_COMPACT_DOCS = 4096;
+
+    // Маркер початку імені: "\u0002ab" дозволяє шукати префікси через ті ж триграми
+    static final char START = '\u0002';
+
+    private String[] keys = new String[1024];
+    private String[] lowerNames = new String[1024];
+    private long[] sizes = new long[1024];
+    private long[] uploadedAt = new long[1024]; // epoch millis
+    private int[] folderIds = new int[1024];
+    private int[] contentTypeIds = new int[1024];
+    private BitSet live = new BitSet();
+    private int docCount;
+    private int liveCount;
+    private int layout; // Змінюється, коли документи перенумеровано
+
+    private Map<String, Integer> docByKey = new HashMap<>();
+
+    private LongIntHashMap postingByTrigram = new LongIntHashMap(4096);
+    private List<IntList> postings = new ArrayList<>();
+
+    private Map<String, Integer> folderIdByPath = new HashMap<>();
+    private List<String> folders = new ArrayList<>();
+    private Map<String, Integer> contentTypeIdByName = new HashMap<>();
+    private List<String> contentTypes = new ArrayList<>();
+
+    void add(String key, String originalName, String folder, String contentType, long size, long uploadedAtMillis) {
+        remove(key);
+        if (docCount == keys.length) {
+            grow(keys.length * 2);
+        }
+        int doc = docCount++;
+        String lowerName = originalName.toLowerCase(Locale.ROOT);
+        keys[doc] = key;
+        lowerNames[doc] = lowerName;
+        sizes[doc] = size;
+        uploadedAt[doc] = uploadedAtMillis;
+        folderIds[doc] = intern(folder, folderIdByPath, folders);
+        contentTypeIds[doc] = intern(contentType, contentTypeIdByName, contentTypes);
+        live.set(doc);
+        liveCount++;
+        docByKey.put(key, doc);
+
+        String indexed = START + lowerName;
+        for (int i = 0; i + 3 <= indexed.length(); i++) {
+            long trigram = trigram(indexed, i);
+            int posting = postingByTrigram.get(trigram);
+            if (posting < 0) {
+                posting = postings.size();
+                postings.add(new IntList(4));
+                postingByTrigram.put(trigram, posting);
+            }
+            IntList docs = postings.get(posting);
+            if (docs.last() != doc) {
+                docs.add(doc);
+            }
+        }
+    }
+
+    void remove(String key) {
+        Integer doc = docByKey.remove(key);
+        if (doc != null) {
+            live.clear(doc);
+            liveCount--;
+        }
+    }
+
+    /**
+     * Returns the live document for {@code key}, or -1.
+     */
+    int doc(String key) {
+        Integer doc = docByKey.get(key);
+        return doc != null ? doc : -1;
+    }
+
+    int liveCount() {
+        return liveCount;
+    }
+
+    /**
+     * Changes whenever document numbers do, so a reader that let go of the lock can tell whether
+     * the numbers it holds are still valid.
+     */
+    int layout() {
+        return layout;
+    }
+
+    boolean needsCompaction() {
+        return docCount >= MIN_COMPACT_DOCS && docCount - liveCount > docCount / 4;
+    }
+
+    /**
+     * Re-adds the live documents in their current order to fresh structures, dropping the dead rows
+     * and their postings.
+     */
+    void compact() {
+        SearchData compacted = new SearchData();
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            compacted.add(keys[doc], lowerNames[doc], folder(doc), contentType(doc), sizes[doc], uploadedAt[doc]);
+        }
+        keys = compacted.keys;
+        lowerNames = compacted.lowerNames;
+        sizes = compacted.sizes;
+        uploadedAt = compacted.uploadedAt;
+        folderIds = compacted.folderIds;
+        contentTypeIds = compacted.contentTypeIds;
+        live = compacted.live;
+        docCount = compacted.docCount;
+        liveCount = compacted.liveCount;
+        docByKey = compacted.docByKey;
+        postingByTrigram = compacted.postingByTrigram;
+        postings = compacted.postings;
+        folderIdByPath = compacted.folderIdByPath;
+        folders = compacted.folders;
+        contentTypeIdByName = compacted.contentTypeIdByName;
+        contentTypes = compacted.contentTypes;
+        layout++;
+    }
+
+    /**
+     * Candidate documents containing every trigram of {@code text}, in ascending order, or null when
+     * the text is too short to narrow anything down (the caller then scans all documents).
+     */
+    IntList candidates(String text) {
+        if (text.length() < 3) {
+            return null;
+        }
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            int posting = postingByTrigram.get(trigram(text, i));
+            if (posting < 0) {
+                return new IntList(0);
+            }
+            lists.add(postings.get(posting));
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        IntList result = lists.get(0).copy();
+        for (int i = 1; i < lists.size() && result.size() > 0; i++) {
+            result.retainSorted(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Marks which interned folders are {@code folder} itself or lie below it.
+     */
+    boolean[] foldersUnder(String folder) {
+        boolean[] matches = new boolean[folders.size()];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = folders.get(i).startsWith(folder);
+        }
+        return matches;
+    }
+
+    boolean[] contentTypesMatching(String contentType) {
+        String wanted = contentType.toLowerCase(Locale.ROOT);
+        boolean[] matches = new boolean[contentTypes.size()];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = contentTypes.get(i).toLowerCase(Locale.ROOT).startsWith(wanted);
+        }
+        return matches;
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    boolean isLive(int doc) {
+        return live.get(doc);
+    }
+
+    String key(int doc) {
+        return keys[doc];
+    }
+
+    String lowerName(int doc) {
+        return lowerNames[doc];
+    }
+
+    long size(int doc) {
+        return sizes[doc];
+    }
+
+    long uploadedAt(int doc) {
+        return uploadedAt[doc];
+    }
+
+    int folderId(int doc) {
+        return folderIds[doc];
+    }
+
+    String folder(int doc) {
+        return folders.get(folderIds[doc]);
+    }
+
+    int contentTypeId(int doc) {
+        return contentTypeIds[doc];
+    }
+
+    String contentType(int doc) {
+        return contentTypes.get(contentTypeIds[doc]);
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        lowerNames = Arrays.copyOf(lowerNames, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        uploadedAt = Arrays.copyOf(uploadedAt, capacity);
+        folderIds = Arrays.copyOf(folderIds, capacity);
+        contentTypeIds = Arrays.copyOf(contentTypeIds, capacity);
+    }
+
+    private static int intern(String value, Map<String, Integer> ids, List<String> values) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            values.add(value);
+            ids.put(value, id);
+        }
+        return id;
+    }
+
+    private static long trigram(String text, int offset) {
+        // +1 до першого символу — ключ мапи ніколи не буде нульовим
+        return ((long) (text.charAt(offset) + 1) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+}
@@ -0,0 +1,80 @@
+package com.archivist.ArchDrive.service.preview;
+
+import java.util.Arrays;
+
+/**
+ * Sparse map from line numbers to byte offsets for one file: one checkpoint every
+ * {@link #LINES_PER_CHECKPOINT} lines, filled in only as far as someone has asked to jump. Finding
+ * any line then means reading at most one checkpoint interval. Not thread-safe; callers lock on
+ * the instance.
+ */
+final class LineIndex {
+
+    static final int LINES_PER_CHECKPOINT = 1000;
+
+    private final long size;
+    private final String charset;
+    private long[] checkpoints = new long[16]; // checkpoints[i] — зміщення рядка i * LINES_PER_CHECKPOINT
+    private int checkpointCount = 1;
+    private long scannedLines; // Скільки рядків уже пройдено
+    private long scannedBytes; // Зміщення початку рядка scannedLines
+    private boolean complete;
+
+    LineIndex(long size, String charset) {
+        this.size = size;
+        this.charset = charset;
+    }
+
+    long size() {
+        return size;
+    }
+
+    String charset() {
+        return charset;
+    }
+
+    long scannedLines() {
+        return scannedLines;
+    }
+
+    long scannedBytes() {
+        return scannedBytes;
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    void markComplete() {
+        complete = true;
+    }
+
+    /**
+     * Records that line {@code line} starts at {@code offset}; lines must arrive in order.
+     */
+    void lineStarted(long line, long offset) {
+        if (line <= scannedLines) {
+            return;
+        }
+        scannedLines = line;
+        scannedBytes = offset;
+        if (line % LINES_PER_CHECKPOINT == 0 && line / LINES_PER_CHECKPOINT == checkpointCount) {
+            if (checkpointCount == checkpoints.length) {
+                checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+            }
+            checkpoints[checkpointCount++] = offset;
+        }
+    }
+
+    /**
+     * The closest known line at or before {@code line}, as {line, offset}.
+     */
+    long[] floor(long line) {
+        int checkpoint = (int) Math.min(line / LINES_PER_CHECKPOINT, checkpointCount - 1);
+        long checkpointLine = (long) checkpoint * LINES_PER_CHECKPOINT;
+        if (scannedLines <= line && scannedLines > checkpointLine) {
+            return new long[]{scannedLines, scannedBytes};
+        }
+        return new long[]{checkpointLine, checkpoints[checkpoint]};
+    }
+}
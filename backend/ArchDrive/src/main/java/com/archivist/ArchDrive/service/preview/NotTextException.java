@@ -0,0 +1,14 @@
+package com.archivist.ArchDrive.service.preview;
+
+public class NotTextException extends RuntimeException {
+    private final String contentType;
+
+    public NotTextException(String fileName, String contentType) {
+        super("'" + fileName + "' is not a text file (" + contentType + ")");
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,27 @@
+package com.archivist.ArchDrive.service.preview;
+
+public class PreviewLimitException extends RuntimeException {
+    private final long limit;
+
+    public PreviewLimitException(String fileName, long limit) {
+        this(limit, "'" + fileName + "' is stored compressed; preview stops after the first " + limit + " bytes");
+    }
+
+    private PreviewLimitException(long limit, String message) {
+        super(message);
+        this.limit = limit;
+    }
+
+    /**
+     * A jump to a line that was not reached within one request's scan budget. The checkpoints found
+     * on the way are kept, so repeating the request continues where this one stopped.
+     */
+    public static PreviewLimitException scanLimit(String fileName, long line, long limit) {
+        return new PreviewLimitException(limit, "Line " + line + " of '" + fileName + "' was not reached within "
+                + limit + " bytes; repeat the request to continue");
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+}
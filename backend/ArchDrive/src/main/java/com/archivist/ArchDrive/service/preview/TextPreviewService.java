@@ -0,0 +1,518 @@
+package com.archivist.ArchDrive.service.preview;
+
+import com.archivist.ArchDrive.model.FileChange;
+import com.archivist.ArchDrive.model.TextPage;
+import com.archivist.ArchDrive.service.storage.ChangeJournal;
+import com.archivist.ArchDrive.service.storage.CompressionCodec;
+import com.archivist.ArchDrive.service.storage.ContentSniffer;
+import com.archivist.ArchDrive.service.storage.ContentTypes;
+import com.archivist.ArchDrive.service.storage.FileContent;
+import com.archivist.ArchDrive.service.storage.FileStorageService;
+import com.archivist.ArchDrive.service.storage.ObjectKeys;
+import com.archivist.ArchDrive.service.storage.RangeNotSatisfiableException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.http.Abortable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pages through text files a window at a time. Each page is one byte-range GET of at most the page
+ * size, cut back to the last complete line and decoded with the file's charset, so latency and
+ * memory do not depend on the file size. Jumping to a line number goes through a {@link LineIndex}
+ * that is built lazily, only as far as the furthest line anyone has asked for. One request scans at
+ * most {@code archdrive.preview.text.max-scan-bytes} past the closest known line; a line further
+ * away takes several requests, each continuing from the checkpoints the previous one left.
+ * <p>
+ * Reads are plain sequential GETs of the stored bytes, never the parallel download engine. An
+ * object compressed at rest cannot be entered in the middle, so it is decoded from its first byte
+ * and previewed only up to {@code archdrive.preview.text.max-compressed-offset}.
+ */
+@Service
+public class TextPreviewService {
+
+    private static final Logger log = LoggerFactory.getLogger(TextPreviewService.class);
+
+    // Сегмент одного Range GET під час підрахунку рядків; читається буфером SCAN_BUFFER_BYTES
+    private static final int SCAN_SEGMENT_BYTES = 8 * 1024 * 1024;
+    private static final int SCAN_BUFFER_BYTES = 64 * 1024;
+    private static final int MIN_PAGE_BYTES = 1024;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ChangeJournal changeJournal;
+
+    @Value("${archdrive.preview.text.max-page-bytes:1048576}")
+    private int maxPageBytes;
+
+    @Value("${archdrive.preview.text.max-indexed-files:64}")
+    private int maxIndexedFiles;
+
+    @Value("${archdrive.preview.text.max-compressed-offset:16777216}")
+    private long maxCompressedOffset;
+
+    @Value("${archdrive.preview.text.max-scan-bytes:67108864}")
+    private long maxScanBytes;
+
+    private final Map<String, LineIndex> lineIndexes = new LinkedHashMap<String, LineIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LineIndex> eldest) {
+            return size() > maxIndexedFiles;
+        }
+    };
+
+    @PostConstruct
+    void subscribe() {
+        // Індекс рядків дійсний лише для тієї версії файлу, за якою його будували
+        changeJournal.addListener(this::forget);
+        changeJournal.addResetListener(this::forgetAll);
+    }
+
+    /**
+     * Returns one page of {@code fileName}. The page starts at {@code cursor} (from a previous page),
+     * otherwise at line {@code line}, otherwise at the first line beginning at or after byte
+     * {@code offset}, otherwise at the start of the file.
+     */
+    public TextPage readPage(String fileName, String cursor, Long line, Long offset, int pageBytes) {
+        int windowBytes = Math.max(MIN_PAGE_BYTES, Math.min(pageBytes, maxPageBytes));
+        if ((line != null && line < 0) || (offset != null && offset < 0)) {
+            throw new IllegalArgumentException("Line and offset must not be negative");
+        }
+        try {
+            if (cursor != null && !cursor.isEmpty()) {
+                long[] position = parseCursor(cursor);
+                return toPage(fetch(fileName, position[0], windowBytes), position[1], 0);
+            }
+            if (line != null && line > 0) {
+                return readFromLine(fileName, line, windowBytes);
+            }
+            if (offset != null && offset > 0) {
+                // Довільне зміщення: пропускаємо неповний рядок на початку вікна
+                return toPage(fetch(fileName, offset, windowBytes), -1, 1);
+            }
+            return toPage(fetch(fileName, 0, windowBytes), 0, 0);
+        } catch (NotTextException | PreviewLimitException | IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Text preview failed for '{}': {}", fileName, e.getMessage(), e);
+            throw new RuntimeException("Failed to read text preview: " + e.getMessage(), e);
+        }
+    }
+
+    private TextPage readFromLine(String fileName, long line, int windowBytes) throws IOException {
+        LineIndex index = lineIndex(fileName);
+        if (index == null) {
+            // Перше вікно дає кодування й розмір; якщо рядок у ньому, індекс не потрібен
+            Window first = fetch(fileName, 0, windowBytes);
+            TextPage page = toPage(first, line, line);
+            if (page != null) {
+                return page;
+            }
+            index = new LineIndex(first.size, first.charset);
+            synchronized (lineIndexes) {
+                lineIndexes.put(fileName, index);
+            }
+        }
+
+        long start;
+        synchronized (index) {
+            start = seek(fileName, index, line);
+        }
+        if (start < 0) {
+            return emptyPage(fileName, index.charset(), index.size(), line);
+        }
+        return toPage(fetch(fileName, start, windowBytes), line, 0);
+    }
+
+    /**
+     * Byte offset where {@code line} starts, or -1 if the file has fewer lines. Reads forward from
+     * the closest known line, recording checkpoints on the way, and gives up after
+     * {@link #maxScanBytes} so no request holds the index for an unbounded read.
+     */
+    private long seek(String fileName, LineIndex index, long line) throws IOException {
+        long[] floor = index.floor(line);
+        long current = floor[0];
+        long offset = floor[1];
+        if (current == line) {
+            return offset;
+        }
+        int unit = unitSize(index.charset());
+        boolean bigEndian = isBigEndian(index.charset());
+        byte[] buffer = new byte[SCAN_BUFFER_BYTES];
+        long scanEnd = Math.min(index.size(), offset + maxScanBytes);
+        Source source = null;
+        try {
+            while (offset < scanEnd) {
+                long segmentEnd = Math.min(offset + SCAN_SEGMENT_BYTES, scanEnd);
+                if (source == null || !source.decoded) {
+                    if (source != null) {
+                        source.close();
+                    }
+                    source = open(fileName, offset, segmentEnd - offset);
+                } else if (offset > maxCompressedOffset) {
+                    throw new PreviewLimitException(fileName, maxCompressedOffset);
+                }
+                // Розпакований потік читається далі без нового GET, щоб не розпаковувати з початку ще раз
+                long position = offset;
+                int read;
+                while (position < segmentEnd && (read = source.in.readNBytes(buffer, 0, (int) Math.min(buffer.length, segmentEnd - position))) > 0) {
+                    for (int i = 0; i + unit <= read; i += unit) {
+                        if (isNewline(buffer, i, unit, bigEndian)) {
+                            current++;
+                            long lineStart = position + i + unit;
+                            index.lineStarted(current, lineStart);
+                            if (current == line) {
+                                return lineStart < index.size() ? lineStart : -1;
+                            }
+                        }
+                    }
+                    position += read;
+                }
+                if (position < segmentEnd) {
+                    break; // Файл коротший, ніж здавалось
+                }
+                offset = segmentEnd;
+            }
+        } finally {
+            if (source != null) {
+                source.close();
+            }
+        }
+        if (offset < index.size() && offset == scanEnd) {
+            throw PreviewLimitException.scanLimit(fileName, line, maxScanBytes);
+        }
+        index.markComplete();
+        return -1;
+    }
+
+    /**
+     * One window of at most {@code windowBytes} starting at {@code start}.
+     */
+    private Window fetch(String fileName, long start, int windowBytes) throws IOException {
+        Source source;
+        try {
+            source = open(fileName, start, windowBytes);
+        } catch (RangeNotSatisfiableException e) {
+            return new Window(fileName, start, new byte[0], e.getTotalLength(), null);
+        }
+        byte[] bytes;
+        try (source) {
+            bytes = source.in.readNBytes(windowBytes);
+        }
+        return new Window(fileName, start, bytes, source.size, charsetFor(fileName, source.content, bytes, start));
+    }
+
+    /**
+     * Opens the content at {@code start}: a byte-range GET of {@code length} bytes for objects stored
+     * as they are, the whole object decoded and skipped up to {@code start} for compressed ones.
+     */
+    private Source open(String fileName, long start, long length) throws IOException {
+        FileContent content = null;
+        try {
+            FileContent ranged = fileStorageService.openStored(fileName, "bytes=" + start + "-" + (start + length - 1));
+            if (ranged.getContentEncoding() == null) {
+                return new Source(ranged, ranged.getResource().getInputStream(), null, ranged.getTotalLength());
+            }
+            // Діапазон прийшов у стиснутих байтах — з середини його не розпакувати
+            abort(ranged.getResource().getInputStream());
+        } catch (RangeNotSatisfiableException e) {
+            // Зміщення стиснутого об'єкта рахується в розпакованих байтах і може перевищувати збережений розмір
+            content = fileStorageService.openStored(fileName, null);
+            if (content.getContentEncoding() == null) {
+                abort(content.getResource().getInputStream());
+                throw e;
+            }
+        }
+        if (start > maxCompressedOffset) {
+            if (content != null) {
+                abort(content.getResource().getInputStream());
+            }
+            throw new PreviewLimitException(fileName, maxCompressedOffset);
+        }
+        if (content == null) {
+            content = fileStorageService.openStored(fileName, null);
+        }
+        InputStream stored = content.getResource().getInputStream();
+        CompressionCodec codec = CompressionCodec.fromToken(content.getContentEncoding());
+        InputStream in = codec != null ? codec.decompress(stored) : stored;
+        long size = codec != null ? content.getOriginalSize() : content.getContentLength();
+        in.skipNBytes(Math.min(start, Math.max(size, 0)));
+        return new Source(content, stored, in, size);
+    }
+
+    /**
+     * Cuts a window down to whole lines and decodes it. The first {@code skipLines} line breaks are
+     * skipped; returns null if the window does not contain that many.
+     */
+    private TextPage toPage(Window window, long firstLine, long skipLines) {
+        if (window.charset == null) {
+            return emptyPage(window.fileName, null, window.size, firstLine);
+        }
+        byte[] bytes = window.bytes;
+        int unit = unitSize(window.charset);
+        boolean bigEndian = isBigEndian(window.charset);
+        boolean reachesEnd = window.start + bytes.length >= window.size;
+
+        int from = unit == 2 && window.start % 2 != 0 ? 1 : 0;
+        for (long skipped = 0; skipped < skipLines; skipped++) {
+            int newline = indexOfNewline(bytes, from, unit, bigEndian);
+            if (newline < 0) {
+                return reachesEnd ? emptyPage(window.fileName, window.charset, window.size, firstLine) : null;
+            }
+            from = newline + unit;
+        }
+
+        int cut;
+        boolean truncated = false;
+        int lastNewline = lastIndexOfNewline(bytes, from, unit, bigEndian);
+        if (reachesEnd) {
+            cut = bytes.length;
+        } else if (lastNewline >= 0) {
+            cut = lastNewline + unit;
+        } else {
+            // Рядок довший за вікно: віддаємо його початок, наступна сторінка продовжить з місця обриву
+            cut = bytes.length;
+            truncated = true;
+        }
+
+        CharsetDecoder decoder = Charset.forName(window.charset).newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer input = ByteBuffer.wrap(bytes, from, cut - from);
+        CharBuffer output = CharBuffer.allocate((int) ((cut - from) * (double) decoder.maxCharsPerByte()) + 1);
+        decoder.decode(input, output, reachesEnd);
+        if (reachesEnd) {
+            decoder.flush(output);
+        }
+        // Незавершений символ на межі вікна лишається для наступної сторінки
+        cut = input.position();
+        output.flip();
+
+        List<String> lines = new ArrayList<>();
+        long newlines = splitLines(output, lines);
+        if (window.start + from == 0 && !lines.isEmpty() && lines.get(0).startsWith("\uFEFF")) {
+            lines.set(0, lines.get(0).substring(1));
+        }
+
+        TextPage page = new TextPage();
+        page.setFileName(window.fileName);
+        page.setCharset(window.charset);
+        page.setOffset(window.start + from);
+        page.setFirstLine(firstLine);
+        page.setLines(lines);
+        page.setTotalSize(window.size);
+        page.setTruncated(truncated);
+        long next = window.start + cut;
+        if (next < window.size) {
+            page.setNextCursor(next + ":" + (firstLine >= 0 ? firstLine + newlines : -1));
+        }
+        return page;
+    }
+
+    private String charsetFor(String fileName, FileContent content, byte[] bytes, long start) {
+        String detected = content.getDetectedContentType();
+        if (detected != null) {
+            String charset = ContentTypes.charsetOf(detected);
+            if (charset == null) {
+                throw new NotTextException(fileName, detected);
+            }
+            return charset;
+        }
+        String stored = ContentTypes.charsetOf(content.getContentType());
+        if (stored != null && Charset.isSupported(stored)) {
+            return stored;
+        }
+        // Старі об'єкти без визначеного типу: перевіряємо саме вікно
+        int skip = 0;
+        while (start > 0 && skip < Math.min(3, bytes.length) && (bytes[skip] & 0xC0) == 0x80) {
+            skip++;
+        }
+        byte[] sample = skip == 0 ? bytes : Arrays.copyOfRange(bytes, skip, bytes.length);
+        ContentSniffer.Result sniffed = ContentSniffer.sniff(sample, Math.min(sample.length, ContentSniffer.HEAD_SIZE),
+                ObjectKeys.originalFileName(fileName));
+        if (!sniffed.isText()) {
+            throw new NotTextException(fileName, sniffed.getContentType());
+        }
+        return sniffed.getCharset() != null ? sniffed.getCharset() : "UTF-8";
+    }
+
+    private TextPage emptyPage(String fileName, String charset, long size, long firstLine) {
+        TextPage page = new TextPage();
+        page.setFileName(fileName);
+        page.setCharset(charset);
+        page.setOffset(size);
+        page.setFirstLine(firstLine);
+        page.setLines(new ArrayList<>());
+        page.setTotalSize(size);
+        return page;
+    }
+
+    private LineIndex lineIndex(String fileName) {
+        synchronized (lineIndexes) {
+            return lineIndexes.get(fileName);
+        }
+    }
+
+    private void forget(FileChange change) {
+        synchronized (lineIndexes) {
+            if (change.getType() == FileChange.Type.DELETE_FOLDER) {
+                lineIndexes.keySet().removeIf(key -> key.startsWith(change.getKey()));
+                return;
+            }
+            lineIndexes.remove(change.getKey());
+            if (change.getPreviousKey() != null) {
+                lineIndexes.remove(change.getPreviousKey());
+            }
+        }
+    }
+
+    private void forgetAll() {
+        synchronized (lineIndexes) {
+            lineIndexes.clear();
+        }
+    }
+
+    private static final class Window {
+        final String fileName;
+        final long start;
+        final byte[] bytes;
+        final long size;
+        final String charset; // null — діапазон за межами файлу
+
+        Window(String fileName, long start, byte[] bytes, long size, String charset) {
+            this.fileName = fileName;
+            this.start = start;
+            this.bytes = bytes;
+            this.size = size;
+            this.charset = charset;
+        }
+    }
+
+    /**
+     * An opened read: {@code in} yields content bytes from the requested start. For a compressed
+     * object it decodes {@code stored}, the whole object, which is aborted on close rather than drained.
+     */
+    private static final class Source implements Closeable {
+        final FileContent content;
+        final InputStream stored;
+        final InputStream in;
+        final long size;
+        final boolean decoded;
+
+        Source(FileContent content, InputStream stored, InputStream in, long size) {
+            this.content = content;
+            this.stored = stored;
+            this.in = in != null ? in : stored;
+            this.size = size;
+            this.decoded = in != null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (decoded) {
+                abort(stored);
+            } else {
+                stored.close();
+            }
+        }
+    }
+
+    private static void abort(InputStream in) {
+        try {
+            if (in instanceof Abortable abortable) {
+                abortable.abort();
+            }
+            in.close();
+        } catch (IOException e) {
+            // Потік уже перервано
+        }
+    }
+
+    /**
+     * Splits decoded text on '\n' (dropping a trailing '\r'); returns how many line breaks it saw.
+     */
+    private static long splitLines(CharBuffer text, List<String> lines) {
+        long newlines = 0;
+        int lineStart = 0;
+        int length = text.remaining();
+        for (int i = 0; i < length; i++) {
+            if (text.get(i) == '\n') {
+                int lineEnd = i > lineStart && text.get(i - 1) == '\r' ? i - 1 : i;
+                lines.add(text.subSequence(lineStart, lineEnd).toString());
+                lineStart = i + 1;
+                newlines++;
+            }
+        }
+        if (lineStart < length) {
+            lines.add(text.subSequence(lineStart, length).toString());
+        }
+        return newlines;
+    }
+
+    private static long[] parseCursor(String cursor) {
+        int colon = cursor.indexOf(':');
+        try {
+            long[] position = colon < 0
+                    ? new long[]{Long.parseLong(cursor), -1}
+                    : new long[]{Long.parseLong(cursor.substring(0, colon)), Long.parseLong(cursor.substring(colon + 1))};
+            if (position[0] < 0 || position[1] < -1) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return position;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static int unitSize(String charset) {
+        return charset != null && charset.toUpperCase().startsWith("UTF-16") ? 2 : 1;
+    }
+
+    private static boolean isBigEndian(String charset) {
+        return charset != null && (charset.equalsIgnoreCase("UTF-16BE") || charset.equalsIgnoreCase("UTF-16"));
+    }
+
+    private static boolean isNewline(byte[] bytes, int i, int unit, boolean bigEndian) {
+        if (unit == 1) {
+            return bytes[i] == '\n';
+        }
+        return bigEndian ? bytes[i] == 0 && bytes[i + 1] == '\n' : bytes[i] == '\n' && bytes[i + 1] == 0;
+    }
+
+    private static int indexOfNewline(byte[] bytes, int from, int unit, boolean bigEndian) {
+        for (int i = from; i + unit <= bytes.length; i += unit) {
+            if (isNewline(bytes, i, unit, bigEndian)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOfNewline(byte[] bytes, int from, int unit, boolean bigEndian) {
+        int last = from + ((bytes.length - from) / unit - 1) * unit;
+        for (int i = last; i >= from; i -= unit) {
+            if (isNewline(bytes, i, unit, bigEndian)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,73 @@
+package com.archivist.ArchDrive.service.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring over shard names. Every shard gets {@code virtualNodes * weight} points on a
+ * 64-bit ring and a key belongs to the first point at or after its hash, so adding a shard only
+ * takes over the keys that now land on its own points; everything else stays where it was.
+ *
+ * <p>Immutable: changing the shard set builds a new ring.
+ */
+public final class HashRing {
+
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+    private final Map<String, Integer> weights;
+    private final int virtualNodes;
+
+    public HashRing(Map<String, Integer> weights, int virtualNodes) {
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.weights = Collections.unmodifiableMap(new LinkedHashMap<>(weights));
+        this.virtualNodes = virtualNodes;
+        for (Map.Entry<String, Integer> shard : weights.entrySet()) {
+            int replicas = Math.max(1, virtualNodes * Math.max(1, shard.getValue()));
+            for (int i = 0; i < replicas; i++) {
+                // При колізії точка лишається за першим шардом — порядок шардів у конфігурації стабільний
+                points.putIfAbsent(hash(shard.getKey() + "#" + i), shard.getKey());
+            }
+        }
+    }
+
+    public HashRing withShard(String name, int weight) {
+        if (weights.containsKey(name)) {
+            throw new IllegalArgumentException("Shard '" + name + "' already exists");
+        }
+        Map<String, Integer> extended = new LinkedHashMap<>(weights);
+        extended.put(name, weight);
+        return new HashRing(extended, virtualNodes);
+    }
+
+    public String ownerOf(String routingKey) {
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(routingKey));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    public Map<String, Integer> getWeights() {
+        return weights;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes followed by the MurmurHash3 finalizer, which spreads the
+     * nearly sequential virtual node labels evenly around the ring.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
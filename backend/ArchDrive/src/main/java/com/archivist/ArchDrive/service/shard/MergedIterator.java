@@ -0,0 +1,94 @@
+package com.archivist.ArchDrive.service.shard;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * Lazily merges several key-ordered listings (one per shard) into a single ordered stream. Sources
+ * are only advanced when their head is consumed, so paginated listings fetch the next page on
+ * demand. While a rebalance is running the same key can briefly exist on two shards; it is emitted
+ * once.
+ *
+ * <p>Keys are compared by code point, which is the UTF-8 byte order S3 listings use.
+ */
+public class MergedIterator<T> implements Iterator<T> {
+
+    private final Function<T, String> keyOf;
+    private final PriorityQueue<Source<T>> heads;
+    private String lastKey;
+    private T next;
+
+    public MergedIterator(List<? extends Iterator<T>> sources, Function<T, String> keyOf) {
+        this.keyOf = keyOf;
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> compareKeys(keyOf.apply(a.head), keyOf.apply(b.head)));
+        for (Iterator<T> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Source<>(source));
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !heads.isEmpty()) {
+            Source<T> source = heads.poll();
+            T candidate = source.head;
+            if (source.advance()) {
+                heads.add(source);
+            }
+            String key = keyOf.apply(candidate);
+            if (!key.equals(lastKey)) {
+                lastKey = key;
+                next = candidate;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T result = next;
+        next = null;
+        return result;
+    }
+
+    public static int compareKeys(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    private static final class Source<T> {
+        private final Iterator<T> iterator;
+        private T head;
+
+        Source(Iterator<T> iterator) {
+            this.iterator = iterator;
+            this.head = iterator.next();
+        }
+
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            head = iterator.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.archivist.ArchDrive.service.shard;
+
+import com.archivist.ArchDrive.model.ShardingStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves objects whose owner changed onto the right shard while the service keeps running. The sweep
+ * walks every shard; a misplaced object is copied to its owner and only then removed from the old
+ * shard, so lookups (which probe the old location during a rebalance) always find one copy. Keys
+ * keep their names, so the change journal and the indexes are not involved.
+ *
+ * <p>The copy is written with {@code If-None-Match: *}: if the owner already holds the key (a newer
+ * upload, or a copy whose source delete failed last time), that object wins and only the stale
+ * source is removed. The source is deleted with {@code If-Match} on the ETag that was copied. If it
+ * was deleted or overwritten meanwhile, the fresh copy is removed again instead of resurrecting the
+ * file or keeping an old version; an overwritten source is left for the next sweep.
+ *
+ * <p>Shards are only added or removed through configuration, so a ring change always comes with a
+ * restart. A node with several shards therefore sweeps on startup by default; until the sweep
+ * completes, {@link ShardRouter#locate} checks every shard rather than just the owner.
+ */
+@Component
+public class ShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    @Autowired
+    private ShardRouter shards;
+
+    @Value("${archdrive.sharding.rebalance-parallelism:4}")
+    private int parallelism;
+
+    @Value("${archdrive.sharding.rebalance-on-startup:true}")
+    private boolean rebalanceOnStartup;
+
+    private ExecutorService sweepExecutor;
+
+    private ExecutorService copyExecutor;
+
+    private boolean running;
+    private boolean rerun; // Обхід запросили ще раз, поки йшов попередній — після завершення обходимо знову
+
+    private volatile ShardingStatus.RebalanceState state = ShardingStatus.RebalanceState.IDLE;
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong moved = new AtomicLong();
+    private final AtomicLong movedBytes = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    @PostConstruct
+    void startExecutors() {
+        AtomicInteger counter = new AtomicInteger();
+        sweepExecutor = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "shard-rebalance"));
+        copyExecutor = Executors.newFixedThreadPool(parallelism, runnable -> daemon(runnable, "shard-copy-" + counter.incrementAndGet()));
+    }
+
+    @PreDestroy
+    void stopExecutors() {
+        sweepExecutor.shutdownNow();
+        copyExecutor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebalanceOnStartup() {
+        if (shards.getShards().size() < 2) {
+            return;
+        }
+        if (rebalanceOnStartup) {
+            start();
+        } else {
+            // Без обходу пошук і далі перевіряє всі шарди, зате ключі не губляться
+            log.warn("Startup rebalance is disabled; lookups check every shard until POST /api/admin/shards/rebalance completes");
+        }
+    }
+
+    /**
+     * Starts a sweep, or schedules another one if a sweep is already running. Returns false in the
+     * latter case.
+     */
+    public synchronized boolean start() {
+        if (running) {
+            rerun = true;
+            return false;
+        }
+        running = true;
+        shards.beginRebalance();
+        sweepExecutor.submit(this::run);
+        return true;
+    }
+
+    public ShardingStatus getStatus() {
+        ShardingStatus status = new ShardingStatus();
+        List<ShardingStatus.ShardInfo> infos = new ArrayList<>();
+        for (StorageShard shard : shards.getShards()) {
+            infos.add(new ShardingStatus.ShardInfo(shard.getName(), shard.getEndpoint(), shard.getBucket(), shard.getWeight()));
+        }
+        status.setShards(infos);
+        status.setRebalancing(shards.isRebalancing());
+        status.setRebalanceState(state);
+        status.setScannedObjects(scanned.get());
+        status.setMovedObjects(moved.get());
+        status.setMovedBytes(movedBytes.get());
+        status.setFailedObjects(failed.get());
+        status.setStartedAt(startedAt);
+        status.setFinishedAt(finishedAt);
+        status.setError(error);
+        return status;
+    }
+
+    private void run() {
+        while (true) {
+            state = ShardingStatus.RebalanceState.RUNNING;
+            startedAt = LocalDateTime.now();
+            finishedAt = null;
+            error = null;
+            scanned.set(0);
+            moved.set(0);
+            movedBytes.set(0);
+            failed.set(0);
+
+            try {
+                for (StorageShard shard : shards.getShards()) {
+                    sweep(shard);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = "Interrupted";
+            } catch (Exception e) {
+                log.error("Shard rebalance failed: {}", e.getMessage(), e);
+                error = e.getMessage();
+            }
+
+            synchronized (this) {
+                if (rerun && !Thread.currentThread().isInterrupted()) {
+                    rerun = false;
+                    continue;
+                }
+                finishedAt = LocalDateTime.now();
+                if (error == null && failed.get() == 0) {
+                    shards.finishRebalance();
+                    state = ShardingStatus.RebalanceState.COMPLETED;
+                } else {
+                    // Пошук і далі перевіряє старі місця, доки повторний запуск не завершиться успішно
+                    state = ShardingStatus.RebalanceState.FAILED;
+                    if (error == null) {
+                        error = failed.get() + " objects could not be moved, start the rebalance again to retry";
+                    }
+                }
+                running = false;
+                log.info("Shard rebalance {}: scanned {}, moved {} ({} bytes), failed {}",
+                        state, scanned.get(), moved.get(), movedBytes.get(), failed.get());
+                return;
+            }
+        }
+    }
+
+    private void sweep(StorageShard shard) throws InterruptedException {
+        ListObjectsV2Request listRequest = ListObjectsV2Request.builder()
+                .bucket(shard.getBucket())
+                .build();
+
+        for (ListObjectsV2Response page : shard.getClient().listObjectsV2Paginator(listRequest)) {
+            List<Future<?>> relocations = new ArrayList<>();
+            for (S3Object object : page.contents()) {
+                scanned.incrementAndGet();
+                StorageShard owner = shards.shardFor(object.key());
+                if (owner != shard) {
+                    relocations.add(copyExecutor.submit(() -> relocate(shard, owner, object)));
+                }
+            }
+            for (Future<?> relocation : relocations) {
+                try {
+                    relocation.get();
+                } catch (ExecutionException e) {
+                    failed.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void relocate(StorageShard source, StorageShard target, S3Object object) {
+        String key = object.key();
+        try {
+            ShardTransfer.Copied copied = ShardTransfer.copyIfAbsent(source, key, target, key);
+            if (copied == null) {
+                // Власник уже має цей ключ: його версія новіша або вже скопійована, прибираємо лише стару
+                if (!exists(target, key)) {
+                    throw new IllegalStateException("'" + key + "' vanished from shard " + target + " after a conflicting write");
+                }
+                if (!deleteIfMatch(source, key, object.eTag())) {
+                    throw new IllegalStateException("'" + key + "' changed on shard " + source + " during the rebalance");
+                }
+                return;
+            }
+
+            if (!deleteIfMatch(source, key, copied.getSourceETag())) {
+                // Джерело видалили або перезаписали під час копіювання — копію не лишаємо.
+                // Умова на ETag копії не дає зачепити нове завантаження на цільовому шарді.
+                deleteIfMatch(target, key, copied.getTargetETag());
+                if (exists(source, key)) {
+                    throw new IllegalStateException("'" + key + "' changed on shard " + source + " while it was being copied");
+                }
+                return;
+            }
+            moved.incrementAndGet();
+            movedBytes.addAndGet(object.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to move '{}' from shard {} to {}: {}", key, source, target, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes {@code key} only while it still has {@code eTag}; false if it changed or is gone.
+     */
+    private static boolean deleteIfMatch(StorageShard shard, String key, String eTag) {
+        try {
+            shard.getClient().deleteObject(DeleteObjectRequest.builder()
+                    .bucket(shard.getBucket())
+                    .key(key)
+                    .overrideConfiguration(b -> b.putHeader("If-Match", eTag))
+                    .build());
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 412 || e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean exists(StorageShard shard, String key) {
+        try {
+            shard.getClient().headObject(HeadObjectRequest.builder()
+                    .bucket(shard.getBucket())
+                    .key(key)
+                    .build());
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
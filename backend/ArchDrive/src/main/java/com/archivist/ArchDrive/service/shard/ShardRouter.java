@@ -0,0 +1,151 @@
+package com.archivist.ArchDrive.service.shard;
+
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides which bucket holds an object key. Keys are placed on a {@link HashRing} by their last path
+ * segment ("uuid_name.ext") rather than the full key, so moving a file or renaming its folder keeps
+ * it on the same shard and R2 can still copy it server-side.
+ *
+ * <p>Writes always go to the owner on the current ring. While a rebalance is running an object may
+ * still sit on its old shard, so {@link #locate} probes the owner first and then the previous owner
+ * (or every shard when the previous layout is unknown).
+ *
+ * <p>The shard list comes from configuration only. A router with several shards starts unsettled:
+ * the list may have changed since the last run, so lookups check every shard until
+ * {@link ShardRebalancer} has swept them and the layout is known to match the ring.
+ */
+public class ShardRouter implements AutoCloseable {
+
+    private volatile Topology topology;
+
+    public ShardRouter(List<StorageShard> shards, int virtualNodes) {
+        Map<String, StorageShard> byName = new LinkedHashMap<>();
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (StorageShard shard : shards) {
+            byName.put(shard.getName(), shard);
+            weights.put(shard.getName(), shard.getWeight());
+        }
+        // Який шард що тримав до рестарту, невідомо — доки обхід не завершиться, шукаємо всюди
+        this.topology = new Topology(byName, new HashRing(weights, virtualNodes), null, byName.size() > 1);
+    }
+
+    /**
+     * Owner of the key on the current ring; new objects are always written here.
+     */
+    public StorageShard shardFor(String key) {
+        Topology current = topology;
+        return current.shards.get(current.ring.ownerOf(routingKey(key)));
+    }
+
+    /**
+     * Shards that may hold the key, owner first. Outside a rebalance that is just the owner.
+     */
+    public List<StorageShard> candidates(String key) {
+        Topology current = topology;
+        StorageShard owner = current.shards.get(current.ring.ownerOf(routingKey(key)));
+        if (!current.rebalancing) {
+            return Collections.singletonList(owner);
+        }
+        List<StorageShard> candidates = new ArrayList<>();
+        candidates.add(owner);
+        if (current.previousRing != null) {
+            StorageShard previous = current.shards.get(current.previousRing.ownerOf(routingKey(key)));
+            if (previous != owner) {
+                candidates.add(previous);
+            }
+        } else {
+            for (StorageShard shard : current.shards.values()) {
+                if (shard != owner) {
+                    candidates.add(shard);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Shard that currently holds the key. Costs a HEAD per probed shard, but only while the layout is
+     * unsettled; otherwise it is the owner without any request.
+     */
+    public StorageShard locate(String key) {
+        List<StorageShard> candidates = candidates(key);
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        for (StorageShard shard : candidates) {
+            try {
+                shard.getClient().headObject(HeadObjectRequest.builder()
+                        .bucket(shard.getBucket())
+                        .key(key)
+                        .build());
+                return shard;
+            } catch (S3Exception e) {
+                if (e.statusCode() != 404) {
+                    throw e;
+                }
+            }
+        }
+        // Ніде немає — нехай запит до власника поверне звичайний 404
+        return candidates.get(0);
+    }
+
+    public List<StorageShard> getShards() {
+        return new ArrayList<>(topology.shards.values());
+    }
+
+    public boolean isRebalancing() {
+        return topology.rebalancing;
+    }
+
+    /**
+     * Marks the layout as unsettled without knowing the previous ring, so lookups probe every shard.
+     */
+    public synchronized void beginRebalance() {
+        Topology current = topology;
+        if (!current.rebalancing) {
+            topology = new Topology(current.shards, current.ring, null, true);
+        }
+    }
+
+    public synchronized void finishRebalance() {
+        Topology current = topology;
+        topology = new Topology(current.shards, current.ring, null, false);
+    }
+
+    /**
+     * The last path segment, which moves and folder renames keep unchanged.
+     */
+    static String routingKey(String key) {
+        int slash = key.lastIndexOf('/', key.length() - 2);
+        return slash >= 0 && slash < key.length() - 1 ? key.substring(slash + 1) : key;
+    }
+
+    @Override
+    public void close() {
+        for (StorageShard shard : topology.shards.values()) {
+            shard.close();
+        }
+    }
+
+    private static final class Topology {
+        private final Map<String, StorageShard> shards;
+        private final HashRing ring;
+        private final HashRing previousRing; // null — попереднє розміщення невідоме
+        private final boolean rebalancing;
+
+        Topology(Map<String, StorageShard> shards, HashRing ring, HashRing previousRing, boolean rebalancing) {
+            this.shards = shards;
+            this.ring = ring;
+            this.previousRing = previousRing;
+            this.rebalancing = rebalancing;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.archivist.ArchDrive.service.shard;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copies an object between two shards. CopyObject only works inside one bucket (and one account),
+ * so the bytes are streamed through the JVM: small objects as a single PUT, larger ones as a
+ * multipart upload. Parts are buffered in memory so the SDK can retry them; content type and user
+ * metadata (codec, checksum, detected type) travel with the object.
+ *
+ * <p>{@link #copyIfAbsent} writes with {@code If-None-Match: *}, so a copy never replaces an object
+ * that already exists on the target shard.
+ */
+public final class ShardTransfer {
+
+    // Розмір частини multipart: буфер у пам'яті на одну передачу
+    static final int PART_SIZE = 16 * 1024 * 1024;
+
+    private ShardTransfer() {
+    }
+
+    public static Copied copy(StorageShard source, String sourceKey, StorageShard target, String targetKey) {
+        return copy(source, sourceKey, target, targetKey, false);
+    }
+
+    /**
+     * Same as {@link #copy}, but returns null instead of overwriting when the target key already exists.
+     */
+    public static Copied copyIfAbsent(StorageShard source, String sourceKey, StorageShard target, String targetKey) {
+        try {
+            return copy(source, sourceKey, target, targetKey, true);
+        } catch (S3Exception e) {
+            if (e.statusCode() == 412) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private static Copied copy(StorageShard source, String sourceKey, StorageShard target, String targetKey, boolean ifAbsent) {
+        try (ResponseInputStream<GetObjectResponse> in = source.getClient().getObject(GetObjectRequest.builder()
+                .bucket(source.getBucket())
+                .key(sourceKey)
+                .build())) {
+            GetObjectResponse response = in.response();
+            long size = response.contentLength();
+
+            if (size <= PART_SIZE) {
+                byte[] bytes = in.readAllBytes();
+                PutObjectResponse put = target.getClient().putObject(PutObjectRequest.builder()
+                        .bucket(target.getBucket())
+                        .key(targetKey)
+                        .contentType(response.contentType())
+                        .contentLength((long) bytes.length)
+                        .metadata(response.metadata())
+                        .overrideConfiguration(b -> {
+                            if (ifAbsent) {
+                                b.putHeader("If-None-Match", "*");
+                            }
+                        })
+                        .build(), RequestBody.fromBytes(bytes));
+                return new Copied(response.eTag(), put.eTag());
+            }
+
+            return new Copied(response.eTag(), copyMultipart(in, response, target, targetKey, ifAbsent));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to copy '" + sourceKey + "' from shard " + source + " to " + target + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String copyMultipart(InputStream in, GetObjectResponse response, StorageShard target, String targetKey,
+                                        boolean ifAbsent) throws IOException {
+        String uploadId = target.getClient().createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(target.getBucket())
+                .key(targetKey)
+                .contentType(response.contentType())
+                .metadata(response.metadata())
+                .build()).uploadId();
+
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            byte[] buffer = new byte[PART_SIZE];
+            int partNumber = 1;
+            int length;
+            while ((length = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+                UploadPartResponse partResponse = target.getClient().uploadPart(UploadPartRequest.builder()
+                        .bucket(target.getBucket())
+                        .key(targetKey)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) length)
+                        .build(), RequestBody.fromByteBuffer(ByteBuffer.wrap(buffer, 0, length)));
+                parts.add(CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(partResponse.eTag())
+                        .build());
+                partNumber++;
+            }
+
+            // Умова перевіряється при завершенні: частини не видно, доки об'єкт не зібрано
+            return target.getClient().completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(target.getBucket())
+                    .key(targetKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .overrideConfiguration(b -> {
+                        if (ifAbsent) {
+                            b.putHeader("If-None-Match", "*");
+                        }
+                    })
+                    .build()).eTag();
+        } catch (IOException | RuntimeException e) {
+            target.getClient().abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(target.getBucket())
+                    .key(targetKey)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
+        }
+    }
+
+    /**
+     * ETags of the object read from the source shard and of the copy written to the target.
+     */
+    public static final class Copied {
+        private final String sourceETag;
+        private final String targetETag;
+
+        Copied(String sourceETag, String targetETag) {
+            this.sourceETag = sourceETag;
+            this.targetETag = targetETag;
+        }
+
+        public String getSourceETag() {
+            return sourceETag;
+        }
+
+        public String getTargetETag() {
+            return targetETag;
+        }
+    }
+}
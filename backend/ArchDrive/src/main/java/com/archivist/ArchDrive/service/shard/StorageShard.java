@@ -0,0 +1,127 @@
+package com.archivist.ArchDrive.service.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * One bucket behind the sharding layer together with the client (and therefore the HTTP
+ * connection pool) that talks to it. The client is built on first use: creating it loads most of
+ * the AWS SDK and the Apache HTTP stack, which is better done off the startup path (see
+ * {@link #warmUp}).
+ */
+public class StorageShard implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageShard.class);
+
+    private final String name;
+    private final String endpoint;
+    private final String bucket;
+    private final int weight;
+    private final String publicUrlBase;
+    private final String accountId;
+    private final Supplier<S3Client> clientFactory;
+    private volatile S3Client client;
+
+    public StorageShard(String name, String endpoint, String bucket, int weight, String publicUrlBase, String accountId,
+                        Supplier<S3Client> clientFactory) {
+        this.name = name;
+        this.endpoint = endpoint;
+        this.bucket = bucket;
+        this.weight = weight;
+        this.publicUrlBase = publicUrlBase;
+        this.accountId = accountId;
+        this.clientFactory = clientFactory;
+    }
+
+    public String publicUrl(String key) {
+        if (publicUrlBase != null && !publicUrlBase.isEmpty()) {
+            return publicUrlBase.endsWith("/") ? publicUrlBase + key : publicUrlBase + "/" + key;
+        }
+        // Default R2 URL (requires public bucket access or custom domain)
+        return String.format("https://%s.r2.cloudflarestorage.com/%s/%s", accountId, bucket, key);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public S3Client getClient() {
+        S3Client current = client;
+        if (current == null) {
+            synchronized (this) {
+                current = client;
+                if (current == null) {
+                    current = clientFactory.get();
+                    client = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public boolean isClientReady() {
+        return client != null;
+    }
+
+    /**
+     * Builds the client and opens {@code connections} pooled connections with concurrent HeadBucket
+     * calls, so the first user request skips class loading, DNS and the TLS handshake. Failures are
+     * only logged: a rejected HeadBucket has still warmed the connection.
+     */
+    public void warmUp(int connections) {
+        S3Client s3Client = getClient();
+        // Окремі потоки, а не спільний ForkJoinPool: у малому контейнері він може мати один потік
+        ExecutorService probes = Executors.newFixedThreadPool(Math.max(1, connections));
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, connections); i++) {
+                results.add(probes.submit(() -> s3Client.headBucket(HeadBucketRequest.builder().bucket(bucket).build())));
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    log.debug("Warm-up request to shard {} failed: {}", this, e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            probes.shutdownNow();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + bucket + ")";
+    }
+}
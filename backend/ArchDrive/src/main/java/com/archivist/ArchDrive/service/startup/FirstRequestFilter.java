@@ -0,0 +1,41 @@
+package com.archivist.ArchDrive.service.startup;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Times the first request the instance serves. After that it is skipped by a single flag check.
+ */
+public class FirstRequestFilter extends OncePerRequestFilter {
+
+    private final StartupMetrics metrics;
+
+    public FirstRequestFilter(StartupMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !metrics.isAwaitingFirstRequest();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!metrics.claimFirstRequest()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long arrived = metrics.sinceJvmStart();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            metrics.recordFirstRequest(request.getMethod() + " " + request.getRequestURI(), arrived, metrics.sinceJvmStart() - arrived);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.archivist.ArchDrive.service.startup;
+
+import com.archivist.ArchDrive.service.shard.ShardRouter;
+import com.archivist.ArchDrive.service.shard.StorageShard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the S3 clients and opens a few pooled connections on a background thread as soon as the
+ * context is up, in parallel with the rest of startup and the wait for the first request.
+ */
+@Component
+public class S3Prewarmer {
+
+    @Autowired
+    private ShardRouter shards;
+
+    @Autowired
+    private StartupMetrics startupMetrics;
+
+    @Value("${archdrive.startup.prewarm-connections:4}")
+    private int prewarmConnections;
+
+    @EventListener(ApplicationStartedEvent.class)
+    void prewarm() {
+        if (prewarmConnections <= 0) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            for (StorageShard shard : shards.getShards()) {
+                long started = System.currentTimeMillis();
+                shard.warmUp(prewarmConnections);
+                startupMetrics.recordWarmup(shard.getName(), System.currentTimeMillis() - started);
+            }
+        }, "s3-prewarm");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
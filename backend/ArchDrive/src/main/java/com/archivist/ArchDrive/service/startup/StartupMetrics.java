@@ -0,0 +1,96 @@
+package com.archivist.ArchDrive.service.startup;
+
+import com.archivist.ArchDrive.model.StartupReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cold-start numbers for autoscaling: time from JVM start to ready, time to the first request and
+ * how long the S3 clients took to warm up. Everything is measured from the JVM start time, so the
+ * JVM's own startup (and the effect of a CDS archive) is included. The values are logged once and
+ * served by GET /api/admin/startup.
+ */
+@Component
+public class StartupMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupMetrics.class);
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final boolean cdsArchive = ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+            .anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile"));
+
+    private volatile long readyMillis = -1;
+    private volatile long springStartupMillis = -1;
+    private volatile long classesLoadedAtReady;
+
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+    private volatile String firstRequest;
+    private volatile long firstRequestMillis = -1;
+    private volatile long firstRequestLatencyMillis = -1;
+
+    private final Map<String, Long> s3WarmupMillis = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onReady(ApplicationReadyEvent event) {
+        readyMillis = sinceJvmStart();
+        springStartupMillis = event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1;
+        classesLoadedAtReady = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+        log.info("Startup: ready {} ms after JVM start (Spring {} ms, {} classes loaded, AOT {}, CDS archive {})",
+                readyMillis, springStartupMillis, classesLoadedAtReady, AotDetector.useGeneratedArtifacts(), cdsArchive);
+    }
+
+    public boolean isAwaitingFirstRequest() {
+        return !firstRequestSeen.get();
+    }
+
+    /**
+     * True for exactly one caller, the request that arrived first.
+     */
+    boolean claimFirstRequest() {
+        return firstRequestSeen.compareAndSet(false, true);
+    }
+
+    void recordFirstRequest(String request, long arrivedMillis, long latencyMillis) {
+        firstRequest = request;
+        firstRequestMillis = arrivedMillis;
+        firstRequestLatencyMillis = latencyMillis;
+        log.info("Startup: first request {} arrived {} ms after JVM start, answered in {} ms", request, arrivedMillis, latencyMillis);
+    }
+
+    void recordWarmup(String shard, long millis) {
+        s3WarmupMillis.put(shard, millis);
+        log.info("Startup: S3 client for shard {} warmed up in {} ms", shard, millis);
+    }
+
+    long sinceJvmStart() {
+        return System.currentTimeMillis() - jvmStartMillis;
+    }
+
+    public StartupReport getReport() {
+        StartupReport report = new StartupReport();
+        report.setJvmStartedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(jvmStartMillis), ZoneId.systemDefault()));
+        report.setReadyMillis(readyMillis);
+        report.setSpringStartupMillis(springStartupMillis);
+        report.setClassesLoadedAtReady(classesLoadedAtReady);
+        report.setAotEnabled(AotDetector.useGeneratedArtifacts());
+        report.setCdsArchive(cdsArchive);
+        report.setFirstRequest(firstRequest);
+        report.setFirstRequestMillis(firstRequestMillis);
+        report.setFirstRequestLatencyMillis(firstRequestLatencyMillis);
+        report.setS3WarmupMillis(new LinkedHashMap<>(s3WarmupMillis));
+        return report;
+    }
+}
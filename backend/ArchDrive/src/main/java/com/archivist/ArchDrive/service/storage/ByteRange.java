@@ -0,0 +1,85 @@
+package com.archivist.ArchDrive.service.storage;
+
+/**
+ * A single HTTP byte range ("bytes=a-b", "bytes=a-" or "bytes=-n"). Multi-range requests are not
+ * supported and parse to null, which callers treat as a request for the whole object.
+ */
+public final class ByteRange {
+
+    private final long first; // -1 for a suffix range
+    private final long last; // -1 when open-ended; suffix length for a suffix range
+
+    private ByteRange(long first, long last) {
+        this.first = first;
+        this.last = last;
+    }
+
+    public static ByteRange parse(String header) {
+        if (header == null || !header.trim().startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.trim().substring("bytes=".length()).trim();
+        if (spec.contains(",")) {
+            return null;
+        }
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String start = spec.substring(0, dash).trim();
+            String end = spec.substring(dash + 1).trim();
+            if (start.isEmpty()) {
+                long suffix = Long.parseLong(end);
+                return suffix > 0 ? new ByteRange(-1, suffix) : null;
+            }
+            long first = Long.parseLong(start);
+            long last = end.isEmpty() ? -1 : Long.parseLong(end);
+            if (first < 0 || (last >= 0 && last < first)) {
+                return null;
+            }
+            return new ByteRange(first, last);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean isSuffix() {
+        return first < 0;
+    }
+
+    /**
+     * First byte to read when the object length is not known yet; 0 for suffix ranges.
+     */
+    long knownStart() {
+        return isSuffix() ? 0 : first;
+    }
+
+    /**
+     * Last byte requested when it is known without the object length, otherwise -1.
+     */
+    long knownEnd() {
+        return isSuffix() ? -1 : last;
+    }
+
+    @Override
+    public String toString() {
+        if (isSuffix()) {
+            return "bytes=-" + last;
+        }
+        return "bytes=" + first + "-" + (last >= 0 ? last : "");
+    }
+
+    /**
+     * Resolves the range against the object length: {start, end} inclusive, or null if unsatisfiable.
+     */
+    long[] resolve(long length) {
+        if (isSuffix()) {
+            return length == 0 ? null : new long[]{Math.max(0, length - last), length - 1};
+        }
+        if (first >= length) {
+            return null;
+        }
+        return new long[]{first, last < 0 ? length - 1 : Math.min(last, length - 1)};
+    }
+}
@@ -0,0 +1,145 @@
+package com.archivist.ArchDrive.service.storage;
+
+import com.archivist.ArchDrive.model.ChangeFeed;
+import com.archivist.ArchDrive.model.FileChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Append-only log of every write made through the storage service. Clients keep the token of the
+ * last change they saw and ask only for what happened after it, instead of re-listing the bucket.
+ *
+ * <p>The journal lives in memory as a ring of the most recent changes. Tokens carry the epoch of
+ * the process that issued them, so a token from before a restart, or one that fell off the ring,
+ * is answered with {@code resetRequired} and the client re-lists once. {@link #reset} does the same
+ * on purpose when this node may have missed changes made elsewhere.
+ */
+@Component
+public class ChangeJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeJournal.class);
+
+    private final String startEpoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private volatile String epoch = startEpoch;
+
+    private int resets;
+
+    private final FileChange[] ring;
+
+    private long lastSequence; // Sequence of the newest change, 0 when empty
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final List<Runnable> resetListeners = new CopyOnWriteArrayList<>();
+
+    // Слухачі отримують зміни строго в порядку номерів; читачі since() цей замок не чекають
+    private final Object dispatchLock = new Object();
+
+    public ChangeJournal(@Value("${archdrive.changes.capacity:100000}") int capacity) {
+        this.ring = new FileChange[capacity];
+    }
+
+    /**
+     * Appends a change and hands it to the listeners. Concurrent calls are dispatched one at a time
+     * in sequence order, so listeners must not block.
+     */
+    public void record(FileChange change) {
+        synchronized (dispatchLock) {
+            synchronized (this) {
+                change.setSequence(++lastSequence);
+                ring[(int) (lastSequence % ring.length)] = change;
+            }
+            for (ChangeListener listener : listeners) {
+                try {
+                    listener.onChange(change);
+                } catch (Exception e) {
+                    log.warn("Change listener failed for {} '{}': {}", change.getType(), change.getKey(), e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Invalidates every token handed out so far, so clients re-list, and tells the reset listeners to
+     * drop whatever they derived from the journal. Sequences keep counting.
+     */
+    public void reset(String reason) {
+        synchronized (dispatchLock) {
+            synchronized (this) {
+                epoch = startEpoch + "-" + (++resets);
+            }
+            log.warn("Change journal reset: {}", reason);
+            for (Runnable listener : resetListeners) {
+                try {
+                    listener.run();
+                } catch (Exception e) {
+                    log.warn("Reset listener failed: {}", e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    public ChangeFeed since(String token, int limit) {
+        synchronized (this) {
+            long since = parseToken(token);
+            long oldest = Math.max(1, lastSequence - ring.length + 1);
+            if (since < 0 || since > lastSequence || since + 1 < oldest) {
+                return new ChangeFeed(Collections.emptyList(), currentToken(), true, false);
+            }
+
+            long until = Math.min(lastSequence, since + Math.max(1, limit));
+            List<FileChange> changes = new ArrayList<>((int) (until - since));
+            for (long sequence = since + 1; sequence <= until; sequence++) {
+                changes.add(ring[(int) (sequence % ring.length)]);
+            }
+            return new ChangeFeed(changes, tokenFor(until), false, until < lastSequence);
+        }
+    }
+
+    public synchronized String currentToken() {
+        return tokenFor(lastSequence);
+    }
+
+    public String tokenFor(long sequence) {
+        return epoch + ":" + sequence;
+    }
+
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void addResetListener(Runnable listener) {
+        resetListeners.add(listener);
+    }
+
+    public void removeResetListener(Runnable listener) {
+        resetListeners.remove(listener);
+    }
+
+    private long parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return -1;
+        }
+        int separator = token.indexOf(':');
+        if (separator < 0 || !token.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
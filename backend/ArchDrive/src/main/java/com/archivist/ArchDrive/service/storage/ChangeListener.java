@@ -0,0 +1,8 @@
+package com.archivist.ArchDrive.service.storage;
+
+import com.archivist.ArchDrive.model.FileChange;
+
+@FunctionalInterface
+public interface ChangeListener {
+    void onChange(FileChange change);
+}
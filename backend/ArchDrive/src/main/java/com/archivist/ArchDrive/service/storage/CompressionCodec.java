@@ -0,0 +1,121 @@
+package com.archivist.ArchDrive.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codecs used for objects compressed at rest. The name is what gets recorded in object metadata and
+ * doubles as the HTTP content-coding token, so compressed bytes can be handed to clients as they are.
+ */
+public enum CompressionCodec {
+
+    GZIP("gzip") {
+        @Override
+        public OutputStream compress(OutputStream target, int level) throws IOException {
+            return new GZIPOutputStream(target, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+
+        @Override
+        public InputStream decompress(InputStream source) throws IOException {
+            return new GZIPInputStream(source, BUFFER_SIZE);
+        }
+    },
+
+    // HTTP "deflate" is the zlib format, which is what Deflater produces by default
+    DEFLATE("deflate") {
+        @Override
+        public OutputStream compress(OutputStream target, int level) {
+            Deflater deflater = new Deflater(level);
+            return new DeflaterOutputStream(target, deflater, BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deflater.end();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public InputStream decompress(InputStream source) {
+            return new InflaterInputStream(source);
+        }
+    };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String token;
+
+    CompressionCodec(String token) {
+        this.token = token;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public abstract OutputStream compress(OutputStream target, int level) throws IOException;
+
+    public abstract InputStream decompress(InputStream source) throws IOException;
+
+    /**
+     * Checks whether an Accept-Encoding header accepts this codec with a non-zero quality. An entry
+     * naming the codec wins over "*", so "*, gzip;q=0" refuses gzip.
+     */
+    public boolean isAcceptedBy(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return false;
+        }
+        Double wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.equals(token)) {
+                return quality(parts) > 0;
+            }
+            if (coding.equals("*")) {
+                wildcard = quality(parts);
+            }
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String[] parameter = parts[i].split("=", 2);
+            if (parameter.length == 2 && parameter[0].trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parameter[1].trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    public static CompressionCodec fromToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        for (CompressionCodec codec : values()) {
+            if (codec.token.equalsIgnoreCase(token.trim())) {
+                return codec;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,246 @@
+package com.archivist.ArchDrive.service.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Works out what an upload really is from its first bytes: well-known binary signatures first, then
+ * a text check with charset detection (BOM, valid UTF-8, or a single-byte Cyrillic/Latin guess).
+ * The file name is only used to pick a more specific text type (JSON, CSV, source code) once the
+ * content is known to be text, or a subtype for generic containers such as ZIP.
+ */
+public final class ContentSniffer {
+
+    /**
+     * How many leading bytes are inspected.
+     */
+    public static final int HEAD_SIZE = 4096;
+
+    private ContentSniffer() {
+    }
+
+    public static final class Result {
+        private final String contentType; // Повний Content-Type, для тексту з charset
+        private final String charset; // null для двійкових файлів
+        private final boolean text;
+
+        Result(String contentType, String charset, boolean text) {
+            this.contentType = contentType;
+            this.charset = charset;
+            this.text = text;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getCharset() {
+            return charset;
+        }
+
+        public boolean isText() {
+            return text;
+        }
+    }
+
+    public static Result sniff(byte[] head, int length, String fileName) {
+        String byExtension = ContentTypes.fromFileName(fileName != null ? fileName : "");
+        if (length == 0) {
+            return new Result(byExtension, null, ContentTypes.isCompressible(byExtension));
+        }
+
+        String binary = binaryType(head, length, byExtension);
+        if (binary != null) {
+            return new Result(binary, null, false);
+        }
+
+        String charset = detectCharset(head, length);
+        if (charset == null) {
+            // Невідомий двійковий формат: розширенню довіряємо, лише якщо воно не текстове
+            String type = ContentTypes.isCompressible(byExtension) ? ContentTypes.DEFAULT : byExtension;
+            return new Result(type, null, false);
+        }
+
+        String mimeType = textType(head, length, byExtension);
+        return new Result(mimeType + ";charset=" + charset, charset, true);
+    }
+
+    private static String binaryType(byte[] b, int n, String byExtension) {
+        if (startsWith(b, n, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(b, n, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(b, n, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(b, n, 0, 'R', 'I', 'F', 'F')) {
+            if (startsWith(b, n, 8, 'W', 'E', 'B', 'P')) {
+                return "image/webp";
+            }
+            if (startsWith(b, n, 8, 'W', 'A', 'V', 'E')) {
+                return "audio/wav";
+            }
+            if (startsWith(b, n, 8, 'A', 'V', 'I', ' ')) {
+                return "video/x-msvideo";
+            }
+        }
+        if (startsWith(b, n, 0, 'B', 'M') && n > 14 && b[6] == 0 && b[7] == 0 && b[8] == 0 && b[9] == 0) {
+            return "image/bmp";
+        }
+        if (startsWith(b, n, 0, 0x00, 0x00, 0x01, 0x00)) {
+            return "image/x-icon";
+        }
+        if (startsWith(b, n, 0, '%', 'P', 'D', 'F', '-')) {
+            return "application/pdf";
+        }
+        if (startsWith(b, n, 4, 'f', 't', 'y', 'p')) {
+            return startsWith(b, n, 8, 'q', 't', ' ', ' ') ? "video/quicktime" : "video/mp4";
+        }
+        if (startsWith(b, n, 0, 0x1A, 0x45, 0xDF, 0xA3)) {
+            return "video/webm";
+        }
+        if (startsWith(b, n, 0, 0x30, 0x26, 0xB2, 0x75, 0x8E, 0x66, 0xCF, 0x11)) {
+            return "video/x-ms-wmv";
+        }
+        if (startsWith(b, n, 0, 'I', 'D', '3')) {
+            return "audio/mpeg";
+        }
+        // Синхрослово MPEG/ADTS — лише два байти, тож без розширення легко сплутати з текстом у windows-1251
+        if (n > 1 && (b[0] & 0xFF) == 0xFF && (byExtension.equals("audio/mpeg") || byExtension.equals("audio/aac"))) {
+            return byExtension;
+        }
+        if (startsWith(b, n, 0, 'O', 'g', 'g', 'S')) {
+            return "audio/ogg";
+        }
+        if (startsWith(b, n, 0, 'f', 'L', 'a', 'C')) {
+            return "audio/flac";
+        }
+        if (startsWith(b, n, 0, 'P', 'K', 0x03, 0x04) || startsWith(b, n, 0, 'P', 'K', 0x05, 0x06)) {
+            // docx, xlsx, jar тощо — теж ZIP; конкретніший тип беремо з розширення
+            return byExtension.equals(ContentTypes.DEFAULT) ? "application/zip" : byExtension;
+        }
+        if (startsWith(b, n, 0, 0x1F, 0x8B)) {
+            return "application/gzip";
+        }
+        if (startsWith(b, n, 0, '7', 'z', 0xBC, 0xAF, 0x27, 0x1C)) {
+            return "application/x-7z-compressed";
+        }
+        if (startsWith(b, n, 0, 'R', 'a', 'r', '!', 0x1A, 0x07)) {
+            return "application/vnd.rar";
+        }
+        if (startsWith(b, n, 0, 0x7F, 'E', 'L', 'F')) {
+            return "application/x-executable";
+        }
+        return null;
+    }
+
+    /**
+     * Returns the charset if the bytes look like text, or null if they look binary.
+     */
+    private static String detectCharset(byte[] b, int n) {
+        if (startsWith(b, n, 0, 0xEF, 0xBB, 0xBF)) {
+            return "UTF-8";
+        }
+        if (startsWith(b, n, 0, 0xFF, 0xFE)) {
+            return "UTF-16LE";
+        }
+        if (startsWith(b, n, 0, 0xFE, 0xFF)) {
+            return "UTF-16BE";
+        }
+
+        int control = 0;
+        int high = 0;
+        int cyrillicRange = 0;
+        for (int i = 0; i < n; i++) {
+            int c = b[i] & 0xFF;
+            if (c == 0) {
+                return null;
+            }
+            if (c < 0x20 && c != '\t' && c != '\n' && c != '\r' && c != '\f' && c != 0x1B) {
+                control++;
+            } else if (c >= 0x80) {
+                high++;
+                if (c >= 0xC0) {
+                    cyrillicRange++;
+                }
+            }
+        }
+        if (control * 100 > n) {
+            return null;
+        }
+        if (high == 0 || isUtf8(b, n)) {
+            return "UTF-8";
+        }
+        // Не UTF-8: у windows-1251 кирилиця займає 0xC0-0xFF
+        return cyrillicRange * 10 >= high * 6 ? "windows-1251" : "ISO-8859-1";
+    }
+
+    private static boolean isUtf8(byte[] b, int n) {
+        int i = 0;
+        while (i < n) {
+            int c = b[i] & 0xFF;
+            int continuation;
+            if (c < 0x80) {
+                i++;
+                continue;
+            } else if (c >= 0xC2 && c <= 0xDF) {
+                continuation = 1;
+            } else if (c >= 0xE0 && c <= 0xEF) {
+                continuation = 2;
+            } else if (c >= 0xF0 && c <= 0xF4) {
+                continuation = 3;
+            } else {
+                return false;
+            }
+            if (i + continuation >= n) {
+                // Послідовність обрізана межею буфера — вважаємо її коректною
+                return true;
+            }
+            for (int k = 1; k <= continuation; k++) {
+                if ((b[i + k] & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+            i += continuation + 1;
+        }
+        return true;
+    }
+
+    private static String textType(byte[] b, int n, String byExtension) {
+        if (ContentTypes.isCompressible(byExtension)) {
+            int parameters = byExtension.indexOf(';');
+            return parameters >= 0 ? byExtension.substring(0, parameters) : byExtension;
+        }
+        String start = new String(b, 0, Math.min(n, 256), StandardCharsets.ISO_8859_1).trim().toLowerCase(Locale.ROOT);
+        if (start.startsWith("ï»¿")) {
+            start = start.substring(3);
+        }
+        if (start.startsWith("<svg") || (start.startsWith("<?xml") && start.contains("<svg"))) {
+            return "image/svg+xml";
+        }
+        if (start.startsWith("<!doctype html") || start.startsWith("<html")) {
+            return "text/html";
+        }
+        if (start.startsWith("<?xml")) {
+            return "application/xml";
+        }
+        if (start.startsWith("{") || start.startsWith("[")) {
+            return "application/json";
+        }
+        return "text/plain";
+    }
+
+    private static boolean startsWith(byte[] b, int n, int offset, int... signature) {
+        if (n < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((b[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,140 @@
+package com.archivist.ArchDrive.service.storage;
+
+/**
+ * Maps stored file names to the Content-Type used when previewing them, and tells which of those
+ * types are worth compressing at rest.
+ */
+public final class ContentTypes {
+
+    public static final String DEFAULT = "application/octet-stream";
+
+    private ContentTypes() {
+    }
+
+    public static String fromFileName(String fileName) {
+        String extension = "";
+        if (fileName.contains(".")) {
+            extension = fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
+        }
+
+        switch (extension) {
+            // Images
+            case "jpg":
+            case "jpeg":
+                return "image/jpeg";
+            case "png":
+                return "image/png";
+            case "gif":
+                return "image/gif";
+            case "webp":
+                return "image/webp";
+            case "svg":
+                return "image/svg+xml";
+            case "bmp":
+                return "image/bmp";
+            case "ico":
+                return "image/x-icon";
+
+            // Text files
+            case "txt":
+            case "log":
+                return "text/plain;charset=UTF-8";
+            case "csv":
+                return "text/csv;charset=UTF-8";
+            case "md":
+                return "text/markdown;charset=UTF-8";
+            case "json":
+                return "application/json;charset=UTF-8";
+            case "xml":
+                return "application/xml;charset=UTF-8";
+            case "html":
+            case "htm":
+                return "text/html;charset=UTF-8";
+            case "css":
+                return "text/css;charset=UTF-8";
+            case "js":
+                return "application/javascript;charset=UTF-8";
+            case "ts":
+                return "application/typescript;charset=UTF-8";
+            case "java":
+                return "text/x-java-source;charset=UTF-8";
+            case "py":
+                return "text/x-python;charset=UTF-8";
+            case "sql":
+                return "application/sql;charset=UTF-8";
+            case "yaml":
+            case "yml":
+                return "application/x-yaml;charset=UTF-8";
+
+            // Documents
+            case "pdf":
+                return "application/pdf";
+
+            // Video
+            case "mp4":
+                return "video/mp4";
+            case "webm":
+                return "video/webm";
+            case "avi":
+                return "video/x-msvideo";
+            case "mov":
+                return "video/quicktime";
+            case "wmv":
+                return "video/x-ms-wmv";
+
+            // Audio
+            case "mp3":
+                return "audio/mpeg";
+            case "wav":
+                return "audio/wav";
+            case "ogg":
+                return "audio/ogg";
+            case "aac":
+                return "audio/aac";
+            case "flac":
+                return "audio/flac";
+
+            default:
+                return DEFAULT;
+        }
+    }
+
+    /**
+     * Returns the charset parameter of a Content-Type, or null if it has none.
+     */
+    public static String charsetOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                return trimmed.substring(8).replace("\"", "").trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Text-like types (source, markup, JSON, logs, SQL dumps) compress well; media and archives are
+     * already compressed and are left as they are.
+     */
+    public static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        int parameters = type.indexOf(';');
+        if (parameters >= 0) {
+            type = type.substring(0, parameters).trim();
+        }
+        return type.startsWith("text/")
+                || type.equals("application/json")
+                || type.equals("application/xml")
+                || type.equals("application/javascript")
+                || type.equals("application/typescript")
+                || type.equals("application/sql")
+                || type.equals("application/x-yaml")
+                || type.equals("image/svg+xml");
+    }
+}
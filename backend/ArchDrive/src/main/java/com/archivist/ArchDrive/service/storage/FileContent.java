@@ -0,0 +1,98 @@
+package com.archivist.ArchDrive.service.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.util.Map;
+
+/**
+ * An opened stored object together with the response headers the controller needs to serve it.
+ */
+public class FileContent {
+    private final Resource resource;
+    private final String contentType;
+    private final long contentLength; // -1 when unknown (e.g. decompressed on the fly)
+    private final String contentEncoding; // Set when stored bytes are passed through still encoded
+    private final Map<String, String> metadata;
+    private final boolean partial; // Only the requested byte range is returned
+    private final long rangeStart;
+    private final long rangeEnd;
+    private final long totalLength; // Stored object size
+    private final boolean rangeSupported; // False when the content is decompressed on the fly
+
+    public FileContent(Resource resource, String contentType, long contentLength, String contentEncoding, Map<String, String> metadata,
+                       boolean partial, long rangeStart, long rangeEnd, long totalLength, boolean rangeSupported) {
+        this.resource = resource;
+        this.contentType = contentType;
+        this.contentLength = contentLength;
+        this.contentEncoding = contentEncoding;
+        this.metadata = metadata;
+        this.partial = partial;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.totalLength = totalLength;
+        this.rangeSupported = rangeSupported;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public Map<String, String> getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * The stored Content-Type if it was detected from the content on upload, otherwise null (older
+     * objects carry whatever the browser sent).
+     */
+    public String getDetectedContentType() {
+        return metadata != null && metadata.containsKey(R2StorageService.METADATA_CONTENT_DETECTED) ? contentType : null;
+    }
+
+    /**
+     * Size of the content before it was compressed at rest, or -1 for objects stored as they are.
+     */
+    public long getOriginalSize() {
+        String value = metadata != null ? metadata.get(R2StorageService.METADATA_ORIGINAL_SIZE) : null;
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+
+    public long getRangeStart() {
+        return rangeStart;
+    }
+
+    public long getRangeEnd() {
+        return rangeEnd;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    public boolean isRangeSupported() {
+        return rangeSupported;
+    }
+}
@@ -1,22 +1,44 @@
 package com.archivist.ArchDrive.service.storage;
 
+import com.archivist.ArchDrive.model.BatchResult;
+import com.archivist.ArchDrive.model.FileInfo;
 import com.archivist.ArchDrive.model.Folder;
+import com.archivist.ArchDrive.model.MoveJob;
 import com.archivist.ArchDrive.model.StoredFile;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface FileStorageService {
     StoredFile uploadFile(MultipartFile file);
     StoredFile uploadFile(MultipartFile file, String folder);
     Resource downloadFile(String fileName);
+    FileContent openFile(String fileName, String acceptEncoding);
+    FileContent openFile(String fileName, String acceptEncoding, String range);
+
+    /**
+     * Opens the bytes as stored, still encoded if the file was compressed, with plain sequential
+     * GETs. Meant for background readers that must not fan out into parallel range requests.
+     */
+    FileContent openStored(String fileName, String range);
+    FileInfo getFileInfo(String fileName);
     List<StoredFile> listFiles();
     List<StoredFile> listFiles(String folder);
+    void walkFiles(String prefix, Consumer<StoredFile> consumer);
+    String getPublicUrl(String fileName);
     List<Folder> listFolders();
     List<Folder> listFolders(String parentFolder);
     Folder createFolder(String folderName);
     void deleteFile(String fileName);
     void deleteFolder(String folderName);
+    List<BatchResult> deleteFiles(List<String> fileNames);
+    StoredFile moveFile(String fileName, String targetFolder);
+    List<BatchResult> moveFiles(List<String> fileNames, String targetFolder);
+    StoredFile copyFile(String fileName, String targetFolder);
+    MoveJob renameFolder(String folderName, String newFolderName);
+    MoveJob getMoveJob(String jobId);
+    MoveJob resumeMoveJob(String jobId);
 }
 
@@ -0,0 +1,31 @@
+package com.archivist.ArchDrive.service.storage;
+
+import java.io.IOException;
+
+/**
+ * Thrown at the end of a verified read when the content does not match the digest recorded at upload.
+ */
+public class IntegrityException extends IOException {
+    private final String key;
+    private final String expectedSha256;
+    private final String actualSha256;
+
+    public IntegrityException(String key, String expectedSha256, String actualSha256) {
+        super("Integrity check failed for '" + key + "': expected sha256 " + expectedSha256 + ", got " + actualSha256);
+        this.key = key;
+        this.expectedSha256 = expectedSha256;
+        this.actualSha256 = actualSha256;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getExpectedSha256() {
+        return expectedSha256;
+    }
+
+    public String getActualSha256() {
+        return actualSha256;
+    }
+}
@@ -0,0 +1,70 @@
+package com.archivist.ArchDrive.service.storage;
+
+import com.archivist.ArchDrive.model.IntegrityReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+
+/**
+ * Collects integrity failures found by sampled download checks and by the scrubber.
+ */
+@Component
+public class IntegrityMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(IntegrityMonitor.class);
+
+    private static final int MAX_REPORTED_OBJECTS = 1000;
+
+    private final Deque<IntegrityReport.CorruptObject> corruptObjects = new ArrayDeque<>();
+
+    private final IntegrityReport scrubState = new IntegrityReport();
+
+    public synchronized void recordCorruption(IntegrityException mismatch, String detectedBy) {
+        log.error("CORRUPT OBJECT detected by {}: {}", detectedBy, mismatch.getMessage());
+        corruptObjects.removeIf(existing -> existing.getKey().equals(mismatch.getKey()));
+        corruptObjects.addFirst(new IntegrityReport.CorruptObject(mismatch.getKey(), mismatch.getExpectedSha256(),
+                mismatch.getActualSha256(), detectedBy, LocalDateTime.now()));
+        while (corruptObjects.size() > MAX_REPORTED_OBJECTS) {
+            corruptObjects.removeLast();
+        }
+    }
+
+    synchronized void scrubStarted() {
+        scrubState.setScrubRunning(true);
+        scrubState.setLastScrubStartedAt(LocalDateTime.now());
+        scrubState.setObjectsChecked(0);
+        scrubState.setBytesChecked(0);
+        scrubState.setObjectsSkipped(0);
+    }
+
+    synchronized void scrubChecked(long bytes) {
+        scrubState.setObjectsChecked(scrubState.getObjectsChecked() + 1);
+        scrubState.setBytesChecked(scrubState.getBytesChecked() + bytes);
+    }
+
+    synchronized void scrubSkipped() {
+        scrubState.setObjectsSkipped(scrubState.getObjectsSkipped() + 1);
+    }
+
+    synchronized void scrubFinished() {
+        scrubState.setScrubRunning(false);
+        scrubState.setLastScrubFinishedAt(LocalDateTime.now());
+    }
+
+    public synchronized IntegrityReport getReport() {
+        IntegrityReport report = new IntegrityReport();
+        report.setScrubRunning(scrubState.isScrubRunning());
+        report.setLastScrubStartedAt(scrubState.getLastScrubStartedAt());
+        report.setLastScrubFinishedAt(scrubState.getLastScrubFinishedAt());
+        report.setObjectsChecked(scrubState.getObjectsChecked());
+        report.setBytesChecked(scrubState.getBytesChecked());
+        report.setObjectsSkipped(scrubState.getObjectsSkipped());
+        report.setCorruptObjects(new ArrayList<>(corruptObjects));
+        return report;
+    }
+}
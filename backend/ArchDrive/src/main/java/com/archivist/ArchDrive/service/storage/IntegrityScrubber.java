@@ -0,0 +1,121 @@
+package com.archivist.ArchDrive.service.storage;
+
+import com.archivist.ArchDrive.model.StoredFile;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically re-reads every stored object at a capped rate and compares it against the SHA-256
+ * recorded at upload time. Findings go to {@link IntegrityMonitor}.
+ */
+@Component
+public class IntegrityScrubber {
+
+    private static final Logger log = LoggerFactory.getLogger(IntegrityScrubber.class);
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private IntegrityMonitor integrityMonitor;
+
+    @Value("${archdrive.integrity.scrub.enabled:false}")
+    private boolean enabled;
+
+    @Value("${archdrive.integrity.scrub.bytes-per-second:10485760}")
+    private long bytesPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "integrity-scrubber");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Scheduled(initialDelayString = "${archdrive.integrity.scrub.interval-ms:86400000}",
+            fixedDelayString = "${archdrive.integrity.scrub.interval-ms:86400000}")
+    void scheduledScrub() {
+        if (enabled) {
+            scrubNow();
+        }
+    }
+
+    /**
+     * Starts a scrub in the background unless one is already running.
+     */
+    public boolean scrubNow() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.submit(this::scrub);
+        return true;
+    }
+
+    private void scrub() {
+        integrityMonitor.scrubStarted();
+        log.info("Integrity scrub started ({} bytes/s)", bytesPerSecond);
+        try {
+            fileStorageService.walkFiles("", this::scrubFile);
+        } catch (Exception e) {
+            log.error("Integrity scrub aborted: {}", e.getMessage(), e);
+        } finally {
+            integrityMonitor.scrubFinished();
+            running.set(false);
+            log.info("Integrity scrub finished, {} objects checked", integrityMonitor.getReport().getObjectsChecked());
+        }
+    }
+
+    private void scrubFile(StoredFile file) {
+        try {
+            FileContent content = fileStorageService.openStored(file.getId(), null);
+            String expected = content.getMetadata().get(R2StorageService.METADATA_SHA256);
+            InputStream stream = content.getResource().getInputStream();
+
+            if (expected == null) {
+                // Об'єкт завантажено до появи хешів — не читаємо його до кінця
+                if (stream instanceof ResponseInputStream<?> response) {
+                    response.abort();
+                }
+                stream.close();
+                integrityMonitor.scrubSkipped();
+                return;
+            }
+
+            // Обмежуємо швидкість читання з R2, тобто ще до розпаковки
+            InputStream stored = new ThrottledInputStream(stream, bytesPerSecond);
+            CompressionCodec codec = CompressionCodec.fromToken(content.getContentEncoding());
+            MessageDigest digest = Digests.sha256();
+            long bytes;
+            try (InputStream in = new DigestInputStream(codec != null ? codec.decompress(stored) : stored, digest)) {
+                bytes = in.transferTo(OutputStream.nullOutputStream());
+            }
+            String actual = Digests.hex(digest);
+            if (!actual.equalsIgnoreCase(expected)) {
+                integrityMonitor.recordCorruption(new IntegrityException(file.getId(), expected, actual), "scrubber");
+            }
+            integrityMonitor.scrubChecked(bytes);
+        } catch (Exception e) {
+            log.warn("Integrity scrub could not read '{}': {}", file.getId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,29 @@
+package com.archivist.ArchDrive.service.storage;
+
+/**
+ * Helpers for the "folder/UUID_originalName" object key layout used for uploads.
+ */
+public final class ObjectKeys {
+
+    private ObjectKeys() {
+    }
+
+    /**
+     * Folder part of the key including the trailing slash, "" for root objects.
+     */
+    public static String folderOf(String key) {
+        return key.substring(0, key.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Original file name: the last path segment with the UUID prefix removed.
+     */
+    public static String originalFileName(String key) {
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        int underscoreIndex = name.indexOf('_');
+        if (underscoreIndex > 0 && underscoreIndex < name.length() - 1) {
+            return name.substring(underscoreIndex + 1);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,359 @@
+package com.archivist.ArchDrive.service.storage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.http.Abortable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads large objects as several byte-range GETs in flight at once and hands the bytes back in
+ * order. A range that takes longer than the configured latency percentile of recent ranges is
+ * requested a second time and whichever copy arrives first is used, the other being aborted, so one
+ * slow connection to R2 does not stall the whole download. Closing the stream aborts every GET
+ * still in flight.
+ *
+ * <p>Memory per download is bounded by (parallelism + 1) chunks.
+ */
+@Component
+public class ParallelDownloadEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelDownloadEngine.class);
+
+    @FunctionalInterface
+    public interface RangeFetcher {
+        InputStream fetch(long start, long end);
+    }
+
+    @Value("${archdrive.download.parallel.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archdrive.download.parallel.threshold-bytes:33554432}")
+    private long thresholdBytes;
+
+    @Value("${archdrive.download.parallel.chunk-size:8388608}")
+    private int chunkSize;
+
+    @Value("${archdrive.download.parallel.parallelism:4}")
+    private int parallelism;
+
+    @Value("${archdrive.download.parallel.pool-size:32}")
+    private int poolSize;
+
+    @Value("${archdrive.download.hedge.percentile:95}")
+    private double hedgePercentile;
+
+    @Value("${archdrive.download.hedge.min-delay-ms:200}")
+    private long hedgeMinDelayMs;
+
+    @Value("${archdrive.download.hedge.initial-delay-ms:2000}")
+    private long hedgeInitialDelayMs;
+
+    private final LatencyTracker latencies = new LatencyTracker(256);
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "r2-range-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether a read of {@code length} bytes is large enough to be split into parallel ranges.
+     */
+    public boolean shouldSplit(long length) {
+        return enabled && length > thresholdBytes && length > chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Opens [start, end] as an ordered stream. {@code firstChunk}, if given, is an already running
+     * GET for [start, firstChunkEnd] and is used as the first range.
+     */
+    public InputStream open(RangeFetcher fetcher, long start, long end, InputStream firstChunk, long firstChunkEnd) {
+        return new Reader(fetcher, start, end, firstChunk, firstChunkEnd);
+    }
+
+    private long hedgeAfterNanos() {
+        long percentile = latencies.percentile(hedgePercentile);
+        long delay = percentile > 0 ? percentile : TimeUnit.MILLISECONDS.toNanos(hedgeInitialDelayMs);
+        return Math.max(delay, TimeUnit.MILLISECONDS.toNanos(hedgeMinDelayMs));
+    }
+
+    private final class Chunk {
+        final long start;
+        final long end;
+        final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        final AtomicInteger pendingAttempts = new AtomicInteger();
+        final Set<InputStream> open = ConcurrentHashMap.newKeySet(); // GET-и, що зараз читаються
+        volatile long startedNanos; // 0 until the first attempt leaves the executor queue
+        boolean hedged;
+
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        void attempt(RangeFetcher fetcher, InputStream alreadyOpen) {
+            pendingAttempts.incrementAndGet();
+            executor.execute(() -> {
+                long attemptStarted = System.nanoTime();
+                if (startedNanos == 0) {
+                    startedNanos = attemptStarted;
+                }
+                if (result.isDone()) {
+                    pendingAttempts.decrementAndGet();
+                    abortQuietly(alreadyOpen);
+                    return;
+                }
+                int length = (int) (end - start + 1);
+                InputStream in = null;
+                boolean drained = false;
+                try {
+                    in = alreadyOpen != null ? alreadyOpen : fetcher.fetch(start, end);
+                    open.add(in);
+                    if (result.isDone()) {
+                        // Поки відкривали з'єднання, інша спроба виграла або читача закрили
+                        throw new IOException("Range " + start + "-" + end + " is no longer needed");
+                    }
+                    byte[] bytes = in.readNBytes(length);
+                    if (bytes.length != length) {
+                        throw new IOException("Short read for bytes " + start + "-" + end + ": got " + bytes.length);
+                    }
+                    drained = true;
+                    if (result.complete(bytes)) {
+                        latencies.record(System.nanoTime() - attemptStarted);
+                        // Друга спроба програла — обриваємо її, а не докачуємо
+                        abortOpen();
+                    }
+                    pendingAttempts.decrementAndGet();
+                } catch (Exception e) {
+                    if (pendingAttempts.decrementAndGet() == 0) {
+                        result.completeExceptionally(e);
+                    }
+                } finally {
+                    if (in != null) {
+                        open.remove(in);
+                        // Недочитану відповідь закриття дочитало б до кінця, тому її обриваємо
+                        if (drained) {
+                            closeQuietly(in);
+                        } else {
+                            abortQuietly(in);
+                        }
+                    }
+                }
+            });
+        }
+
+        /**
+         * Drops the range: queued attempts will not start and running ones are aborted.
+         */
+        void cancel() {
+            result.cancel(false);
+            abortOpen();
+        }
+
+        private void abortOpen() {
+            for (InputStream in : open) {
+                if (open.remove(in)) {
+                    abortQuietly(in);
+                }
+            }
+        }
+    }
+
+    private final class Reader extends InputStream {
+        private final RangeFetcher fetcher;
+        private final long end;
+        private final ArrayDeque<Chunk> inFlight = new ArrayDeque<>();
+        private long nextStart;
+        private byte[] current;
+        private int position;
+        private boolean closed;
+
+        Reader(RangeFetcher fetcher, long start, long end, InputStream firstChunk, long firstChunkEnd) {
+            this.fetcher = fetcher;
+            this.end = end;
+            this.nextStart = start;
+            if (firstChunk != null) {
+                Chunk chunk = new Chunk(start, firstChunkEnd);
+                chunk.attempt(fetcher, firstChunk);
+                inFlight.add(chunk);
+                nextStart = firstChunkEnd + 1;
+            }
+            fill();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureData()) {
+                return -1;
+            }
+            return current[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!ensureData()) {
+                return -1;
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            for (Chunk chunk : inFlight) {
+                chunk.cancel();
+            }
+            inFlight.clear();
+            current = null;
+        }
+
+        private boolean ensureData() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            while (current == null || position == current.length) {
+                Chunk head = inFlight.poll();
+                if (head == null) {
+                    return false;
+                }
+                current = await(head);
+                position = 0;
+                fill();
+            }
+            return true;
+        }
+
+        private void fill() {
+            while (inFlight.size() < parallelism && nextStart <= end) {
+                long chunkEnd = Math.min(nextStart + chunkSize - 1, end);
+                Chunk chunk = new Chunk(nextStart, chunkEnd);
+                chunk.attempt(fetcher, null);
+                inFlight.add(chunk);
+                nextStart = chunkEnd + 1;
+            }
+        }
+
+        private byte[] await(Chunk chunk) throws IOException {
+            try {
+                while (true) {
+                    if (chunk.hedged) {
+                        return chunk.result.get();
+                    }
+                    long started = chunk.startedNanos;
+                    // Поки запит стоїть у черзі пулу, дублювати його немає сенсу
+                    long waitNanos = started == 0
+                            ? TimeUnit.MILLISECONDS.toNanos(hedgeMinDelayMs)
+                            : started + hedgeAfterNanos() - System.nanoTime();
+                    try {
+                        return chunk.result.get(Math.max(0, waitNanos), TimeUnit.NANOSECONDS);
+                    } catch (TimeoutException e) {
+                        if (chunk.startedNanos != 0 && System.nanoTime() - chunk.startedNanos >= hedgeAfterNanos()) {
+                            chunk.hedged = true;
+                            log.debug("Hedging range {}-{} after {} ms", chunk.start, chunk.end,
+                                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - chunk.startedNanos));
+                            chunk.attempt(fetcher, null);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for bytes " + chunk.start + "-" + chunk.end);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to read bytes " + chunk.start + "-" + chunk.end + ": " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Sliding window of recent range latencies.
+     */
+    private static final class LatencyTracker {
+        private final long[] samples;
+        private int next;
+        private int count;
+
+        LatencyTracker(int capacity) {
+            samples = new long[capacity];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        /**
+         * Returns 0 until enough samples have been seen to make the percentile meaningful.
+         */
+        synchronized long percentile(double percentile) {
+            if (count < 20) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.max(0, Math.min(index, count - 1))];
+        }
+    }
+
+    private static void abortQuietly(InputStream stream) {
+        if (stream instanceof Abortable abortable) {
+            abortable.abort();
+        } else {
+            closeQuietly(stream);
+        }
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
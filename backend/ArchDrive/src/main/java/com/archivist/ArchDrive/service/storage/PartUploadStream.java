@@ -0,0 +1,184 @@
+package com.archivist.ArchDrive.service.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Output stream that uploads what is written to it as an object, holding at most one part in
+ * memory. Nothing is sent until the first part fills up; if the whole body fits in one part it is
+ * stored with a single PUT by {@link #complete}, otherwise it becomes a multipart upload of
+ * equal-sized parts (R2 requires every part but the last to have the same size). Each part is
+ * retried on its own, since the bytes that produced it cannot be read again.
+ */
+class PartUploadStream extends OutputStream {
+
+    private static final Logger log = LoggerFactory.getLogger(PartUploadStream.class);
+
+    private final S3Client client;
+    private final String bucket;
+    private final String key;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final Supplier<String> contentType; // Тип відомий лише після перших байтів
+    private final Map<String, String> metadata;
+
+    private final byte[] buffer;
+    private int buffered;
+    private long size;
+    private String uploadId;
+    private final List<CompletedPart> parts = new ArrayList<>();
+    private boolean closed;
+
+    PartUploadStream(S3Client client, String bucket, String key, int partSize, int maxAttempts, long retryDelayMs,
+                     Supplier<String> contentType, Map<String, String> metadata) {
+        this.client = client;
+        this.bucket = bucket;
+        this.key = key;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMs = retryDelayMs;
+        this.contentType = contentType;
+        this.metadata = metadata;
+        this.buffer = new byte[partSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (length > 0) {
+            if (buffered == buffer.length) {
+                uploadPart();
+            }
+            int copied = Math.min(length, buffer.length - buffered);
+            System.arraycopy(bytes, offset, buffer, buffered, copied);
+            buffered += copied;
+            size += copied;
+            offset += copied;
+            length -= copied;
+        }
+    }
+
+    /**
+     * Bytes written so far.
+     */
+    long size() {
+        return size;
+    }
+
+    boolean isMultipart() {
+        return uploadId != null;
+    }
+
+    /**
+     * Stores the object and returns its ETag. With a single PUT the given content type and metadata
+     * are used; a multipart upload keeps what it was created with.
+     */
+    String complete(String finalContentType, Map<String, String> finalMetadata) throws IOException {
+        if (uploadId == null) {
+            PutObjectRequest request = PutObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .contentType(finalContentType)
+                    .contentLength((long) buffered)
+                    .metadata(finalMetadata)
+                    .build();
+            byte[] body = Arrays.copyOf(buffer, buffered);
+            return withRetries("PUT", () -> client.putObject(request, RequestBody.fromBytes(body)).eTag());
+        }
+        if (buffered > 0) {
+            uploadPart();
+        }
+        return client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                .build()).eTag();
+    }
+
+    /**
+     * Drops a started multipart upload; safe to call more than once.
+     */
+    void abort() {
+        if (uploadId == null) {
+            return;
+        }
+        try {
+            client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to abort multipart upload of '{}': {}", key, e.getMessage());
+        }
+        uploadId = null;
+    }
+
+    @Override
+    public void close() {
+        // Компресор закриває потік сам; зберігає об'єкт лише complete()
+        closed = true;
+    }
+
+    private void uploadPart() throws IOException {
+        if (uploadId == null) {
+            uploadId = client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .contentType(contentType.get())
+                    .metadata(metadata)
+                    .build()).uploadId();
+        }
+        int partNumber = parts.size() + 1;
+        int length = buffered;
+        UploadPartRequest request = UploadPartRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) length)
+                .build();
+        String eTag = withRetries("part " + partNumber,
+                () -> client.uploadPart(request, RequestBody.fromByteBuffer(ByteBuffer.wrap(buffer, 0, length))).eTag());
+        parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+        buffered = 0;
+    }
+
+    private String withRetries(String what, Supplier<String> call) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    throw new IOException("Failed to upload " + what + " of '" + key + "' after " + attempt + " attempts: " + e.getMessage(), e);
+                }
+                log.warn("Upload of {} of '{}' failed (attempt {} of {}): {}", what, key, attempt, maxAttempts, e.getMessage());
+                try {
+                    Thread.sleep(retryDelayMs * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Upload interrupted", ie);
+                }
+            }
+        }
+    }
+}
@@ -1,26 +1,66 @@
 package com.archivist.ArchDrive.service.storage;
 
+import com.archivist.ArchDrive.model.BatchOperation;
+import com.archivist.ArchDrive.model.BatchResult;
+import com.archivist.ArchDrive.model.FileChange;
+import com.archivist.ArchDrive.model.FileInfo;
 import com.archivist.ArchDrive.model.Folder;
+import com.archivist.ArchDrive.model.MoveJob;
 import com.archivist.ArchDrive.model.StoredFile;
+import com.archivist.ArchDrive.service.index.FileSearchIndex;
+import com.archivist.ArchDrive.service.shard.MergedIterator;
+import com.archivist.ArchDrive.service.shard.ShardRouter;
+import com.archivist.ArchDrive.service.shard.ShardTransfer;
+import com.archivist.ArchDrive.service.shard.StorageShard;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,82 +68,90 @@ public class R2StorageService implements FileStorageService {
 
     private static final Logger log = LoggerFactory.getLogger(R2StorageService.class);
 
+    // CopyObject приймає джерело до 5GB, більші об'єкти копіюємо через UploadPartCopy
+    private static final long MAX_SINGLE_COPY_SIZE = 5L * 1024 * 1024 * 1024;
+
+    // Пауза перед повтором завантаження множиться на номер спроби
+    private static final long UPLOAD_RETRY_DELAY_MS = 10000;
+
+    // Ліміт ключів в одному DeleteObjects
+    private static final int MAX_DELETE_BATCH = 1000;
+
+    // Скільки об'єктів повертають listFiles — як одна сторінка ListObjectsV2
+    private static final int MAX_LIST_KEYS = 1000;
+
+    // Ключі метаданих об'єкта (x-amz-meta-*)
+    static final String METADATA_CODEC = "codec";
+    static final String METADATA_ORIGINAL_SIZE = "original-size";
+    static final String METADATA_SHA256 = "sha256"; // Хеш оригінального (нестиснутого) вмісту
+    static final String METADATA_CONTENT_DETECTED = "content-detected"; // Content-Type визначено за вмістом, а не клієнтом
+
+    @Autowired
+    private ShardRouter shards;
+
+    @Autowired
+    private IntegrityMonitor integrityMonitor;
+
+    @Autowired
+    private ChangeJournal changeJournal;
+
+    @Autowired
+    private ParallelDownloadEngine parallelDownloads;
+
     @Autowired
-    private S3Client s3Client;
+    @Lazy // Індекс сам наповнюється через walkFiles цього сервісу
+    private FileSearchIndex fileSearchIndex;
 
-    @Value("${cloudflare.r2.bucket}")
-    private String bucketName;
+    @Value("${archdrive.compression.enabled:false}")
+    private boolean compressionEnabled;
 
-    @Value("${cloudflare.r2.accountId}")
-    private String accountId;
+    @Value("${archdrive.compression.codec:gzip}")
+    private String compressionCodec;
 
-    @Value("${cloudflare.r2.accessKey}")
-    private String accessKey;
+    @Value("${archdrive.compression.level:6}")
+    private int compressionLevel;
 
-    @Value("${cloudflare.r2.secretKey}")
-    private String secretKey;
+    @Value("${archdrive.compression.min-size:1024}")
+    private long compressionMinSize;
 
-    @Value("${cloudflare.r2.endpoint}")
-    private String endpoint;
+    @Value("${archdrive.compression.part-size:8388608}")
+    private int compressionPartSize;
 
-    @Value("${cloudflare.r2.publicUrl:}")
-    private String publicUrlBase;
+    @Value("${archdrive.integrity.verify-sample-rate:0.05}")
+    private double verifySampleRate;
+
+    @Value("${archdrive.move.parallelism:8}")
+    private int moveParallelism;
+
+    @Value("${archdrive.move.part-size:536870912}")
+    private long copyPartSize;
+
+    private final Map<String, MoveJob> moveJobs = new ConcurrentHashMap<>();
+
+    private ExecutorService copyExecutor;
+
+    private ExecutorService moveJobExecutor;
+
+    @PostConstruct
+    void startExecutors() {
+        copyExecutor = Executors.newFixedThreadPool(moveParallelism, daemonThreads("r2-copy-"));
+        moveJobExecutor = Executors.newFixedThreadPool(2, daemonThreads("r2-move-job-"));
+    }
+
+    @PreDestroy
+    void stopExecutors() {
+        moveJobExecutor.shutdownNow();
+        copyExecutor.shutdownNow();
+    }
 
     @Override
     public StoredFile uploadFile(MultipartFile file) {
         try {
             String originalFileName = file.getOriginalFilename();
             String fileName = UUID.randomUUID().toString() + "_" + originalFileName;
-            
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(fileName)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
-
-            System.out.println("Request details:");
-            System.out.println("- Bucket: " + bucketName);
-            System.out.println("- Key: " + fileName);
-            System.out.println("- Content-Type: " + file.getContentType());
-            System.out.println("- Content-Length: " + file.getSize());
-
-            // Спробуємо спочатку прочитати файл повністю в пам'ять для тестування
-            byte[] fileBytes = file.getBytes();
-            System.out.println("File read into memory, size: " + fileBytes.length);
 
             // Спробуємо багато разів для мобільного інтернету - великі файли часто провалюються
-            int maxRetries = 10; // Збільшено до 10 спроб для дуже великих файлів
-            int attempt = 0;
-            Exception lastException = null;
-
-            while (attempt < maxRetries) {
-                try {
-                    attempt++;
-                    System.out.println("Upload attempt " + attempt + " of " + maxRetries + " for large file (" + fileBytes.length + " bytes)");
-                    s3Client.putObject(putObjectRequest, RequestBody.fromBytes(fileBytes));
-                    System.out.println("Upload successful on attempt " + attempt + "!");
-                    break; // Success, exit retry loop
-                } catch (Exception e) {
-                    lastException = e;
-                    System.err.println("Upload attempt " + attempt + " failed: " + e.getMessage());
-                    if (attempt < maxRetries) {
-                        // Ще довші паузи для великих файлів: 10s, 20s, 30s, 40s, 50s, 60s, 70s, 80s, 90s
-                        int sleepTime = 10000 * attempt; // 10 секунд * номер спроби
-                        System.out.println("Waiting " + (sleepTime/1000) + "s before retry " + (attempt + 1) + "...");
-                        try {
-                            Thread.sleep(sleepTime);
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            throw new RuntimeException("Upload interrupted", ie);
-                        }
-                    }
-                }
-            }
-
-            if (lastException != null && attempt == maxRetries) {
-                throw new RuntimeException("Failed to upload after " + maxRetries + " attempts: " + lastException.getMessage(), lastException);
-            }
+            ContentSniffer.Result detected = storeObject(file, fileName, 10); // Збільшено до 10 спроб для дуже великих файлів
 
             // Generate public URL
             String publicUrl = generatePublicUrl(fileName);
@@ -113,8 +161,10 @@ public class R2StorageService implements FileStorageService {
             storedFile.setFileName(originalFileName);
             storedFile.setUrl(publicUrl);
             storedFile.setSize(file.getSize());
+            storedFile.setContentType(detected.getContentType());
             storedFile.setUploadedAt(LocalDateTime.now());
 
+            changeJournal.record(new FileChange(FileChange.Type.UPLOAD, fileName, null, file.getSize(), detected.getContentType()));
             return storedFile;
         } catch (Exception e) {
             log.error("Failed to upload file '{}' to R2: {}", file.getOriginalFilename(), e.getMessage(), e);
@@ -129,48 +179,88 @@ public class R2StorageService implements FileStorageService {
             String folderPath = (folder != null && !folder.isEmpty()) ? folder : "";
             String fileName = folderPath + UUID.randomUUID().toString() + "_" + originalFileName;
 
-            System.out.println("Uploading file to R2:");
-            System.out.println("- Original filename: " + originalFileName);
-            System.out.println("- Folder path: '" + folderPath + "'");
-            System.out.println("- Generated filename: " + fileName);
+            log.debug("Uploading '{}' to folder '{}' as '{}'", originalFileName, folderPath, fileName);
 
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(fileName)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
+            // Спробуємо багато разів для мобільного інтернету - великі файли часто провалюються
+            ContentSniffer.Result detected = storeObject(file, fileName, 5); // Збільшено до 5 спроб
 
-            System.out.println("Request details:");
-            System.out.println("- Bucket: " + bucketName);
-            System.out.println("- Key: " + fileName);
-            System.out.println("- Folder: " + folderPath);
-            System.out.println("- Content-Type: " + file.getContentType());
-            System.out.println("- Content-Length: " + file.getSize());
+            // Generate public URL
+            String publicUrl = generatePublicUrl(fileName);
 
-            // Спробуємо спочатку прочитати файл повністю в пам'ять для тестування
-            byte[] fileBytes = file.getBytes();
-            System.out.println("File read into memory, size: " + fileBytes.length);
+            StoredFile storedFile = new StoredFile();
+            storedFile.setId(fileName);
+            storedFile.setFileName(originalFileName);
+            storedFile.setFolder(folderPath);
+            storedFile.setUrl(publicUrl);
+            storedFile.setSize(file.getSize());
+            storedFile.setContentType(detected.getContentType());
+            storedFile.setUploadedAt(LocalDateTime.now());
 
-            // Спробуємо багато разів для мобільного інтернету - великі файли часто провалюються
-            int maxRetries = 5; // Збільшено до 5 спроб
-            int attempt = 0;
-            Exception lastException = null;
+            changeJournal.record(new FileChange(FileChange.Type.UPLOAD, fileName, null, file.getSize(), detected.getContentType()));
+            return storedFile;
+        } catch (Exception e) {
+            log.error("Failed to upload file '{}' to R2: {}", file.getOriginalFilename(), e.getMessage(), e);
+            throw new RuntimeException("Failed to upload file: " + e.getMessage(), e);
+        }
+    }
+
+    private ContentSniffer.Result storeObject(MultipartFile file, String fileName, int maxRetries) throws IOException {
+        StorageShard shard = shards.shardFor(fileName);
 
+        // Хеш рахуємо з локальної копії до відправки, щоб він ішов разом з PUT, а не окремим перезаписом об'єкта
+        byte[] sha256 = sha256Of(file);
+        CompressionCodec codec = selectCodec(file);
+        if (codec != null) {
+            ContentSniffer.Result detected = storeCompressed(shard, file, fileName, codec, maxRetries, HexFormat.of().formatHex(sha256));
+            if (detected != null) {
+                return detected;
+            }
+            // Стиснення не допомогло — зберігаємо оригінал
+        }
+
+        Map<String, String> metadata = new HashMap<>();
+
+        // Тип вмісту визначаємо з перших байтів, тіло йде в R2 потоком — файл у пам'ять не читаємо
+        byte[] head;
+        try (InputStream in = file.getInputStream()) {
+            head = in.readNBytes(ContentSniffer.HEAD_SIZE);
+        }
+        ContentSniffer.Result detected = ContentSniffer.sniff(head, head.length, file.getOriginalFilename());
+        metadata.put(METADATA_CONTENT_DETECTED, "true");
+        metadata.put(METADATA_SHA256, HexFormat.of().formatHex(sha256));
+
+        // x-amz-checksum-sha256: R2 сам перевіряє тіло і відхиляє пошкоджене завантаження
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(shard.getBucket())
+                .key(fileName)
+                .contentType(detected.getContentType())
+                .contentLength(file.getSize())
+                .metadata(metadata)
+                .checksumSHA256(Base64.getEncoder().encodeToString(sha256))
+                .build();
+
+        log.debug("Uploading '{}' to shard {}: Content-Type {} (client sent {}), {} bytes",
+                fileName, shard, detected.getContentType(), file.getContentType(), file.getSize());
+
+        int attempt = 0;
+        Exception lastException = null;
+
+        try (SourceContentProvider body = new SourceContentProvider(file)) {
             while (attempt < maxRetries) {
                 try {
                     attempt++;
-                    System.out.println("Upload attempt " + attempt + " of " + maxRetries + " for large file (" + fileBytes.length + " bytes)");
-                    s3Client.putObject(putObjectRequest, RequestBody.fromBytes(fileBytes));
-                    System.out.println("Upload successful on attempt " + attempt + "!");
+                    log.debug("Upload attempt {} of {} for '{}' ({} bytes)", attempt, maxRetries, fileName, file.getSize());
+                    shard.getClient().putObject(putObjectRequest,
+                            RequestBody.fromContentProvider(body, file.getSize(), detected.getContentType()));
+                    lastException = null;
                     break; // Success, exit retry loop
                 } catch (Exception e) {
                     lastException = e;
-                    System.err.println("Upload attempt " + attempt + " failed: " + e.getMessage());
                     if (attempt < maxRetries) {
-                        // Ще довші паузи для великих файлів: 10s, 20s, 30s, 40s, 50s, 60s, 70s, 80s, 90s
-                        int sleepTime = 10000 * attempt; // 10 секунд * номер спроби
-                        System.out.println("Waiting " + (sleepTime/1000) + "s before retry " + (attempt + 1) + "...");
+                        // Пауза росте з кожною спробою: 10s, 20s, 30s...
+                        long sleepTime = UPLOAD_RETRY_DELAY_MS * attempt;
+                        log.warn("Upload attempt {} of {} for '{}' failed, retrying in {} ms: {}",
+                                attempt, maxRetries, fileName, sleepTime, e.getMessage());
                         try {
                             Thread.sleep(sleepTime);
                         } catch (InterruptedException ie) {
@@ -180,55 +270,304 @@ public class R2StorageService implements FileStorageService {
                     }
                 }
             }
+        }
 
-            if (lastException != null && attempt == maxRetries) {
-                throw new RuntimeException("Failed to upload after " + maxRetries + " attempts: " + lastException.getMessage(), lastException);
-            }
+        if (lastException != null) {
+            throw new RuntimeException("Failed to upload after " + maxRetries + " attempts: " + lastException.getMessage(), lastException);
+        }
+        return detected;
+    }
 
-            // Generate public URL
-            String publicUrl = generatePublicUrl(fileName);
+    private static byte[] sha256Of(MultipartFile file) throws IOException {
+        MessageDigest digest = Digests.sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return digest.digest();
+    }
 
-            StoredFile storedFile = new StoredFile();
-            storedFile.setId(fileName);
-            storedFile.setFileName(originalFileName);
-            storedFile.setFolder(folderPath);
-            storedFile.setUrl(publicUrl);
-            storedFile.setSize(file.getSize());
-            storedFile.setUploadedAt(LocalDateTime.now());
+    /**
+     * Compresses the upload while reading it and sends the result in parts, so memory use is one
+     * part regardless of the file size. A result that fits in one part goes up as a single PUT. The
+     * checksum of the original is computed beforehand, so both forms carry it from the start.
+     * Returns null, leaving nothing stored, when the compressed form is not smaller than the original.
+     */
+    private ContentSniffer.Result storeCompressed(StorageShard shard, MultipartFile file, String fileName,
+                                                  CompressionCodec codec, int maxRetries, String sha256) throws IOException {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put(METADATA_CODEC, codec.getToken());
+        metadata.put(METADATA_ORIGINAL_SIZE, Long.toString(file.getSize()));
+        metadata.put(METADATA_CONTENT_DETECTED, "true");
+        metadata.put(METADATA_SHA256, sha256);
+
+        SniffingInputStream source = new SniffingInputStream(file.getInputStream());
+        PartUploadStream upload = new PartUploadStream(shard.getClient(), shard.getBucket(), fileName, compressionPartSize,
+                maxRetries, UPLOAD_RETRY_DELAY_MS, () -> source.sniff(file.getOriginalFilename()).getContentType(), metadata);
+        try {
+            try (InputStream in = source;
+                 OutputStream out = codec.compress(upload, compressionLevel)) {
+                in.transferTo(out);
+            }
+            if (upload.size() >= file.getSize()) {
+                upload.abort();
+                return null;
+            }
 
-            return storedFile;
-        } catch (Exception e) {
-            log.error("Failed to upload file '{}' to R2: {}", file.getOriginalFilename(), e.getMessage(), e);
-            throw new RuntimeException("Failed to upload file: " + e.getMessage(), e);
+            ContentSniffer.Result detected = source.sniff(file.getOriginalFilename());
+            upload.complete(detected.getContentType(), metadata);
+            log.debug("Stored '{}' compressed with {}: {} -> {} bytes", fileName, codec.getToken(), file.getSize(), upload.size());
+            return detected;
+        } catch (IOException | RuntimeException e) {
+            upload.abort();
+            throw e;
+        }
+    }
+
+    private CompressionCodec selectCodec(MultipartFile file) {
+        if (!compressionEnabled || file.getSize() < compressionMinSize) {
+            return null;
+        }
+        String originalFileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "";
+        if (!ContentTypes.isCompressible(ContentTypes.fromFileName(originalFileName))
+                && !ContentTypes.isCompressible(file.getContentType())) {
+            return null;
         }
+        CompressionCodec codec = CompressionCodec.fromToken(compressionCodec);
+        if (codec == null) {
+            log.warn("Unknown compression codec '{}', storing '{}' uncompressed", compressionCodec, originalFileName);
+        }
+        return codec;
     }
 
     @Override
     public Resource downloadFile(String fileName) {
+        return openFile(fileName, null).getResource();
+    }
+
+    @Override
+    public FileContent openFile(String fileName, String acceptEncoding) {
+        return openFile(fileName, acceptEncoding, null);
+    }
+
+    @Override
+    public FileContent openFile(String fileName, String acceptEncoding, String range) {
+        return openFile(fileName, acceptEncoding, range, false);
+    }
+
+    @Override
+    public FileContent openStored(String fileName, String range) {
+        return openFile(fileName, "*", range, true);
+    }
+
+    private FileContent openFile(String fileName, String acceptEncoding, String range, boolean sequential) {
+        ByteRange requested = ByteRange.parse(range);
         try {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(fileName)
-                    .build();
+            StorageShard shard = shards.locate(fileName);
+            // Перший GET одразу бере лише перший шматок: розмір і метадані приходять у відповіді, окремий HEAD не потрібен
+            ResponseInputStream<GetObjectResponse> probe = openProbe(shard, fileName, requested, sequential);
+            GetObjectResponse response = probe.response();
+            Map<String, String> metadata = response.metadata();
+            long[] probeSpan = parseContentRange(response.contentRange(), response.contentLength());
+            long totalLength = probeSpan[2];
+
+            CompressionCodec codec = CompressionCodec.fromToken(metadata.get(METADATA_CODEC));
+            boolean passthrough = codec != null && codec.isAcceptedBy(acceptEncoding);
+            boolean decode = codec != null && !passthrough;
+
+            // Діапазони рахуються в збережених байтах, тому для розпаковки віддаємо файл повністю
+            long[] span = {0, totalLength - 1};
+            boolean partial = requested != null && !decode;
+            if (partial) {
+                span = requested.resolve(totalLength);
+                if (span == null) {
+                    probe.abort();
+                    throw new RangeNotSatisfiableException(fileName, totalLength);
+                }
+            }
+
+            InputStream firstChunk = probe;
+            long firstChunkEnd = probeSpan[1];
+            if (probeSpan[0] != span[0]) {
+                probe.abort();
+                firstChunk = null;
+                firstChunkEnd = span[0] - 1;
+            }
 
-            InputStream inputStream = s3Client.getObject(getObjectRequest);
-            return new InputStreamResource(inputStream);
+            String eTag = response.eTag();
+            long length = span[1] - span[0] + 1;
+            InputStream stored;
+            if (firstChunkEnd >= span[1]) {
+                stored = firstChunk;
+            } else if (!sequential && parallelDownloads.shouldSplit(length)) {
+                stored = parallelDownloads.open((s, e) -> getRange(shard, fileName, s, e, eTag), span[0], span[1], firstChunk, firstChunkEnd);
+            } else if (firstChunk != null) {
+                stored = new SequenceInputStream(firstChunk, getRange(shard, fileName, firstChunkEnd + 1, span[1], eTag));
+            } else {
+                stored = getRange(shard, fileName, span[0], span[1], eTag);
+            }
+
+            if (passthrough) {
+                // Клієнт сам розпакує — віддаємо збережені байти без змін
+                return new FileContent(new InputStreamResource(stored), response.contentType(), length, codec.getToken(),
+                        metadata, partial, span[0], span[1], totalLength, true);
+            }
+
+            InputStream content = decode ? codec.decompress(stored) : stored;
+            long contentLength = decode ? parseLong(metadata.get(METADATA_ORIGINAL_SIZE)) : length;
+            String expectedSha256 = metadata.get(METADATA_SHA256);
+            if (!partial && expectedSha256 != null && ThreadLocalRandom.current().nextDouble() < verifySampleRate) {
+                content = new VerifyingInputStream(content, fileName, expectedSha256,
+                        mismatch -> integrityMonitor.recordCorruption(mismatch, "download"));
+            }
+            return new FileContent(new InputStreamResource(content), response.contentType(), contentLength, null,
+                    metadata, partial, span[0], span[1], totalLength, !decode);
+        } catch (RangeNotSatisfiableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to download file '{}' from R2: {}", fileName, e.getMessage(), e);
             throw new RuntimeException("Failed to download file: " + e.getMessage(), e);
         }
     }
 
+    private ResponseInputStream<GetObjectResponse> openProbe(StorageShard shard, String fileName, ByteRange requested,
+                                                             boolean sequential) {
+        // Послідовне читання бере все одним GET, без розбиття на шматки
+        boolean chunked = !sequential && parallelDownloads.isEnabled();
+        GetObjectRequest.Builder requestBuilder = GetObjectRequest.builder()
+                .bucket(shard.getBucket())
+                .key(fileName);
+
+        if (requested != null && requested.isSuffix()) {
+            requestBuilder.range(requested.toString());
+        } else if (requested != null || chunked) {
+            long start = requested != null ? requested.knownStart() : 0;
+            long end = requested != null ? requested.knownEnd() : -1;
+            if (chunked) {
+                long chunkEnd = start + parallelDownloads.getChunkSize() - 1;
+                end = end < 0 ? chunkEnd : Math.min(end, chunkEnd);
+            }
+            requestBuilder.range("bytes=" + start + "-" + (end >= 0 ? end : ""));
+        }
+
+        try {
+            return shard.getClient().getObject(requestBuilder.build());
+        } catch (S3Exception e) {
+            if (e.statusCode() != 416) {
+                throw e;
+            }
+            if (requested != null) {
+                HeadObjectResponse head = shard.getClient().headObject(HeadObjectRequest.builder()
+                        .bucket(shard.getBucket())
+                        .key(fileName)
+                        .build());
+                throw new RangeNotSatisfiableException(fileName, head.contentLength());
+            }
+            // Порожній об'єкт: діапазон 0-N для нього недійсний, читаємо без діапазону
+            return shard.getClient().getObject(GetObjectRequest.builder()
+                    .bucket(shard.getBucket())
+                    .key(fileName)
+                    .build());
+        }
+    }
+
     @Override
-    public List<StoredFile> listFiles() {
+    public FileInfo getFileInfo(String fileName) {
         try {
-            ListObjectsV2Request listRequest = ListObjectsV2Request.builder()
-                    .bucket(bucketName)
-                    .build();
+            StorageShard shard = shards.locate(fileName);
+            HeadObjectResponse head = shard.getClient().headObject(HeadObjectRequest.builder()
+                    .bucket(shard.getBucket())
+                    .key(fileName)
+                    .build());
+            Map<String, String> metadata = head.metadata();
+            CompressionCodec codec = CompressionCodec.fromToken(metadata.get(METADATA_CODEC));
+
+            FileInfo info = new FileInfo();
+            info.setId(fileName);
+            info.setFileName(ObjectKeys.originalFileName(fileName));
+            info.setSize(codec != null ? parseLong(metadata.get(METADATA_ORIGINAL_SIZE)) : head.contentLength());
+            info.setSha256(metadata.get(METADATA_SHA256));
+            if (head.lastModified() != null) {
+                info.setUploadedAt(LocalDateTime.ofInstant(head.lastModified(), ZoneId.systemDefault()));
+            }
+
+            if (metadata.containsKey(METADATA_CONTENT_DETECTED)) {
+                info.setContentType(head.contentType());
+                info.setCharset(ContentTypes.charsetOf(head.contentType()));
+                info.setText(info.getCharset() != null);
+            } else {
+                // Старі об'єкти: визначаємо тип за першими кілобайтами, а не за всім файлом
+                byte[] start = readHead(shard, fileName, head.contentLength(), codec);
+                ContentSniffer.Result detected = ContentSniffer.sniff(start, start.length, info.getFileName());
+                info.setContentType(detected.getContentType());
+                info.setCharset(detected.getCharset());
+                info.setText(detected.isText());
+            }
+            return info;
+        } catch (Exception e) {
+            log.error("Failed to get info for '{}': {}", fileName, e.getMessage(), e);
+            throw new RuntimeException("Failed to get file info: " + e.getMessage(), e);
+        }
+    }
+
+    private byte[] readHead(StorageShard shard, String fileName, long storedSize, CompressionCodec codec) throws IOException {
+        if (storedSize == 0) {
+            return new byte[0];
+        }
+        byte[] buffer = new byte[ContentSniffer.HEAD_SIZE];
+        int length = 0;
+        try (InputStream stored = getRange(shard, fileName, 0, Math.min(storedSize, ContentSniffer.HEAD_SIZE) - 1, null);
+             InputStream in = codec != null ? codec.decompress(stored) : stored) {
+            int read;
+            while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+            }
+        } catch (EOFException e) {
+            // Стиснутий потік обрізано нашим діапазоном — того, що встигли розпакувати, досить
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private InputStream getRange(StorageShard shard, String fileName, long start, long end, String eTag) {
+        GetObjectRequest.Builder requestBuilder = GetObjectRequest.builder()
+                .bucket(shard.getBucket())
+                .key(fileName)
+                .range("bytes=" + start + "-" + end);
+        if (eTag != null) {
+            // Якщо об'єкт перезапишуть посеред завантаження, не змішуємо байти двох версій
+            requestBuilder.ifMatch(eTag);
+        }
+        return shard.getClient().getObject(requestBuilder.build());
+    }
 
-            ListObjectsV2Response listResponse = s3Client.listObjectsV2(listRequest);
+    /**
+     * Parses "bytes start-end/total" into {start, end, total}; without Content-Range the response is
+     * the whole object.
+     */
+    private static long[] parseContentRange(String contentRange, long contentLength) {
+        if (contentRange != null && contentRange.startsWith("bytes ")) {
+            int dash = contentRange.indexOf('-');
+            int slash = contentRange.indexOf('/');
+            if (dash > 0 && slash > dash) {
+                try {
+                    return new long[]{
+                            Long.parseLong(contentRange.substring(6, dash).trim()),
+                            Long.parseLong(contentRange.substring(dash + 1, slash).trim()),
+                            Long.parseLong(contentRange.substring(slash + 1).trim())
+                    };
+                } catch (NumberFormatException e) {
+                    // fall through
+                }
+            }
+        }
+        return new long[]{0, contentLength - 1, contentLength};
+    }
+
+    @Override
+    public List<StoredFile> listFiles() {
+        try {
+            List<S3Object> objects = firstKeys(listObjects(null));
 
-            return listResponse.contents().stream()
+            return objects.stream()
                     .map(s3Object -> {
                         String fileName = s3Object.key();
                         String folderPath = extractFolderPath(fileName);
@@ -245,51 +584,137 @@ public class R2StorageService implements FileStorageService {
                         storedFile.setFileName(originalFileName);
                         storedFile.setFolder(folderPath); // Will be empty for root files
                         storedFile.setUrl(publicUrl);
-                        storedFile.setSize(s3Object.size());
+                        storedFile.setSize(listedSize(s3Object));
                         storedFile.setUploadedAt(s3Object.lastModified().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime());
                         return storedFile;
                     })
                     .filter(Objects::nonNull) // Remove null entries (files in folders)
                     .collect(Collectors.toList());
         } catch (Exception e) {
-            log.error("Failed to list files in R2 bucket '{}': {}", bucketName, e.getMessage(), e);
+            log.error("Failed to list files in R2 shards {}: {}", shards.getShards(), e.getMessage(), e);
             throw new RuntimeException("Failed to list files: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public void walkFiles(String prefix, Consumer<StoredFile> consumer) {
+        Iterator<S3Object> objects = listObjects(prefix);
+        while (objects.hasNext()) {
+            S3Object s3Object = objects.next();
+            String fileName = s3Object.key();
+
+            StoredFile storedFile = new StoredFile();
+            storedFile.setId(fileName);
+            storedFile.setFileName(ObjectKeys.originalFileName(fileName));
+            storedFile.setFolder(ObjectKeys.folderOf(fileName));
+            storedFile.setUrl(generatePublicUrl(fileName));
+            storedFile.setSize(listedSize(s3Object));
+            storedFile.setUploadedAt(s3Object.lastModified().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime());
+            consumer.accept(storedFile);
+        }
+    }
+
+    /**
+     * Objects under the prefix from every shard, merged into one key-ordered stream. Listing pages
+     * are fetched lazily, so a caller that stops early only pays for what it read.
+     */
+    private Iterator<S3Object> listObjects(String prefix) {
+        List<Iterator<S3Object>> sources = new ArrayList<>();
+        for (StorageShard shard : shards.getShards()) {
+            ListObjectsV2Request.Builder requestBuilder = ListObjectsV2Request.builder()
+                    .bucket(shard.getBucket());
+            if (prefix != null && !prefix.isEmpty()) {
+                requestBuilder.prefix(prefix);
+            }
+            sources.add(shard.getClient().listObjectsV2Paginator(requestBuilder.build()).contents().iterator());
+        }
+        return new MergedIterator<>(sources, S3Object::key);
+    }
+
+    /**
+     * Original size of a listed object. A listing only carries the stored size, which for a
+     * compressed object is the compressed one, so the size comes from the index; while compression
+     * is on, a key the index does not know yet is looked up with a HEAD.
+     */
+    private long listedSize(S3Object object) {
+        long size = fileSearchIndex.sizeOf(object.key());
+        if (size >= 0) {
+            return size;
+        }
+        if (!compressionEnabled || object.size() == 0) {
+            return object.size();
+        }
+        try {
+            StorageShard shard = shards.locate(object.key());
+            return originalSize(shard.getClient().headObject(HeadObjectRequest.builder()
+                    .bucket(shard.getBucket())
+                    .key(object.key())
+                    .build()));
+        } catch (NoSuchKeyException e) {
+            return object.size(); // Видалено після лістингу
+        }
+    }
+
+    /**
+     * Original size of an object: compressed objects record it in metadata, the rest store it as is.
+     */
+    private static long originalSize(HeadObjectResponse head) {
+        if (CompressionCodec.fromToken(head.metadata().get(METADATA_CODEC)) == null) {
+            return head.contentLength();
+        }
+        long size = parseLong(head.metadata().get(METADATA_ORIGINAL_SIZE));
+        return size >= 0 ? size : head.contentLength();
+    }
+
+    private static List<S3Object> firstKeys(Iterator<S3Object> objects) {
+        List<S3Object> first = new ArrayList<>();
+        while (first.size() < MAX_LIST_KEYS && objects.hasNext()) {
+            first.add(objects.next());
+        }
+        return first;
+    }
+
     @Override
     public void deleteFile(String fileName) {
         try {
+            // Розмір потрібен підписникам журналу змін (лічильники папок)
+            long size = 0;
+            try {
+                StorageShard shard = shards.locate(fileName);
+                size = originalSize(shard.getClient().headObject(HeadObjectRequest.builder()
+                        .bucket(shard.getBucket())
+                        .key(fileName)
+                        .build()));
+            } catch (NoSuchKeyException e) {
+                // Already gone, the delete below is a no-op
+            }
+            deleteObject(fileName, size);
+        } catch (Exception e) {
+            log.error("Failed to delete file '{}' from R2: {}", fileName, e.getMessage(), e);
+            throw new RuntimeException("Failed to delete file: " + e.getMessage(), e);
+        }
+    }
+
+    private void deleteObject(String fileName, long size) {
+        // Під час перебалансування копія може бути і на старому шарді
+        for (StorageShard shard : shards.candidates(fileName)) {
             DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
-                    .bucket(bucketName)
+                    .bucket(shard.getBucket())
                     .key(fileName)
                     .build();
 
-            s3Client.deleteObject(deleteRequest);
-        } catch (Exception e) {
-            log.error("Failed to delete file '{}' from R2: {}", fileName, e.getMessage(), e);
-            throw new RuntimeException("Failed to delete file: " + e.getMessage(), e);
+            shard.getClient().deleteObject(deleteRequest);
         }
+        changeJournal.record(new FileChange(FileChange.Type.DELETE, fileName, null, size, null));
     }
 
     @Override
     public List<StoredFile> listFiles(String folder) {
         try {
-            ListObjectsV2Request.Builder requestBuilder = ListObjectsV2Request.builder()
-                    .bucket(bucketName);
+            List<S3Object> objects = firstKeys(listObjects(folder));
+            log.debug("Listed {} objects under '{}' in {} shards", objects.size(), folder != null ? folder : "", shards.getShards().size());
 
-            if (folder != null && !folder.isEmpty()) {
-                requestBuilder.prefix(folder);
-                System.out.println("Listing files with prefix: '" + folder + "'");
-            } else {
-                System.out.println("Listing all files (no prefix)");
-            }
-
-            ListObjectsV2Request listRequest = requestBuilder.build();
-            ListObjectsV2Response listResponse = s3Client.listObjectsV2(listRequest);
-            System.out.println("Found " + listResponse.contents().size() + " objects");
-
-            return listResponse.contents().stream()
+            return objects.stream()
                     .map(s3Object -> {
                         String fileName = s3Object.key();
                         String folderPath = extractFolderPath(fileName);
@@ -301,13 +726,13 @@ public class R2StorageService implements FileStorageService {
                         storedFile.setFileName(originalFileName);
                         storedFile.setFolder(folderPath);
                         storedFile.setUrl(publicUrl);
-                        storedFile.setSize(s3Object.size());
+                        storedFile.setSize(listedSize(s3Object));
                         storedFile.setUploadedAt(s3Object.lastModified().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime());
                         return storedFile;
                     })
                     .collect(Collectors.toList());
         } catch (Exception e) {
-            log.error("Failed to list files in R2 bucket '{}': {}", bucketName, e.getMessage(), e);
+            log.error("Failed to list files in R2 shards {}: {}", shards.getShards(), e.getMessage(), e);
             throw new RuntimeException("Failed to list files: " + e.getMessage(), e);
         }
     }
@@ -320,20 +745,25 @@ public class R2StorageService implements FileStorageService {
     @Override
     public List<Folder> listFolders(String parentFolder) {
         try {
-            ListObjectsV2Request.Builder requestBuilder = ListObjectsV2Request.builder()
-                    .bucket(bucketName)
-                    .delimiter("/");
+            // Папка може мати об'єкти на кількох шардах — об'єднуємо префікси
+            Set<String> prefixes = new TreeSet<>(MergedIterator::compareKeys);
+            for (StorageShard shard : shards.getShards()) {
+                ListObjectsV2Request.Builder requestBuilder = ListObjectsV2Request.builder()
+                        .bucket(shard.getBucket())
+                        .delimiter("/");
+
+                if (parentFolder != null && !parentFolder.isEmpty()) {
+                    requestBuilder.prefix(parentFolder);
+                }
 
-            if (parentFolder != null && !parentFolder.isEmpty()) {
-                requestBuilder.prefix(parentFolder);
+                ListObjectsV2Response listResponse = shard.getClient().listObjectsV2(requestBuilder.build());
+                for (CommonPrefix prefix : listResponse.commonPrefixes()) {
+                    prefixes.add(prefix.prefix());
+                }
             }
 
-            ListObjectsV2Request listRequest = requestBuilder.build();
-            ListObjectsV2Response listResponse = s3Client.listObjectsV2(listRequest);
-
-            return listResponse.commonPrefixes().stream()
-                    .map(prefix -> {
-                        String folderPath = prefix.prefix();
+            return prefixes.stream()
+                    .map(folderPath -> {
                         String folderName = folderPath.endsWith("/")
                             ? folderPath.substring(0, folderPath.length() - 1)
                             : folderPath;
@@ -358,7 +788,7 @@ public class R2StorageService implements FileStorageService {
                     })
                     .collect(Collectors.toList());
         } catch (Exception e) {
-            log.error("Failed to list folders in R2 bucket '{}' with parent '{}': {}", bucketName, parentFolder, e.getMessage(), e);
+            log.error("Failed to list folders in R2 shards {} with parent '{}': {}", shards.getShards(), parentFolder, e.getMessage(), e);
             throw new RuntimeException("Failed to list folders: " + e.getMessage(), e);
         }
     }
@@ -371,13 +801,14 @@ public class R2StorageService implements FileStorageService {
             String folderPath = folderName.endsWith("/") ? folderName : folderName + "/";
             String placeholderKey = folderPath + ".keep"; // Hidden placeholder file
 
+            StorageShard shard = shards.shardFor(placeholderKey);
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
+                    .bucket(shard.getBucket())
                     .key(placeholderKey)
                     .contentType("application/x-directory")
                     .build();
 
-            s3Client.putObject(putObjectRequest, RequestBody.empty());
+            shard.getClient().putObject(putObjectRequest, RequestBody.empty());
 
             Folder folder = new Folder();
             folder.setId(folderPath);
@@ -386,6 +817,7 @@ public class R2StorageService implements FileStorageService {
             folder.setCreatedAt(LocalDateTime.now());
             folder.setFileCount(0);
 
+            changeJournal.record(new FileChange(FileChange.Type.CREATE_FOLDER, folderPath, null, 0, null));
             return folder;
         } catch (Exception e) {
             log.error("Failed to create folder '{}' in R2: {}", folderName, e.getMessage(), e);
@@ -398,28 +830,625 @@ public class R2StorageService implements FileStorageService {
         try {
             String folderPath = folderName.endsWith("/") ? folderName : folderName + "/";
 
-            // Delete all files in the folder
-            List<StoredFile> filesInFolder = listFiles(folderPath);
-            for (StoredFile file : filesInFolder) {
-                deleteFile(file.getId());
+            // Видаляємо порціями по 1000 ключів, кожна порція — один DeleteObjects на шард (разом з .keep)
+            Iterator<S3Object> objects = listObjects(folderPath);
+            while (objects.hasNext()) {
+                Map<String, Long> sizes = new LinkedHashMap<>();
+                while (sizes.size() < MAX_DELETE_BATCH && objects.hasNext()) {
+                    S3Object object = objects.next();
+                    sizes.put(object.key(), listedSize(object));
+                }
+                Map<String, String> errors = deleteObjects(sizes);
+                if (!errors.isEmpty()) {
+                    Map.Entry<String, String> first = errors.entrySet().iterator().next();
+                    throw new IllegalStateException(errors.size() + " objects could not be deleted, first: '"
+                            + first.getKey() + "' (" + first.getValue() + ")");
+                }
             }
 
-            // Delete the placeholder file if it exists
-            String placeholderKey = folderPath + ".keep";
+            changeJournal.record(new FileChange(FileChange.Type.DELETE_FOLDER, folderPath, null, 0, null));
+        } catch (Exception e) {
+            log.error("Failed to delete folder '{}' from R2: {}", folderName, e.getMessage(), e);
+            throw new RuntimeException("Failed to delete folder: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<BatchResult> deleteFiles(List<String> fileNames) {
+        List<BatchResult> results = new ArrayList<>(fileNames.size());
+
+        // Розміри для журналу змін беремо з індексу; HEAD лише для ключів, яких він ще не бачив
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        Map<String, Future<HeadObjectResponse>> heads = new LinkedHashMap<>();
+        for (String fileName : fileNames) {
+            long size = fileSearchIndex.sizeOf(fileName);
+            if (size >= 0) {
+                sizes.put(fileName, size);
+                continue;
+            }
+            heads.put(fileName, copyExecutor.submit(() -> {
+                StorageShard shard = shards.locate(fileName);
+                return shard.getClient().headObject(HeadObjectRequest.builder()
+                        .bucket(shard.getBucket())
+                        .key(fileName)
+                        .build());
+            }));
+        }
+
+        for (Map.Entry<String, Future<HeadObjectResponse>> head : heads.entrySet()) {
             try {
-                DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
-                        .bucket(bucketName)
-                        .key(placeholderKey)
-                        .build();
-                s3Client.deleteObject(deleteRequest);
+                sizes.put(head.getKey(), originalSize(head.getValue().get()));
+            } catch (ExecutionException e) {
+                results.add(BatchResult.failed(BatchOperation.Op.DELETE, head.getKey(), describe(e.getCause())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(BatchResult.failed(BatchOperation.Op.DELETE, head.getKey(), "Interrupted"));
+            }
+        }
+
+        List<String> keys = new ArrayList<>(sizes.keySet());
+        for (int from = 0; from < keys.size(); from += MAX_DELETE_BATCH) {
+            Map<String, Long> chunk = new LinkedHashMap<>();
+            for (String key : keys.subList(from, Math.min(from + MAX_DELETE_BATCH, keys.size()))) {
+                chunk.put(key, sizes.get(key));
+            }
+            try {
+                Map<String, String> failed = deleteObjects(chunk);
+                for (String key : chunk.keySet()) {
+                    results.add(failed.containsKey(key)
+                            ? BatchResult.failed(BatchOperation.Op.DELETE, key, failed.get(key))
+                            : BatchResult.ok(BatchOperation.Op.DELETE, key, null));
+                }
             } catch (Exception e) {
-                // Placeholder might not exist, ignore
+                log.error("Batch delete of {} objects failed: {}", chunk.size(), e.getMessage(), e);
+                for (String key : chunk.keySet()) {
+                    results.add(BatchResult.failed(BatchOperation.Op.DELETE, key, e.getMessage()));
+                }
             }
+        }
+        return results;
+    }
+
+    /**
+     * Removes up to {@value #MAX_DELETE_BATCH} keys with one DeleteObjects call per shard and records
+     * a DELETE for every key R2 confirmed on all shards that may hold it. Returns key -> error for
+     * the rest.
+     */
+    private Map<String, String> deleteObjects(Map<String, Long> sizes) {
+        Map<StorageShard, List<ObjectIdentifier>> byShard = new LinkedHashMap<>();
+        for (String key : sizes.keySet()) {
+            for (StorageShard shard : shards.candidates(key)) {
+                byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(ObjectIdentifier.builder().key(key).build());
+            }
+        }
+
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (Map.Entry<StorageShard, List<ObjectIdentifier>> batch : byShard.entrySet()) {
+            StorageShard shard = batch.getKey();
+            try {
+                DeleteObjectsResponse response = shard.getClient().deleteObjects(DeleteObjectsRequest.builder()
+                        .bucket(shard.getBucket())
+                        .delete(Delete.builder().objects(batch.getValue()).quiet(false).build())
+                        .build());
+                for (S3Error error : response.errors()) {
+                    errors.putIfAbsent(error.key(), error.message());
+                }
+            } catch (S3Exception e) {
+                for (ObjectIdentifier identifier : batch.getValue()) {
+                    errors.putIfAbsent(identifier.key(), e.getMessage());
+                }
+            }
+        }
+
+        for (Map.Entry<String, Long> deleted : sizes.entrySet()) {
+            if (!errors.containsKey(deleted.getKey())) {
+                changeJournal.record(new FileChange(FileChange.Type.DELETE, deleted.getKey(), null, deleted.getValue(), null));
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public StoredFile moveFile(String fileName, String targetFolder) {
+        String folderPath = normalizeFolderPath(targetFolder);
+        String targetKey = folderPath + fileName.substring(fileName.lastIndexOf('/') + 1);
+        if (targetKey.equals(fileName)) {
+            throw new IllegalArgumentException("File '" + fileName + "' is already in folder '" + folderPath + "'");
+        }
+
+        try {
+            StorageShard shard = shards.locate(fileName);
+            HeadObjectResponse head = shard.getClient().headObject(HeadObjectRequest.builder()
+                    .bucket(shard.getBucket())
+                    .key(fileName)
+                    .build());
+
+            // Копіювання відбувається всередині R2, байти не проходять через JVM
+            copyObject(shard, fileName, targetKey, head.contentLength());
+            shard.getClient().deleteObject(DeleteObjectRequest.builder()
+                    .bucket(shard.getBucket())
+                    .key(fileName)
+                    .build());
+
+            StoredFile storedFile = new StoredFile();
+            storedFile.setId(targetKey);
+            storedFile.setFileName(extractOriginalFileName(targetKey.substring(folderPath.length())));
+            storedFile.setFolder(folderPath);
+            storedFile.setUrl(generatePublicUrl(targetKey));
+            storedFile.setSize(originalSize(head));
+            storedFile.setUploadedAt(LocalDateTime.now());
 
+            changeJournal.record(new FileChange(FileChange.Type.MOVE, targetKey, fileName, originalSize(head), head.contentType()));
+            return storedFile;
+        } catch (TargetExistsException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Failed to delete folder '{}' from R2: {}", folderName, e.getMessage(), e);
-            throw new RuntimeException("Failed to delete folder: " + e.getMessage(), e);
+            log.error("Failed to move file '{}' to '{}' in R2: {}", fileName, folderPath, e.getMessage(), e);
+            throw new RuntimeException("Failed to move file: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public StoredFile copyFile(String fileName, String targetFolder) {
+        String folderPath = normalizeFolderPath(targetFolder);
+        String originalFileName = ObjectKeys.originalFileName(fileName);
+        // Новий UUID-префікс, щоб копія в тій самій папці не перезаписала оригінал
+        String targetKey = folderPath + UUID.randomUUID().toString() + "_" + originalFileName;
+
+        try {
+            StorageShard shard = shards.locate(fileName);
+            HeadObjectResponse head = shard.getClient().headObject(HeadObjectRequest.builder()
+                    .bucket(shard.getBucket())
+                    .key(fileName)
+                    .build());
+            // Новий UUID зазвичай потрапляє на інший шард — тоді копія йде через JVM
+            copyObject(shard, fileName, targetKey, head.contentLength());
+
+            changeJournal.record(new FileChange(FileChange.Type.UPLOAD, targetKey, null, originalSize(head), head.contentType()));
+            return storedFileFor(targetKey, folderPath, head);
+        } catch (Exception e) {
+            log.error("Failed to copy file '{}' to '{}' in R2: {}", fileName, folderPath, e.getMessage(), e);
+            throw new RuntimeException("Failed to copy file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Moves several files into one folder the way a move job moves a listing page: copies run with
+     * bounded parallelism, then the copied sources are removed with DeleteObjects. A source whose
+     * delete fails is reported as failed even though its copy already exists in the target folder.
+     */
+    @Override
+    public List<BatchResult> moveFiles(List<String> fileNames, String targetFolder) {
+        String folderPath = normalizeFolderPath(targetFolder);
+        List<BatchResult> results = new ArrayList<>(fileNames.size());
+
+        Map<String, StorageShard> sourceShards = new ConcurrentHashMap<>();
+        Map<String, Future<HeadObjectResponse>> copies = new LinkedHashMap<>();
+        for (String fileName : fileNames) {
+            String targetKey = folderPath + fileName.substring(fileName.lastIndexOf('/') + 1);
+            if (targetKey.equals(fileName)) {
+                results.add(BatchResult.failed(BatchOperation.Op.MOVE, fileName, "Already in folder '" + folderPath + "'"));
+                continue;
+            }
+            copies.put(fileName, copyExecutor.submit(() -> {
+                StorageShard shard = shards.locate(fileName);
+                HeadObjectResponse head = shard.getClient().headObject(HeadObjectRequest.builder()
+                        .bucket(shard.getBucket())
+                        .key(fileName)
+                        .build());
+                copyObject(shard, fileName, targetKey, head.contentLength());
+                sourceShards.put(fileName, shard);
+                return head;
+            }));
+        }
+
+        Map<String, HeadObjectResponse> copied = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<HeadObjectResponse>> copy : copies.entrySet()) {
+            try {
+                copied.put(copy.getKey(), copy.getValue().get());
+            } catch (ExecutionException e) {
+                results.add(BatchResult.failed(BatchOperation.Op.MOVE, copy.getKey(), describe(e.getCause())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(BatchResult.failed(BatchOperation.Op.MOVE, copy.getKey(), "Interrupted"));
+            }
         }
+
+        // Джерела видаляємо там, де їх знайшли: один DeleteObjects на шард і порцію
+        Map<StorageShard, List<String>> sourcesByShard = new LinkedHashMap<>();
+        for (String source : copied.keySet()) {
+            sourcesByShard.computeIfAbsent(sourceShards.get(source), s -> new ArrayList<>()).add(source);
+        }
+        for (Map.Entry<StorageShard, List<String>> shardSources : sourcesByShard.entrySet()) {
+            moveSources(shardSources.getKey(), shardSources.getValue(), folderPath, copied, results);
+        }
+        return results;
+    }
+
+    private void moveSources(StorageShard shard, List<String> sources, String folderPath,
+                             Map<String, HeadObjectResponse> copied, List<BatchResult> results) {
+        for (int from = 0; from < sources.size(); from += MAX_DELETE_BATCH) {
+            List<String> chunk = sources.subList(from, Math.min(from + MAX_DELETE_BATCH, sources.size()));
+            List<ObjectIdentifier> identifiers = new ArrayList<>(chunk.size());
+            for (String source : chunk) {
+                identifiers.add(ObjectIdentifier.builder().key(source).build());
+            }
+            try {
+                DeleteObjectsResponse response = shard.getClient().deleteObjects(DeleteObjectsRequest.builder()
+                        .bucket(shard.getBucket())
+                        .delete(Delete.builder().objects(identifiers).quiet(false).build())
+                        .build());
+                Map<String, String> failed = new HashMap<>();
+                for (S3Error error : response.errors()) {
+                    failed.put(error.key(), error.message());
+                }
+                for (String source : chunk) {
+                    if (failed.containsKey(source)) {
+                        results.add(BatchResult.failed(BatchOperation.Op.MOVE, source,
+                                "Copied, but the source could not be deleted: " + failed.get(source)));
+                        continue;
+                    }
+                    HeadObjectResponse head = copied.get(source);
+                    String targetKey = folderPath + source.substring(source.lastIndexOf('/') + 1);
+                    changeJournal.record(new FileChange(FileChange.Type.MOVE, targetKey, source, originalSize(head), head.contentType()));
+                    results.add(BatchResult.ok(BatchOperation.Op.MOVE, source, storedFileFor(targetKey, folderPath, head)));
+                }
+            } catch (Exception e) {
+                log.error("Batch move to '{}' failed to delete {} sources: {}", folderPath, chunk.size(), e.getMessage(), e);
+                for (String source : chunk) {
+                    results.add(BatchResult.failed(BatchOperation.Op.MOVE, source,
+                            "Copied, but the source could not be deleted: " + e.getMessage()));
+                }
+            }
+        }
+    }
+
+    private StoredFile storedFileFor(String key, String folderPath, HeadObjectResponse head) {
+        StoredFile storedFile = new StoredFile();
+        storedFile.setId(key);
+        storedFile.setFileName(ObjectKeys.originalFileName(key));
+        storedFile.setFolder(folderPath);
+        storedFile.setUrl(generatePublicUrl(key));
+        storedFile.setSize(originalSize(head));
+        storedFile.setContentType(head.contentType());
+        storedFile.setUploadedAt(LocalDateTime.now());
+        return storedFile;
+    }
+
+    private static String describe(Throwable e) {
+        if (e instanceof S3Exception && ((S3Exception) e).statusCode() == 404) {
+            return "File not found";
+        }
+        return e.getMessage();
+    }
+
+    @Override
+    public MoveJob renameFolder(String folderName, String newFolderName) {
+        String sourcePath = normalizeFolderPath(folderName);
+        String targetPath = normalizeFolderPath(newFolderName);
+        if (sourcePath.isEmpty() || targetPath.isEmpty()) {
+            throw new IllegalArgumentException("Both source and target folder are required");
+        }
+        if (targetPath.startsWith(sourcePath)) {
+            throw new IllegalArgumentException("Cannot move folder '" + sourcePath + "' into itself");
+        }
+
+        synchronized (moveJobs) {
+            for (MoveJob active : moveJobs.values()) {
+                if (isActive(active) && active.getSourcePath().equals(sourcePath) && active.getTargetPath().equals(targetPath)) {
+                    return active; // Повторний запит на те саме перейменування
+                }
+            }
+            requireNoOverlappingJob(null, sourcePath, targetPath);
+            if (prefixOccupied(targetPath)) {
+                throw new TargetExistsException(targetPath);
+            }
+
+            MoveJob job = new MoveJob(UUID.randomUUID().toString(), sourcePath, targetPath);
+            moveJobs.put(job.getId(), job);
+            moveJobExecutor.submit(() -> runMoveJob(job));
+            return job;
+        }
+    }
+
+    /**
+     * Two jobs whose folders contain one another would copy over and delete each other's keys.
+     */
+    private void requireNoOverlappingJob(MoveJob self, String sourcePath, String targetPath) {
+        for (MoveJob active : moveJobs.values()) {
+            if (active == self || !isActive(active)) {
+                continue;
+            }
+            for (String path : List.of(active.getSourcePath(), active.getTargetPath())) {
+                if (overlaps(path, sourcePath) || overlaps(path, targetPath)) {
+                    throw new IllegalStateException("Folder '" + path + "' is already being moved by job " + active.getId());
+                }
+            }
+        }
+    }
+
+    private static boolean isActive(MoveJob job) {
+        return job.getStatus() == MoveJob.Status.PENDING || job.getStatus() == MoveJob.Status.RUNNING;
+    }
+
+    private static boolean overlaps(String first, String second) {
+        return first.startsWith(second) || second.startsWith(first);
+    }
+
+    private boolean prefixOccupied(String prefix) {
+        for (StorageShard shard : shards.getShards()) {
+            ListObjectsV2Response page = shard.getClient().listObjectsV2(ListObjectsV2Request.builder()
+                    .bucket(shard.getBucket())
+                    .prefix(prefix)
+                    .maxKeys(1)
+                    .build());
+            if (!page.contents().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public MoveJob getMoveJob(String jobId) {
+        return moveJobs.get(jobId);
+    }
+
+    @Override
+    public MoveJob resumeMoveJob(String jobId) {
+        MoveJob job = moveJobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Unknown move job: " + jobId);
+        }
+        synchronized (moveJobs) {
+            if (job.getStatus() == MoveJob.Status.FAILED) {
+                requireNoOverlappingJob(job, job.getSourcePath(), job.getTargetPath());
+                job.setStatus(MoveJob.Status.PENDING);
+                job.setFinishedAt(null);
+                moveJobExecutor.submit(() -> runMoveJob(job));
+            }
+        }
+        return job;
+    }
+
+    /**
+     * Moves everything under the job's source prefix one listing page at a time: the page is copied
+     * with bounded parallelism, then the successfully copied sources are removed with a single
+     * DeleteObjects call. Sources are only deleted after their copy succeeded, so re-running the job
+     * simply walks whatever is still left under the source prefix. Copies never overwrite: a target
+     * that an earlier run already copied lets its source go, any other occupied target fails.
+     */
+    private void runMoveJob(MoveJob job) {
+        job.setStatus(MoveJob.Status.RUNNING);
+        job.setAttempts(job.getAttempts() + 1);
+        job.setError(null);
+        job.resetFailures();
+
+        try {
+            // Кожен шард переносить свої об'єкти: ключ зберігає останній сегмент, тож шард не змінюється
+            for (StorageShard shard : shards.getShards()) {
+                ListObjectsV2Request listRequest = ListObjectsV2Request.builder()
+                        .bucket(shard.getBucket())
+                        .prefix(job.getSourcePath())
+                        .build();
+
+                for (ListObjectsV2Response page : shard.getClient().listObjectsV2Paginator(listRequest)) {
+                    if (!page.contents().isEmpty()) {
+                        movePage(job, shard, page.contents());
+                    }
+                }
+            }
+
+            if (job.getFailedObjects() == 0) {
+                job.setStatus(MoveJob.Status.COMPLETED);
+            } else {
+                job.setStatus(MoveJob.Status.FAILED);
+                job.setError(job.getFailedObjects() + " objects could not be moved, resume the job to retry");
+            }
+        } catch (Exception e) {
+            log.error("Move job {} ('{}' -> '{}') failed: {}", job.getId(), job.getSourcePath(), job.getTargetPath(), e.getMessage(), e);
+            job.setStatus(MoveJob.Status.FAILED);
+            job.setError(e.getMessage());
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+        }
+    }
+
+    private void movePage(MoveJob job, StorageShard shard, List<S3Object> objects) throws InterruptedException {
+        Map<String, Long> sizes = new ConcurrentHashMap<>(); // Оригінальні розміри для журналу
+        List<Future<ObjectIdentifier>> copies = new ArrayList<>(objects.size());
+        for (S3Object object : objects) {
+            String targetKey = job.getTargetPath() + object.key().substring(job.getSourcePath().length());
+            copies.add(copyExecutor.submit(() -> {
+                sizes.put(object.key(), listedSize(object));
+                try {
+                    copyObject(shard, object.key(), targetKey, object.size());
+                } catch (TargetExistsException e) {
+                    // Лише копія з попередньої спроби цього ж завдання дозволяє видалити джерело
+                    if (!isCopyOf(shard, object, targetKey)) {
+                        throw e;
+                    }
+                }
+                job.recordCopied(object.size());
+                return ObjectIdentifier.builder().key(object.key()).build();
+            }));
+        }
+
+        List<ObjectIdentifier> copied = new ArrayList<>(objects.size());
+        for (Future<ObjectIdentifier> copy : copies) {
+            try {
+                copied.add(copy.get());
+            } catch (ExecutionException e) {
+                job.recordFailed();
+                log.warn("Move job {}: copy failed: {}", job.getId(), e.getCause().getMessage());
+            }
+        }
+
+        if (!copied.isEmpty()) {
+            // Сторінка лістингу містить до 1000 ключів — це якраз ліміт одного DeleteObjects
+            DeleteObjectsResponse deleteResponse = shard.getClient().deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(shard.getBucket())
+                    .delete(Delete.builder().objects(copied).build())
+                    .build());
+            job.recordDeleted(deleteResponse.deleted().size());
+            for (DeletedObject deleted : deleteResponse.deleted()) {
+                String targetKey = job.getTargetPath() + deleted.key().substring(job.getSourcePath().length());
+                changeJournal.record(new FileChange(FileChange.Type.MOVE, targetKey, deleted.key(),
+                        sizes.getOrDefault(deleted.key(), 0L), null));
+            }
+            for (S3Error error : deleteResponse.errors()) {
+                job.recordFailed();
+                log.warn("Move job {}: failed to delete source '{}': {}", job.getId(), error.key(), error.message());
+            }
+        }
+
+        job.setLastKey(objects.get(objects.size() - 1).key());
+    }
+
+    /**
+     * Whether {@code targetKey} holds the same bytes as {@code source}: a CopyObject keeps the ETag,
+     * a multipart or cross-shard copy keeps the size and the recorded checksum.
+     */
+    private boolean isCopyOf(StorageShard shard, S3Object source, String targetKey) {
+        StorageShard target = shards.shardFor(targetKey);
+        HeadObjectResponse targetHead = target.getClient().headObject(HeadObjectRequest.builder()
+                .bucket(target.getBucket())
+                .key(targetKey)
+                .build());
+        if (targetHead.eTag() != null && targetHead.eTag().equals(source.eTag())) {
+            return true;
+        }
+        if (targetHead.contentLength() != source.size()) {
+            return false;
+        }
+        String sha256 = targetHead.metadata().get(METADATA_SHA256);
+        HeadObjectResponse sourceHead = shard.getClient().headObject(HeadObjectRequest.builder()
+                .bucket(shard.getBucket())
+                .key(source.key())
+                .build());
+        return sha256 != null && sha256.equals(sourceHead.metadata().get(METADATA_SHA256));
+    }
+
+    /**
+     * Copies with {@code If-None-Match: *}: an existing target is never overwritten, the copy fails
+     * with {@link TargetExistsException} instead.
+     */
+    private void copyObject(StorageShard source, String sourceKey, String targetKey, long size) {
+        StorageShard target = shards.shardFor(targetKey);
+        if (target != source) {
+            // CopyObject працює лише в межах одного бакета/акаунта
+            if (ShardTransfer.copyIfAbsent(source, sourceKey, target, targetKey) == null) {
+                throw new TargetExistsException(targetKey);
+            }
+            return;
+        }
+
+        S3Client s3Client = source.getClient();
+        String bucketName = source.getBucket();
+        if (size <= MAX_SINGLE_COPY_SIZE) {
+            try {
+                s3Client.copyObject(CopyObjectRequest.builder()
+                        .sourceBucket(bucketName)
+                        .sourceKey(sourceKey)
+                        .destinationBucket(bucketName)
+                        .destinationKey(targetKey)
+                        .overrideConfiguration(b -> b.putHeader("If-None-Match", "*"))
+                        .build());
+            } catch (S3Exception e) {
+                if (e.statusCode() == 412) {
+                    throw new TargetExistsException(targetKey);
+                }
+                throw e;
+            }
+            return;
+        }
+
+        // Multipart copy не переносить метадані автоматично, тому беремо їх з джерела
+        HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(sourceKey)
+                .build());
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(targetKey)
+                .contentType(head.contentType())
+                .metadata(head.metadata())
+                .build()).uploadId();
+
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += copyPartSize, partNumber++) {
+                long end = Math.min(offset + copyPartSize, size) - 1;
+                UploadPartCopyResponse partResponse = s3Client.uploadPartCopy(UploadPartCopyRequest.builder()
+                        .sourceBucket(bucketName)
+                        .sourceKey(sourceKey)
+                        .destinationBucket(bucketName)
+                        .destinationKey(targetKey)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .copySourceRange("bytes=" + offset + "-" + end)
+                        .build());
+                parts.add(CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(partResponse.copyPartResult().eTag())
+                        .build());
+            }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(targetKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .overrideConfiguration(b -> b.putHeader("If-None-Match", "*"))
+                    .build());
+        } catch (RuntimeException e) {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(targetKey)
+                    .uploadId(uploadId)
+                    .build());
+            if (e instanceof S3Exception && ((S3Exception) e).statusCode() == 412) {
+                throw new TargetExistsException(targetKey);
+            }
+            throw e;
+        }
+    }
+
+    private String normalizeFolderPath(String folder) {
+        if (folder == null || folder.trim().isEmpty()) {
+            return "";
+        }
+        String folderPath = folder.trim();
+        while (folderPath.startsWith("/")) {
+            folderPath = folderPath.substring(1);
+        }
+        return folderPath.endsWith("/") || folderPath.isEmpty() ? folderPath : folderPath + "/";
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public String getPublicUrl(String fileName) {
+        return generatePublicUrl(fileName);
     }
 
     private String generatePublicUrl(String fileName) {
@@ -427,15 +1456,7 @@ public class R2StorageService implements FileStorageService {
         // To make downloads work, you need to either:
         // 1. Set up a custom domain in R2 and configure public access
         // 2. Or implement presigned URLs (requires additional AWS SDK dependencies)
-
-        if (this.publicUrlBase != null && !this.publicUrlBase.isEmpty()) {
-            return this.publicUrlBase.endsWith("/")
-                ? this.publicUrlBase + fileName
-                : this.publicUrlBase + "/" + fileName;
-        }
-
-        // Default R2 URL (requires public bucket access or custom domain)
-        return String.format("https://%s.r2.cloudflarestorage.com/%s/%s", this.accountId, this.bucketName, fileName);
+        return shards.shardFor(fileName).publicUrl(fileName);
     }
 
     private String extractFolderPath(String fileName) {
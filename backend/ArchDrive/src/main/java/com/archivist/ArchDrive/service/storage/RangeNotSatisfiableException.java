@@ -0,0 +1,14 @@
+package com.archivist.ArchDrive.service.storage;
+
+public class RangeNotSatisfiableException extends RuntimeException {
+    private final long totalLength;
+
+    public RangeNotSatisfiableException(String fileName, long totalLength) {
+        super("Requested range is outside of '" + fileName + "' (" + totalLength + " bytes)");
+        this.totalLength = totalLength;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+}
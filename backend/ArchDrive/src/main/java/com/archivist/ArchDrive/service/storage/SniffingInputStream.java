@@ -0,0 +1,42 @@
+package com.archivist.ArchDrive.service.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Keeps a copy of the first {@link ContentSniffer#HEAD_SIZE} bytes that pass through, so the content
+ * type can be detected on the same read that uploads the file.
+ */
+class SniffingInputStream extends FilterInputStream {
+    private final byte[] head = new byte[ContentSniffer.HEAD_SIZE];
+    private int headLength;
+
+    SniffingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0 && headLength < head.length) {
+            head[headLength++] = (byte) b;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0 && headLength < head.length) {
+            int copied = Math.min(read, head.length - headLength);
+            System.arraycopy(buffer, offset, head, headLength, copied);
+            headLength += copied;
+        }
+        return read;
+    }
+
+    ContentSniffer.Result sniff(String fileName) {
+        return ContentSniffer.sniff(head, headLength, fileName);
+    }
+}
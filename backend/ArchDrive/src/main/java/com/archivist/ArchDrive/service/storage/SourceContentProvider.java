@@ -0,0 +1,47 @@
+package com.archivist.ArchDrive.service.storage;
+
+import org.springframework.core.io.InputStreamSource;
+import software.amazon.awssdk.http.ContentStreamProvider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Request body that streams an upload straight from its source. The SDK asks for a new stream
+ * whenever it retries, so the source is reopened each time and the previous stream closed; closing
+ * the provider releases the last one.
+ */
+class SourceContentProvider implements ContentStreamProvider, Closeable {
+    private final InputStreamSource source;
+    private InputStream current;
+
+    SourceContentProvider(InputStreamSource source) {
+        this.source = source;
+    }
+
+    @Override
+    public InputStream newStream() {
+        close();
+        try {
+            current = source.getInputStream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return current;
+    }
+
+    @Override
+    public void close() {
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (IOException e) {
+            // Потік вже не потрібен
+        }
+        current = null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.archivist.ArchDrive.service.storage;
+
+public class TargetExistsException extends RuntimeException {
+    private final String key;
+
+    public TargetExistsException(String key) {
+        super("'" + key + "' already exists");
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,55 @@
+package com.archivist.ArchDrive.service.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * Caps the read rate of a stream by sleeping whenever it gets ahead of the configured bytes per second.
+ */
+class ThrottledInputStream extends FilterInputStream {
+    private final long bytesPerSecond;
+    private final long startNanos = System.nanoTime();
+    private long bytesRead;
+
+    ThrottledInputStream(InputStream in, long bytesPerSecond) {
+        super(in);
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            pace(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            pace(read);
+        }
+        return read;
+    }
+
+    private void pace(int read) throws InterruptedIOException {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        bytesRead += read;
+        long expectedNanos = (long) (bytesRead * 1_000_000_000D / bytesPerSecond);
+        long aheadMillis = (expectedNanos - (System.nanoTime() - startNanos)) / 1_000_000L;
+        if (aheadMillis > 0) {
+            try {
+                Thread.sleep(aheadMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Throttled read interrupted");
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.archivist.ArchDrive.service.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.function.Consumer;
+
+/**
+ * Hashes the bytes as they are read and compares the result with the expected digest once the
+ * stream is exhausted. A mismatch fails the final read, so the client sees a broken transfer instead
+ * of silently receiving corrupt content.
+ */
+class VerifyingInputStream extends FilterInputStream {
+    private final String key;
+    private final String expectedSha256;
+    private final MessageDigest digest = Digests.sha256();
+    private final Consumer<IntegrityException> onMismatch;
+    private boolean verified;
+
+    VerifyingInputStream(InputStream in, String key, String expectedSha256, Consumer<IntegrityException> onMismatch) {
+        super(in);
+        this.key = key;
+        this.expectedSha256 = expectedSha256;
+        this.onMismatch = onMismatch;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b < 0) {
+            verify();
+        } else {
+            digest.update((byte) b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read < 0) {
+            verify();
+        } else {
+            digest.update(buffer, offset, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Пропущені байти теж мають потрапити в хеш
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void verify() throws IntegrityException {
+        if (verified) {
+            return;
+        }
+        verified = true;
+        String actual = Digests.hex(digest);
+        if (!actual.equalsIgnoreCase(expectedSha256)) {
+            IntegrityException mismatch = new IntegrityException(key, expectedSha256, actual);
+            onMismatch.accept(mismatch);
+            throw mismatch;
+        }
+    }
+}
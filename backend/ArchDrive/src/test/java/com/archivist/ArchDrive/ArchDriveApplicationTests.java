@@ -3,7 +3,7 @@ package com.archivist.ArchDrive;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "archdrive.index.build-on-startup=false")
 class ArchDriveApplicationTests {
 
 	@Test
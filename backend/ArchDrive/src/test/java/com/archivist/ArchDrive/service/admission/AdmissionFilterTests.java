@@ -0,0 +1,100 @@
+package com.archivist.ArchDrive.service.admission;
+
+import com.archivist.ArchDrive.service.admission.TransferAdmission.TransferClass;
+import com.archivist.ArchDrive.service.index.FileSearchIndex;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmissionFilterTests {
+
+	private final TransferAdmission admission = new TransferAdmission();
+	private AdmissionFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(admission, "enabled", true);
+		ReflectionTestUtils.setField(admission, "metadataMaxActive", 4);
+		ReflectionTestUtils.setField(admission, "metadataMaxQueue", 4);
+		ReflectionTestUtils.setField(admission, "batchCapacity", 100L);
+		ReflectionTestUtils.setField(admission, "batchMaxActive", 2);
+		ReflectionTestUtils.setField(admission, "batchMaxQueue", 2);
+		ReflectionTestUtils.setField(admission, "minWeightBytes", 1024L);
+		ReflectionTestUtils.setField(admission, "downloadCapacity", 1L << 30);
+		ReflectionTestUtils.setField(admission, "downloadMaxActive", 4);
+		ReflectionTestUtils.setField(admission, "downloadMaxQueue", 4);
+		ReflectionTestUtils.invokeMethod(admission, "createPools");
+		filter = new AdmissionFilter(admission, mock(FileSearchIndex.class), 64L << 20);
+	}
+
+	@Test
+	void asyncResponseKeepsItsPermitUntilItCompletes() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files");
+		request.setAsyncSupported(true);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse res) {
+				req.startAsync();
+			}
+		}));
+
+		// Обробник повернувся, але відповідь ще пишеться
+		assertEquals(1, admission.pool(TransferClass.METADATA).getActive());
+		request.getAsyncContext().complete();
+		assertEquals(0, admission.pool(TransferClass.METADATA).getActive());
+	}
+
+	@Test
+	void synchronousRequestReleasesOnReturn() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files");
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+		assertEquals(0, admission.pool(TransferClass.METADATA).getActive());
+	}
+
+	@Test
+	void batchesAreLeftToTheControllerAndWeighedByOperations() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/files/batch");
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertNotNull(chain.getRequest());
+		assertEquals(0, admission.pool(TransferClass.METADATA).getActive());
+		assertEquals(40, admission.weightFor(TransferClass.BATCH, 40));
+		// Пакет, більший за весь пул, проходить, але сам
+		assertEquals(100, admission.weightFor(TransferClass.BATCH, 5000));
+	}
+
+	@Test
+	void jumpToALineIsWeighedByItsScanBudget() throws Exception {
+		assertEquals(65536, textWeight(null));
+		assertEquals(65536 + (64L << 20), textWeight("250000"));
+	}
+
+	private long textWeight(String line) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/text");
+		request.setParameter("fileName", "logs/u1_server.log");
+		if (line != null) {
+			request.setParameter("line", line);
+		}
+		long[] used = new long[1];
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse res) {
+				used[0] = admission.pool(TransferClass.DOWNLOAD).getUsed();
+			}
+		}));
+		return used[0];
+	}
+}
@@ -0,0 +1,69 @@
+package com.archivist.ArchDrive.service.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedPoolTests {
+
+	@Test
+	void rejectsWhenQueueIsFull() throws Exception {
+		WeightedPool pool = new WeightedPool("test", 100, 10, 0);
+		assertEquals(WeightedPool.Outcome.ADMITTED, pool.acquire(80, 0));
+		assertEquals(WeightedPool.Outcome.QUEUE_FULL, pool.acquire(30, 1000));
+		assertEquals(WeightedPool.Outcome.ADMITTED, pool.acquire(20, 0));
+		assertEquals(100, pool.getUsed());
+		assertEquals(1, pool.getRejected());
+	}
+
+	@Test
+	void timesOutWaitingForCapacity() throws Exception {
+		WeightedPool pool = new WeightedPool("test", 100, 10, 5);
+		pool.acquire(100, 0);
+		assertEquals(WeightedPool.Outcome.TIMED_OUT, pool.acquire(1, 50));
+		assertEquals(0, pool.getQueued());
+	}
+
+	@Test
+	void admitsWaitersInArrivalOrder() throws Exception {
+		WeightedPool pool = new WeightedPool("test", 100, 10, 5);
+		pool.acquire(60, 0);
+
+		CompletableFuture<WeightedPool.Outcome> big = CompletableFuture.supplyAsync(() -> acquire(pool, 100));
+		while (pool.getQueued() < 1) {
+			Thread.sleep(5);
+		}
+		// Менший запит вмістився б, але не обганяє великий, що чекає першим
+		CompletableFuture<WeightedPool.Outcome> small = CompletableFuture.supplyAsync(() -> acquire(pool, 10));
+		while (pool.getQueued() < 2) {
+			Thread.sleep(5);
+		}
+		assertFalse(small.isDone());
+
+		pool.release(60);
+		assertEquals(WeightedPool.Outcome.ADMITTED, big.get(5, TimeUnit.SECONDS));
+		assertFalse(small.isDone());
+		pool.release(100);
+		assertEquals(WeightedPool.Outcome.ADMITTED, small.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void countsActiveRequests() throws Exception {
+		WeightedPool pool = new WeightedPool("test", 1000, 2, 0);
+		pool.acquire(1, 0);
+		pool.acquire(1, 0);
+		assertEquals(WeightedPool.Outcome.QUEUE_FULL, pool.acquire(1, 0));
+		assertEquals(1000, pool.normalize(5000));
+	}
+
+	private static WeightedPool.Outcome acquire(WeightedPool pool, long weight) {
+		try {
+			return pool.acquire(weight, 5000);
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
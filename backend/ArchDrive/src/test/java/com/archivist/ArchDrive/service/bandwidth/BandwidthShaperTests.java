@@ -0,0 +1,75 @@
+package com.archivist.ArchDrive.service.bandwidth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BandwidthShaperTests {
+
+	private final BandwidthShaper shaper = new BandwidthShaper();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(shaper, "enabled", true);
+		ReflectionTestUtils.setField(shaper, "quantum", 65536);
+		ReflectionTestUtils.setField(shaper, "trustedProxies", Set.of("10.0.0.2"));
+		ReflectionTestUtils.invokeMethod(shaper, "createSchedulers");
+	}
+
+	@Test
+	void directClientsAreKeyedByAddressWhateverHeadersTheySend() {
+		MockHttpServletRequest request = request("203.0.113.7");
+		request.addHeader(BandwidthShaper.CLIENT_ID_HEADER, "fresh-id-" + System.nanoTime());
+		request.addHeader(BandwidthShaper.FORWARDED_FOR_HEADER, "198.51.100.1");
+
+		assertEquals("203.0.113.7", shaper.clientId(request));
+	}
+
+	@Test
+	void trustedProxyMayNameTheClient() {
+		MockHttpServletRequest withId = request("10.0.0.2");
+		withId.addHeader(BandwidthShaper.CLIENT_ID_HEADER, "browser-42");
+		assertEquals("browser-42", shaper.clientId(withId));
+
+		// Перші адреси в X-Forwarded-For міг підставити клієнт, останню дописав проксі
+		MockHttpServletRequest forwarded = request("10.0.0.2");
+		forwarded.addHeader(BandwidthShaper.FORWARDED_FOR_HEADER, "1.2.3.4, 203.0.113.7");
+		assertEquals("203.0.113.7", shaper.clientId(forwarded));
+
+		assertEquals("10.0.0.2", shaper.clientId(request("10.0.0.2")));
+	}
+
+	@Test
+	void transferToReadsThroughTheShapedStream(@TempDir Path dir) throws Exception {
+		byte[] data = new byte[200_000];
+		new Random(5).nextBytes(data);
+		MultipartFile original = spy(new MockMultipartFile("file", "photo.jpg", "image/jpeg", data));
+
+		File target = dir.resolve("copy.bin").toFile();
+		shaper.shapeUpload(original, "203.0.113.7").transferTo(target);
+
+		assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+		verify(original, never()).transferTo(any(File.class));
+		verify(original).getInputStream();
+	}
+
+	private static MockHttpServletRequest request(String remoteAddr) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/files/upload");
+		request.setRemoteAddr(remoteAddr);
+		return request;
+	}
+}
@@ -0,0 +1,64 @@
+package com.archivist.ArchDrive.service.bandwidth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairShareSchedulerTests {
+
+	@Test
+	void splitsRateEvenlyBetweenFlows() throws Exception {
+		FairShareScheduler scheduler = new FairShareScheduler(2_000_000, 16_384);
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicLong bulk = new AtomicLong();
+		AtomicLong preview = new AtomicLong();
+
+		// Масове завантаження з кількома потоками і одне превʼю
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			threads.add(transfer(scheduler, running, bulk));
+		}
+		threads.add(transfer(scheduler, running, preview));
+		threads.forEach(Thread::start);
+		Thread.sleep(600);
+		running.set(false);
+		for (Thread thread : threads) {
+			thread.join(2000);
+		}
+
+		long total = bulk.get() + preview.get();
+		assertTrue(total < 2_000_000, "node rate exceeded: " + total);
+		// Кожен потік отримує рівну частку: превʼю — близько чверті
+		assertTrue(preview.get() > total / 8, "preview starved: " + preview.get() + " of " + total);
+	}
+
+	@Test
+	void unlimitedRateDoesNotBlock() throws Exception {
+		FairShareScheduler scheduler = new FairShareScheduler(0, 16_384);
+		try (FairShareScheduler.Flow flow = scheduler.open()) {
+			for (int i = 0; i < 1000; i++) {
+				scheduler.acquire(flow, 16_384);
+			}
+			assertEquals(1, scheduler.getOpenFlows());
+		}
+		assertEquals(0, scheduler.getOpenFlows());
+	}
+
+	private static Thread transfer(FairShareScheduler scheduler, AtomicBoolean running, AtomicLong counter) {
+		return new Thread(() -> {
+			try (FairShareScheduler.Flow flow = scheduler.open()) {
+				while (running.get()) {
+					scheduler.acquire(flow, 16_384);
+					counter.addAndGet(16_384);
+				}
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+	}
+}
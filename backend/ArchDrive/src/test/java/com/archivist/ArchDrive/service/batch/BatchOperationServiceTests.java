@@ -0,0 +1,104 @@
+package com.archivist.ArchDrive.service.batch;
+
+import com.archivist.ArchDrive.model.BatchOperation;
+import com.archivist.ArchDrive.model.BatchResult;
+import com.archivist.ArchDrive.model.StoredFile;
+import com.archivist.ArchDrive.service.storage.FileStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BatchOperationServiceTests {
+
+	private final BatchOperationService service = new BatchOperationService();
+	private final FileStorageService storage = mock(FileStorageService.class);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "fileStorageService", storage);
+		ReflectionTestUtils.setField(service, "parallelism", 4);
+		ReflectionTestUtils.setField(service, "chunkSize", 100);
+		ReflectionTestUtils.setField(service, "maxOperations", 5000);
+		service.startExecutor();
+
+		when(storage.deleteFiles(anyList())).thenAnswer(call -> {
+			List<BatchResult> results = new ArrayList<>();
+			for (String key : call.<List<String>>getArgument(0)) {
+				results.add(key.startsWith("missing")
+						? BatchResult.failed(BatchOperation.Op.DELETE, key, "File not found")
+						: BatchResult.ok(BatchOperation.Op.DELETE, key, null));
+			}
+			return results;
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.stopExecutor();
+	}
+
+	@Test
+	void groupsDeletesIntoChunksAndAnswersEveryIndex() throws Exception {
+		List<BatchOperation> operations = new ArrayList<>();
+		for (int i = 0; i < 250; i++) {
+			operations.add(new BatchOperation(BatchOperation.Op.DELETE, "photos/" + i + ".jpg", null));
+		}
+		operations.add(new BatchOperation(BatchOperation.Op.DELETE, "missing.txt", null));
+		// Той самий ключ двічі — одне видалення, два результати
+		operations.add(new BatchOperation(BatchOperation.Op.DELETE, "photos/0.jpg", null));
+
+		List<BatchResult> results = Collections.synchronizedList(new ArrayList<>());
+		service.execute(operations, results::add).get(5, TimeUnit.SECONDS);
+
+		assertEquals(operations.size(), results.size());
+		assertEquals(operations.size(), results.stream().mapToInt(BatchResult::getIndex).distinct().count());
+		verify(storage, times(3)).deleteFiles(anyList());
+		BatchResult missing = results.stream().filter(r -> r.getIndex() == 250).findFirst().orElseThrow();
+		assertEquals(BatchResult.Status.FAILED, missing.getStatus());
+		BatchResult duplicate = results.stream().filter(r -> r.getIndex() == 251).findFirst().orElseThrow();
+		assertEquals(BatchResult.Status.OK, duplicate.getStatus());
+	}
+
+	@Test
+	void reportsCopyFailuresAndInvalidOperationsPerItem() throws Exception {
+		StoredFile copy = new StoredFile();
+		copy.setId("archive/uuid_a.txt");
+		when(storage.copyFile("a.txt", "archive/")).thenReturn(copy);
+		when(storage.copyFile(eq("b.txt"), anyString())).thenThrow(new RuntimeException("Failed to copy file: 404"));
+		when(storage.moveFiles(anyList(), eq("archive/"))).thenThrow(new RuntimeException("R2 unavailable"));
+
+		List<BatchOperation> operations = List.of(
+				new BatchOperation(BatchOperation.Op.COPY, "a.txt", "archive/"),
+				new BatchOperation(BatchOperation.Op.COPY, "b.txt", "archive/"),
+				new BatchOperation(BatchOperation.Op.MOVE, "c.txt", "archive/"),
+				new BatchOperation(BatchOperation.Op.UPLOAD, "d.txt", null),
+				new BatchOperation(null, "e.txt", null));
+
+		List<BatchResult> results = Collections.synchronizedList(new ArrayList<>());
+		service.execute(operations, results::add).get(5, TimeUnit.SECONDS);
+
+		assertEquals(5, results.size());
+		for (BatchResult result : results) {
+			BatchResult.Status expected = result.getIndex() == 0 ? BatchResult.Status.OK : BatchResult.Status.FAILED;
+			assertEquals(expected, result.getStatus(), "operation #" + result.getIndex());
+		}
+		assertEquals("archive/uuid_a.txt", results.stream().filter(r -> r.getIndex() == 0).findFirst().orElseThrow().getFile().getId());
+	}
+
+	@Test
+	void rejectsOversizedBatch() {
+		ReflectionTestUtils.setField(service, "maxOperations", 2);
+		List<BatchOperation> operations = Collections.nCopies(3, new BatchOperation(BatchOperation.Op.DELETE, "a.txt", null));
+		assertThrows(IllegalArgumentException.class, () -> service.execute(operations, result -> { }));
+	}
+}
@@ -0,0 +1,255 @@
+package com.archivist.ArchDrive.service.cluster;
+
+import com.archivist.ArchDrive.model.ChangeFeed;
+import com.archivist.ArchDrive.model.FileChange;
+import com.archivist.ArchDrive.service.storage.ChangeJournal;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvalidationBusTests {
+
+	@Test
+	void appliesRemoteChangesWithoutEchoingThem() {
+		LoopbackTransport transportA = new LoopbackTransport();
+		LoopbackTransport transportB = new LoopbackTransport();
+		transportA.peer = transportB;
+		transportB.peer = transportA;
+		ChangeJournal journalA = new ChangeJournal(10);
+		ChangeJournal journalB = new ChangeJournal(10);
+		bus("a", journalA, transportA);
+		bus("b", journalB, transportB);
+		String tokenA = journalA.currentToken();
+		String tokenB = journalB.currentToken();
+
+		journalA.record(new FileChange(FileChange.Type.UPLOAD, "docs/a_1.txt", null, 10, "text/plain"));
+
+		ChangeFeed feedB = journalB.since(tokenB, 100);
+		assertEquals(1, feedB.getChanges().size());
+		assertEquals("docs/a_1.txt", feedB.getChanges().get(0).getKey());
+		assertEquals("a", feedB.getChanges().get(0).getOrigin());
+		// Вузол b не розсилає чужу зміну назад
+		assertEquals(1, journalA.since(tokenA, 100).getChanges().size());
+		assertEquals(1, transportA.sent.size());
+		assertEquals(0, transportB.sent.size());
+	}
+
+	@Test
+	void lostMessagesAreResentAndAppliedInOrder() {
+		LoopbackTransport transportA = new LoopbackTransport();
+		LoopbackTransport transportB = new LoopbackTransport();
+		transportA.peer = transportB;
+		transportB.peer = transportA;
+		ChangeJournal journalA = new ChangeJournal(10);
+		ChangeJournal journalB = new ChangeJournal(10);
+		InvalidationBus busA = bus("a", journalA, transportA);
+		InvalidationBus busB = bus("b", journalB, transportB);
+		int[] resets = {0};
+		journalB.addResetListener(() -> resets[0]++);
+		String tokenB = journalB.currentToken();
+
+		journalA.record(new FileChange(FileChange.Type.UPLOAD, "f1", null, 1, null));
+		transportA.dropping = true;
+		journalA.record(new FileChange(FileChange.Type.UPLOAD, "f2", null, 1, null));
+		transportA.dropping = false;
+		// Версія 3 виявляє пропуск: її притримано, доки вузол a не перешле версію 2
+		journalA.record(new FileChange(FileChange.Type.UPLOAD, "f3", null, 1, null));
+
+		transportA.dropping = true;
+		journalA.record(new FileChange(FileChange.Type.UPLOAD, "f4", null, 1, null));
+		transportA.dropping = false;
+		// Втрачену останню зміну виявляє пульс
+		ReflectionTestUtils.invokeMethod(busA, "heartbeat");
+
+		assertEquals(0, resets[0]);
+		assertEquals(List.of("f1", "f2", "f3", "f4"),
+				journalB.since(tokenB, 100).getChanges().stream().map(FileChange::getKey).collect(Collectors.toList()));
+		assertEquals(4, busB.getStatus().getReceived());
+		assertEquals(2, busB.getStatus().getRecovered());
+		assertEquals(0, busB.getStatus().getGaps());
+		assertEquals(3, busA.getStatus().getResent());
+
+		// Запізніла доставка вже врахованих повідомлень ігнорується
+		int duplicates = (int) busB.getStatus().getDuplicates();
+		busB.receive(transportA.sent.get(0));
+		busB.receive(transportA.sent.get(1));
+		assertEquals(duplicates + 2, busB.getStatus().getDuplicates());
+		assertEquals(4, busB.getStatus().getReceived());
+	}
+
+	@Test
+	void gapBeyondTheSendLogResetsJournal() {
+		LoopbackTransport transportA = new LoopbackTransport();
+		LoopbackTransport transportB = new LoopbackTransport();
+		transportA.peer = transportB;
+		transportB.peer = transportA;
+		ChangeJournal journalA = new ChangeJournal(10);
+		ChangeJournal journalB = new ChangeJournal(10);
+		InvalidationBus busA = bus("a", journalA, transportA, 2);
+		InvalidationBus busB = bus("b", journalB, transportB, 2);
+		int[] resets = {0};
+		journalB.addResetListener(() -> resets[0]++);
+
+		journalA.record(new FileChange(FileChange.Type.UPLOAD, "f1", null, 1, null));
+		transportA.dropping = true;
+		for (int i = 2; i <= 4; i++) {
+			journalA.record(new FileChange(FileChange.Type.UPLOAD, "f" + i, null, 1, null));
+		}
+		transportA.dropping = false;
+		journalA.record(new FileChange(FileChange.Type.UPLOAD, "f5", null, 1, null));
+
+		// Версія 2 вже витіснена з журналу розсилки — перепитувати нема чого
+		assertEquals(1, resets[0]);
+		assertEquals(1, busB.getStatus().getGaps());
+		assertEquals(0, busA.getStatus().getResent());
+		assertEquals(5, busB.getStatus().getPeers().get(0).getVersion());
+	}
+
+	@Test
+	void unansweredGapResetsJournalAfterTimeout() {
+		LoopbackTransport transportA = new LoopbackTransport();
+		LoopbackTransport transportB = new LoopbackTransport();
+		transportA.peer = transportB;
+		transportB.peer = transportA;
+		ChangeJournal journalA = new ChangeJournal(10);
+		ChangeJournal journalB = new ChangeJournal(10);
+		bus("a", journalA, transportA);
+		InvalidationBus busB = bus("b", journalB, transportB);
+		ReflectionTestUtils.setField(busB, "gapTimeoutMs", 0L);
+		int[] resets = {0};
+		journalB.addResetListener(() -> resets[0]++);
+
+		transportA.dropping = true;
+		journalA.record(new FileChange(FileChange.Type.UPLOAD, "f1", null, 1, null));
+		transportA.dropping = false;
+		// Запит на пересилання губиться
+		transportB.dropping = true;
+		journalA.record(new FileChange(FileChange.Type.UPLOAD, "f2", null, 1, null));
+		assertEquals(0, resets[0]);
+
+		ReflectionTestUtils.invokeMethod(busB, "heartbeat");
+		assertEquals(1, resets[0]);
+		assertEquals(1, busB.getStatus().getGaps());
+		assertEquals(2, busB.getStatus().getPeers().get(0).getVersion());
+	}
+
+	@Test
+	void replayedFramesFromAnEarlierEpochAreDropped() {
+		LoopbackTransport transportA = new LoopbackTransport();
+		LoopbackTransport transportRestarted = new LoopbackTransport();
+		LoopbackTransport transportB = new LoopbackTransport();
+		transportA.peer = transportB;
+		transportRestarted.peer = transportB;
+		ChangeJournal journalA = new ChangeJournal(10);
+		ChangeJournal journalB = new ChangeJournal(10);
+		InvalidationBus busA = bus("a", journalA, transportA);
+		ReflectionTestUtils.setField(busA, "epoch", Long.toString(1_000, 36));
+		InvalidationBus busB = bus("b", journalB, transportB);
+		String tokenB = journalB.currentToken();
+
+		journalA.record(new FileChange(FileChange.Type.UPLOAD, "f1", null, 1, null));
+		// Той самий вузол після рестарту
+		ChangeJournal journalRestarted = new ChangeJournal(10);
+		InvalidationBus restarted = bus("a", journalRestarted, transportRestarted);
+		ReflectionTestUtils.setField(restarted, "epoch", Long.toString(2_000, 36));
+		transportB.peer = transportRestarted;
+		journalRestarted.record(new FileChange(FileChange.Type.UPLOAD, "g1", null, 1, null));
+
+		// Перехоплений кадр зі старої епохи не відкочує стан вузла
+		busB.receive(transportA.sent.get(0));
+
+		assertEquals(1, busB.getStatus().getRejected());
+		assertEquals(Long.toString(2_000, 36), busB.getStatus().getPeers().get(0).getEpoch());
+		assertEquals(1, busB.getStatus().getPeers().get(0).getVersion());
+		assertEquals(List.of("f1", "g1"),
+				journalB.since(tokenB, 100).getChanges().stream().map(FileChange::getKey).collect(Collectors.toList()));
+	}
+
+	@Test
+	void framesWithoutTheSharedSecretAreDropped() {
+		LoopbackTransport transportA = new LoopbackTransport();
+		LoopbackTransport transportB = new LoopbackTransport();
+		transportA.peer = transportB;
+		ChangeJournal journalA = new ChangeJournal(10);
+		ChangeJournal journalB = new ChangeJournal(10);
+		InvalidationBus busA = bus("a", journalA, transportA);
+		ReflectionTestUtils.setField(busA, "signer", new FrameSigner("another-secret"));
+		InvalidationBus busB = bus("b", journalB, transportB);
+		String tokenB = journalB.currentToken();
+
+		journalA.record(new FileChange(FileChange.Type.UPLOAD, "f1", null, 1, null));
+		busB.receive("{\"node\":\"x\",\"epoch\":\"1\",\"version\":1}".getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(2, busB.getStatus().getRejected());
+		assertTrue(journalB.since(tokenB, 100).getChanges().isEmpty());
+		assertTrue(busB.getStatus().getPeers().isEmpty());
+	}
+
+	@Test
+	void disabledBusLeavesTheTransportStopped() {
+		LoopbackTransport transport = new LoopbackTransport();
+		InvalidationBus bus = new InvalidationBus();
+		ReflectionTestUtils.setField(bus, "changeJournal", new ChangeJournal(10));
+		ReflectionTestUtils.setField(bus, "transport", transport);
+		ReflectionTestUtils.setField(bus, "enabled", false);
+		ReflectionTestUtils.invokeMethod(bus, "start");
+		ReflectionTestUtils.invokeMethod(bus, "heartbeat");
+
+		assertNull(transport.receiver);
+		assertTrue(transport.sent.isEmpty());
+		assertFalse(bus.getStatus().isEnabled());
+	}
+
+	private static InvalidationBus bus(String nodeId, ChangeJournal journal, LoopbackTransport transport) {
+		return bus(nodeId, journal, transport, 64);
+	}
+
+	private static InvalidationBus bus(String nodeId, ChangeJournal journal, LoopbackTransport transport, int sendLogSize) {
+		InvalidationBus bus = new InvalidationBus();
+		ReflectionTestUtils.setField(bus, "changeJournal", journal);
+		ReflectionTestUtils.setField(bus, "transport", transport);
+		ReflectionTestUtils.setField(bus, "enabled", true);
+		ReflectionTestUtils.setField(bus, "configuredNodeId", nodeId);
+		ReflectionTestUtils.setField(bus, "secret", "cluster-secret");
+		ReflectionTestUtils.setField(bus, "sendLogSize", sendLogSize);
+		ReflectionTestUtils.setField(bus, "gapTimeoutMs", 5000L);
+		ReflectionTestUtils.invokeMethod(bus, "start");
+		return bus;
+	}
+
+	private static class LoopbackTransport implements ClusterTransport {
+		private final List<byte[]> sent = new ArrayList<>();
+		private LoopbackTransport peer;
+		private Consumer<byte[]> receiver;
+		private boolean dropping;
+
+		@Override
+		public void start(Consumer<byte[]> receiver) {
+			this.receiver = receiver;
+		}
+
+		@Override
+		public void send(byte[] message) {
+			sent.add(message);
+			if (peer != null && !dropping) {
+				peer.receiver.accept(message);
+			}
+		}
+
+		@Override
+		public String getName() {
+			return "loopback";
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.archivist.ArchDrive.service.index;
+
+import com.archivist.ArchDrive.model.FileChange;
+import com.archivist.ArchDrive.model.StoredFile;
+import com.archivist.ArchDrive.service.storage.ChangeJournal;
+import com.archivist.ArchDrive.service.storage.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BucketIndexerTests {
+
+	private final BucketIndexer indexer = new BucketIndexer();
+	private final FileStorageService storage = mock(FileStorageService.class);
+	private final ChangeJournal journal = new ChangeJournal(100);
+	private final KeyIndex index = new KeyIndex();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(indexer, "fileStorageService", storage);
+		ReflectionTestUtils.setField(indexer, "changeJournal", journal);
+		ReflectionTestUtils.setField(indexer, "indexes", List.of(index));
+		ReflectionTestUtils.invokeMethod(indexer, "subscribe");
+	}
+
+	@Test
+	void changesInsideAnAlreadyFetchedPageWinOverTheListing() {
+		// Сторінку вже отримано: a, b, c, d — а поки обхід на "a", c видаляють і додають e
+		walkWhileChanging(List.of("a", "b", "c", "d"), "a", () -> {
+			journal.record(new FileChange(FileChange.Type.DELETE, "c", null, 1, null));
+			journal.record(new FileChange(FileChange.Type.UPLOAD, "e", null, 1, "text/plain"));
+			journal.record(new FileChange(FileChange.Type.MOVE, "f", "b", 1, null));
+		});
+
+		ReflectionTestUtils.invokeMethod(indexer, "rebuild");
+
+		assertEquals(Set.of("a", "d", "e", "f"), index.current);
+	}
+
+	@Test
+	void cursorUsesTheListingsByteOrder() {
+		// У порядку UTF-8 емодзі йде після U+FFFD, хоча в UTF-16 його сурогати менші
+		String replacement = "�.txt";
+		String emoji = "😀.txt";
+		walkWhileChanging(List.of(replacement, emoji), replacement,
+				() -> journal.record(new FileChange(FileChange.Type.DELETE, emoji, null, 1, null)));
+
+		ReflectionTestUtils.invokeMethod(indexer, "rebuild");
+
+		assertEquals(Set.of(replacement), index.current);
+	}
+
+	private void walkWhileChanging(List<String> listing, String changeAfter, Runnable change) {
+		doAnswer(call -> {
+			Consumer<StoredFile> consumer = call.getArgument(1);
+			for (String key : listing) {
+				StoredFile file = new StoredFile();
+				file.setId(key);
+				file.setSize(1);
+				file.setUploadedAt(LocalDateTime.now());
+				consumer.accept(file);
+				if (key.equals(changeAfter)) {
+					change.run();
+				}
+			}
+			return null;
+		}).when(storage).walkFiles(anyString(), any());
+	}
+
+	private static class KeyIndex extends BucketIndex<Set<String>> {
+		@Override
+		protected Set<String> emptyGeneration() {
+			return new TreeSet<>();
+		}
+
+		@Override
+		protected void objectAdded(Set<String> generation, String key, long size, String contentType, LocalDateTime uploadedAt) {
+			generation.add(key);
+		}
+
+		@Override
+		protected void objectRemoved(Set<String> generation, String key, long size) {
+			generation.remove(key);
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package com.archivist.ArchDrive.service.index;
+
+import com.archivist.ArchDrive.model.FileChange;
+import com.archivist.ArchDrive.model.SearchQuery;
+import com.archivist.ArchDrive.model.SearchResult;
+import com.archivist.ArchDrive.model.StoredFile;
+import com.archivist.ArchDrive.service.storage.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FileSearchIndexTests {
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+	private final FileSearchIndex index = new FileSearchIndex();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(index, "fileStorageService", mock(FileStorageService.class));
+		upload("docs/a-uuid_Quarterly Report.pdf", 1);
+		upload("docs/b-uuid_report-draft.docx", 2);
+		upload("photos/c-uuid_holiday.jpg", 3);
+		upload("docs/d-uuid_reporting.xlsx", 4);
+		upload("e-uuid_notes.txt", 5);
+	}
+
+	@Test
+	void matchesSubstringsByTrigramsCaseInsensitively() {
+		assertEquals(List.of("reporting.xlsx", "report-draft.docx", "Quarterly Report.pdf"), names(search("REPORT", 0, 50)));
+		assertEquals(List.of("holiday.jpg"), names(search("liday", 0, 50)));
+		assertTrue(search("xyz", 0, 50).getItems().isEmpty());
+
+		SearchQuery prefix = new SearchQuery();
+		prefix.setPrefix("rep");
+		assertEquals(List.of("reporting.xlsx", "report-draft.docx"), names(index.search(prefix)));
+	}
+
+	@Test
+	void pagesNewestFirstAndStopsAtTheLastMatch() {
+		SearchResult first = search(null, 0, 2);
+		assertEquals(5, first.getTotal());
+		assertEquals(List.of("notes.txt", "reporting.xlsx"), names(first));
+		assertEquals(List.of("holiday.jpg", "report-draft.docx"), names(search(null, 1, 2)));
+		assertEquals(List.of("Quarterly Report.pdf"), names(search(null, 2, 2)));
+
+		SearchResult beyond = search(null, 3, 2);
+		assertTrue(beyond.getItems().isEmpty());
+		assertEquals(5, beyond.getTotal());
+		// Величезна сторінка не виділяє пам'ять під неіснуючі збіги
+		assertTrue(search(null, 50_000_000, 1).getItems().isEmpty());
+	}
+
+	@Test
+	void rejectsPagesOutOfRange() {
+		assertThrows(IllegalArgumentException.class, () -> search(null, -1, 10));
+		assertThrows(IllegalArgumentException.class, () -> search(null, 0, 0));
+		assertThrows(IllegalArgumentException.class, () -> search(null, 0, 501));
+		// (page + 1) * size переповнив би int
+		assertThrows(IllegalArgumentException.class, () -> search(null, Integer.MAX_VALUE / 100, 100));
+	}
+
+	@Test
+	void removedAndMovedFilesLeaveTheResults() {
+		index.apply(new FileChange(FileChange.Type.DELETE, "docs/b-uuid_report-draft.docx", null, 2, null), key -> true);
+		index.apply(new FileChange(FileChange.Type.MOVE, "archive/a-uuid_Quarterly Report.pdf",
+				"docs/a-uuid_Quarterly Report.pdf", 1, null), key -> true);
+
+		SearchResult result = search("report", 0, 50);
+		assertEquals(2, result.getTotal());
+		assertEquals(List.of("archive/a-uuid_Quarterly Report.pdf", "docs/d-uuid_reporting.xlsx"),
+				result.getItems().stream().map(StoredFile::getId).sorted().collect(Collectors.toList()));
+		assertEquals(-1, index.sizeOf("docs/b-uuid_report-draft.docx"));
+	}
+
+	@Test
+	void deadDocumentsAreCompactedAway() {
+		for (int i = 0; i < 6000; i++) {
+			upload("bulk/" + i + "-uuid_scan" + i + ".bin", 10);
+		}
+		for (int i = 0; i < 2500; i++) {
+			index.apply(new FileChange(FileChange.Type.DELETE, "bulk/" + i + "-uuid_scan" + i + ".bin", null, 1000, null), key -> true);
+		}
+
+		SearchData data = (SearchData) ReflectionTestUtils.getField(index, "current");
+		assertTrue(data.docCount() - data.liveCount() <= data.docCount() / 4, "dead rows: " + (data.docCount() - data.liveCount()));
+		assertEquals(3505, data.liveCount());
+		assertEquals(3500, search("scan", 0, 10).getTotal());
+		assertEquals(List.of("reporting.xlsx", "report-draft.docx", "Quarterly Report.pdf"), names(search("report", 0, 50)));
+		assertEquals(1000, index.sizeOf("bulk/5999-uuid_scan5999.bin"));
+		assertEquals(-1, index.sizeOf("bulk/0-uuid_scan0.bin"));
+	}
+
+	@Test
+	void resultsAreFinishedWithoutHoldingTheIndex() throws Exception {
+		// Поки будуються адреси, запис з іншого потоку не має чекати на пошук
+		FileStorageService storage = mock(FileStorageService.class);
+		when(storage.getPublicUrl(anyString())).thenAnswer(invocation -> {
+			Thread writer = new Thread(() -> upload("late/f-uuid_late.txt", 6));
+			writer.start();
+			writer.join(5000);
+			assertFalse(writer.isAlive(), "writer blocked by a running search");
+			return "https://files.example/" + invocation.getArgument(0);
+		});
+		ReflectionTestUtils.setField(index, "fileStorageService", storage);
+
+		SearchResult result = search("holiday", 0, 10);
+		assertEquals("https://files.example/photos/c-uuid_holiday.jpg", result.getItems().get(0).getUrl());
+		assertEquals(1, search("late", 0, 10).getTotal());
+	}
+
+	private void upload(String key, int minutes) {
+		FileChange change = new FileChange(FileChange.Type.UPLOAD, key, null, minutes * 100L, null);
+		change.setTimestamp(BASE.plusMinutes(minutes));
+		index.apply(change, k -> true);
+	}
+
+	private SearchResult search(String q, int page, int size) {
+		SearchQuery query = new SearchQuery();
+		query.setQ(q);
+		query.setPage(page);
+		query.setSize(size);
+		return index.search(query);
+	}
+
+	private static List<String> names(SearchResult result) {
+		return result.getItems().stream().map(StoredFile::getFileName).collect(Collectors.toList());
+	}
+}
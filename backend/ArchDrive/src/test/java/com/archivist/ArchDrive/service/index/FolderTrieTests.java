@@ -0,0 +1,53 @@
+package com.archivist.ArchDrive.service.index;
+
+import com.archivist.ArchDrive.model.FolderNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FolderTrieTests {
+
+	@Test
+	void aggregatesCountsAndSizesUpToRoot() {
+		FolderTrie trie = new FolderTrie();
+		trie.addObject("root-uuid_readme.md", 5);
+		trie.addObject("docs/a-uuid_one.txt", 10);
+		trie.addObject("docs/reports/b-uuid_two.txt", 20);
+		trie.addObject("docs/reports/c-uuid_three.txt", 30);
+
+		FolderNode root = trie.snapshot("", Integer.MAX_VALUE);
+		assertEquals(1, root.getFileCount());
+		assertEquals(4, root.getTotalFileCount());
+		assertEquals(65, root.getTotalSize());
+
+		FolderNode docs = root.getChildren().get(0);
+		assertEquals("docs", docs.getName());
+		assertEquals(1, docs.getFileCount());
+		assertEquals(3, docs.getTotalFileCount());
+
+		FolderNode reports = trie.snapshot("docs/reports/", 0);
+		assertEquals("docs/reports/", reports.getPath());
+		assertEquals(2, reports.getFileCount());
+		assertEquals(50, reports.getTotalSize());
+		assertNull(reports.getChildren());
+	}
+
+	@Test
+	void prunesEmptyFoldersButKeepsPlaceholders() {
+		FolderTrie trie = new FolderTrie();
+		trie.addObject("empty/.keep", 0);
+		trie.addObject("docs/reports/b-uuid_two.txt", 20);
+
+		trie.removeObject("docs/reports/b-uuid_two.txt", 20);
+		assertNull(trie.snapshot("docs/", 1));
+		assertNotNull(trie.snapshot("empty/", 1));
+		assertEquals(0, trie.snapshot("", 1).getTotalFileCount());
+
+		trie.removeObject("empty/.keep", 0);
+		assertEquals(0, trie.snapshot("", 1).getChildCount());
+
+		// Звільнені вузли повторно використовуються
+		trie.addObject("docs/x-uuid_again.txt", 1);
+		assertEquals(1, trie.snapshot("docs/", 0).getFileCount());
+	}
+}
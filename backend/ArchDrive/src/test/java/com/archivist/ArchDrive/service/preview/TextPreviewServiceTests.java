@@ -0,0 +1,183 @@
+package com.archivist.ArchDrive.service.preview;
+
+import com.archivist.ArchDrive.model.TextPage;
+import com.archivist.ArchDrive.service.storage.FileContent;
+import com.archivist.ArchDrive.service.storage.FileStorageService;
+import com.archivist.ArchDrive.service.storage.RangeNotSatisfiableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TextPreviewServiceTests {
+
+	private final TextPreviewService service = new TextPreviewService();
+	private final List<Long> rangeStarts = new ArrayList<>();
+	private byte[] file;
+	private FileStorageService storage;
+	private int wholeReads;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			text.append("рядок ").append(i).append("\r\n");
+		}
+		file = text.toString().getBytes(StandardCharsets.UTF_8);
+
+		storage = mock(FileStorageService.class);
+		when(storage.openStored(eq("logs/app.log"), anyString())).thenAnswer(call -> {
+			String[] range = call.<String>getArgument(1).substring("bytes=".length()).split("-");
+			long[] span = {Long.parseLong(range[0]), Math.min(Long.parseLong(range[1]), file.length - 1)};
+			if (span[0] >= file.length) {
+				throw new RangeNotSatisfiableException("logs/app.log", file.length);
+			}
+			byte[] slice = Arrays.copyOfRange(file, (int) span[0], (int) span[1] + 1);
+			rangeStarts.add(span[0]);
+			return new FileContent(new ByteArrayResource(slice), "text/plain;charset=UTF-8", slice.length, null,
+					Map.of("content-detected", "true"), true, span[0], span[1], file.length, true);
+		});
+
+		// Той самий текст, стиснутий при збереженні: діапазони приходять у стиснутих байтах
+		ByteArrayOutputStream packed = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(packed)) {
+			gzip.write(file);
+		}
+		byte[] gzipped = packed.toByteArray();
+		Map<String, String> metadata = Map.of("content-detected", "true", "codec", "gzip", "original-size", Long.toString(file.length));
+		when(storage.openStored(eq("logs/packed.log"), anyString())).thenAnswer(call -> {
+			long start = Long.parseLong(call.<String>getArgument(1).substring("bytes=".length()).split("-")[0]);
+			if (start >= gzipped.length) {
+				throw new RangeNotSatisfiableException("logs/packed.log", gzipped.length);
+			}
+			return new FileContent(new ByteArrayResource(gzipped), "text/plain;charset=UTF-8", gzipped.length, "gzip",
+					metadata, true, start, gzipped.length - 1, gzipped.length, true);
+		});
+		when(storage.openStored(eq("logs/packed.log"), isNull())).thenAnswer(call -> {
+			wholeReads++;
+			return new FileContent(new ByteArrayResource(gzipped), "text/plain;charset=UTF-8", gzipped.length, "gzip",
+					metadata, false, 0, gzipped.length - 1, gzipped.length, true);
+		});
+		ReflectionTestUtils.setField(service, "fileStorageService", storage);
+		ReflectionTestUtils.setField(service, "maxPageBytes", 1048576);
+		ReflectionTestUtils.setField(service, "maxIndexedFiles", 8);
+		ReflectionTestUtils.setField(service, "maxCompressedOffset", 16777216L);
+		ReflectionTestUtils.setField(service, "maxScanBytes", 67108864L);
+	}
+
+	@Test
+	void pagesThroughWholeLinesWithCursor() {
+		List<String> lines = new ArrayList<>();
+		TextPage page = service.readPage("logs/app.log", null, null, null, 1024);
+		lines.addAll(page.getLines());
+		while (page.getNextCursor() != null) {
+			page = service.readPage("logs/app.log", page.getNextCursor(), null, null, 1024);
+			assertEquals(lines.size(), page.getFirstLine());
+			lines.addAll(page.getLines());
+		}
+		assertEquals(5000, lines.size());
+		assertEquals("рядок 0", lines.get(0));
+		assertEquals("рядок 4999", lines.get(4999));
+	}
+
+	@Test
+	void jumpsToLineThroughSparseIndex() {
+		TextPage page = service.readPage("logs/app.log", null, 3210L, null, 1024);
+		assertEquals(3210, page.getFirstLine());
+		assertEquals("рядок 3210", page.getLines().get(0));
+
+		// Другий перехід починає читати з найближчої контрольної точки (рядок 2000), а не з початку
+		rangeStarts.clear();
+		page = service.readPage("logs/app.log", null, 2500L, null, 1024);
+		assertEquals("рядок 2500", page.getLines().get(0));
+		assertEquals(offsetOf(2000), rangeStarts.get(0));
+		assertEquals(offsetOf(2500), page.getOffset());
+
+		assertTrue(service.readPage("logs/app.log", null, 6000L, null, 1024).getLines().isEmpty());
+	}
+
+	private long offsetOf(int line) {
+		String text = new String(file, StandardCharsets.UTF_8);
+		return text.substring(0, text.indexOf("рядок " + line + "\r\n")).getBytes(StandardCharsets.UTF_8).length;
+	}
+
+	@Test
+	void alignsArbitraryOffsetToNextLine() {
+		TextPage page = service.readPage("logs/app.log", null, null, 1001L, 1024);
+		assertTrue(page.getLines().get(0).startsWith("рядок "));
+		assertEquals(-1, page.getFirstLine());
+	}
+
+	@Test
+	void compressedObjectIsDecodedFromItsStartWithoutTheParallelEngine() {
+		TextPage page = service.readPage("logs/packed.log", null, null, null, 1024);
+		assertEquals("рядок 0", page.getLines().get(0));
+		assertEquals(file.length, page.getTotalSize());
+
+		// Курсор за межами стиснутого розміру все одно в межах розпакованого
+		page = service.readPage("logs/packed.log", (file.length - 20) + ":-1", null, null, 1024);
+		assertEquals("рядок 4999", page.getLines().get(page.getLines().size() - 1));
+
+		// Пошук рядка розпаковує файл один раз, а не заново для кожного сегмента
+		wholeReads = 0;
+		page = service.readPage("logs/packed.log", null, 4321L, null, 1024);
+		assertEquals("рядок 4321", page.getLines().get(0));
+		assertEquals(3, wholeReads); // Перше вікно, пошук, сторінка з рядка
+		verify(storage, never()).openFile(anyString(), any(), any());
+	}
+
+	@Test
+	void compressedObjectIsPreviewedOnlyUpToTheLimit() {
+		ReflectionTestUtils.setField(service, "maxCompressedOffset", 10000L);
+		assertFalse(service.readPage("logs/packed.log", null, null, 9000L, 1024).getLines().isEmpty());
+		assertThrows(PreviewLimitException.class, () -> service.readPage("logs/packed.log", "20000:-1", null, null, 1024));
+		assertThrows(PreviewLimitException.class, () -> service.readPage("logs/packed.log", null, 4000L, null, 1024));
+		// Файл без стиснення не обмежений
+		assertEquals("рядок 4000", service.readPage("logs/app.log", null, 4000L, null, 1024).getLines().get(0));
+	}
+
+	@Test
+	void farJumpIsSpreadOverRequestsWithinTheScanBudget() {
+		ReflectionTestUtils.setField(service, "maxScanBytes", 30000L);
+		assertThrows(PreviewLimitException.class, () -> service.readPage("logs/app.log", null, 4000L, null, 1024));
+
+		// Кожен повтор продовжує з контрольних точок попереднього й читає не більше бюджету
+		int requests = 1;
+		TextPage page = null;
+		while (page == null && requests < 10) {
+			requests++;
+			rangeStarts.clear();
+			try {
+				page = service.readPage("logs/app.log", null, 4000L, null, 1024);
+			} catch (PreviewLimitException e) {
+				assertEquals(30000, e.getLimit());
+			}
+			assertTrue(rangeStarts.get(rangeStarts.size() - 1) - rangeStarts.get(0) <= 30000);
+		}
+		assertNotNull(page);
+		assertEquals("рядок 4000", page.getLines().get(0));
+		assertTrue(requests > 2, "took " + requests + " requests");
+	}
+
+	@Test
+	void rejectsNegativePositions() {
+		assertThrows(IllegalArgumentException.class, () -> service.readPage("logs/app.log", null, null, -5L, 1024));
+		assertThrows(IllegalArgumentException.class, () -> service.readPage("logs/app.log", null, -1L, null, 1024));
+		assertThrows(IllegalArgumentException.class, () -> service.readPage("logs/app.log", "-100:0", null, null, 1024));
+		assertThrows(IllegalArgumentException.class, () -> service.readPage("logs/app.log", "-100", null, null, 1024));
+		assertThrows(IllegalArgumentException.class, () -> service.readPage("logs/app.log", "100:-7", null, null, 1024));
+	}
+}
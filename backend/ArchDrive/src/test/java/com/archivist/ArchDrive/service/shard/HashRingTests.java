@@ -0,0 +1,68 @@
+package com.archivist.ArchDrive.service.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRingTests {
+
+	@Test
+	void spreadsKeysEvenlyAndMovesOnlyTheNewShardsShare() {
+		Map<String, Integer> weights = new LinkedHashMap<>();
+		weights.put("a", 1);
+		weights.put("b", 1);
+		weights.put("c", 1);
+		HashRing ring = new HashRing(weights, 128);
+		HashRing extended = ring.withShard("d", 1);
+
+		int keys = 30_000;
+		Map<String, Integer> counts = new HashMap<>();
+		int moved = 0;
+		for (int i = 0; i < keys; i++) {
+			String key = UUID.randomUUID() + "_photo" + i + ".jpg";
+			String before = ring.ownerOf(key);
+			String after = extended.ownerOf(key);
+			counts.merge(before, 1, Integer::sum);
+			if (!before.equals(after)) {
+				// Ключ може перейти лише на новий шард
+				assertEquals("d", after);
+				moved++;
+			}
+		}
+
+		for (int count : counts.values()) {
+			assertTrue(Math.abs(count - keys / 3) < keys / 3 * 0.15, "uneven split: " + counts);
+		}
+		// Новий шард забирає приблизно чверть ключів
+		assertTrue(moved > keys / 4 * 0.8 && moved < keys / 4 * 1.2, "moved " + moved + " of " + keys);
+	}
+
+	@Test
+	void weightScalesShare() {
+		Map<String, Integer> weights = new LinkedHashMap<>();
+		weights.put("small", 1);
+		weights.put("large", 3);
+		HashRing ring = new HashRing(weights, 128);
+
+		int large = 0;
+		for (int i = 0; i < 20_000; i++) {
+			if (ring.ownerOf("key-" + i).equals("large")) {
+				large++;
+			}
+		}
+		assertTrue(large > 14_000 && large < 16_000, "large shard got " + large);
+	}
+
+	@Test
+	void moveKeepsRoutingKey() {
+		assertEquals("uuid_report.pdf", ShardRouter.routingKey("documents/2024/uuid_report.pdf"));
+		assertEquals(ShardRouter.routingKey("a/uuid_x.txt"), ShardRouter.routingKey("archive/b/uuid_x.txt"));
+		assertEquals("uuid_root.txt", ShardRouter.routingKey("uuid_root.txt"));
+		assertEquals("docs/", ShardRouter.routingKey("docs/"));
+	}
+}
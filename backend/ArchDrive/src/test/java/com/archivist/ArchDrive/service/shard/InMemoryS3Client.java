@@ -0,0 +1,458 @@
+package com.archivist.ArchDrive.service.shard;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * A single-bucket S3 stand-in for tests: objects live in memory, listings are paged in UTF-8 key
+ * order, and the conditional headers the storage layer relies on (If-Match, If-None-Match: *) are
+ * honoured. Objects created with {@link #putVirtual} only have a size, so multi-gigabyte copies
+ * can be exercised without the bytes.
+ */
+public class InMemoryS3Client implements S3Client {
+
+    private static final long MAX_SINGLE_COPY_SIZE = 5L * 1024 * 1024 * 1024;
+
+    public static final class StoredObject {
+        final byte[] data; // null для віртуальних об'єктів
+        final long size;
+        final String contentType;
+        final Map<String, String> metadata;
+        final String eTag;
+
+        StoredObject(byte[] data, long size, String contentType, Map<String, String> metadata, String eTag) {
+            this.data = data;
+            this.size = size;
+            this.contentType = contentType;
+            this.metadata = metadata != null ? new HashMap<>(metadata) : new HashMap<>();
+            this.eTag = eTag;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public Map<String, String> getMetadata() {
+            return metadata;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
+
+    private final Map<String, StoredObject> objects = new ConcurrentSkipListMap<>(MergedIterator::compareKeys);
+    private final Map<String, Map<Integer, StoredObject>> uploads = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * Every call as "operation key", in the order they were made.
+     */
+    public final List<String> calls = new CopyOnWriteArrayList<>();
+
+    /**
+     * Keys that DeleteObjects reports as failed.
+     */
+    public final Set<String> deleteErrors = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Runs before every call with the operation and key; throw from it to inject a failure.
+     */
+    public volatile BiConsumer<String, String> beforeCall = (operation, key) -> { };
+
+    public volatile int pageSize = 1000;
+
+    public void put(String key, byte[] data) {
+        put(key, data, null, null);
+    }
+
+    public void put(String key, byte[] data, String contentType, Map<String, String> metadata) {
+        objects.put(key, new StoredObject(data, data.length, contentType, metadata, nextETag()));
+    }
+
+    public void putVirtual(String key, long size) {
+        objects.put(key, new StoredObject(null, size, null, null, nextETag()));
+    }
+
+    public StoredObject get(String key) {
+        return objects.get(key);
+    }
+
+    public Set<String> keys() {
+        return new TreeSet<>(objects.keySet());
+    }
+
+    public int count(String operation) {
+        return (int) calls.stream().filter(call -> call.startsWith(operation + " ")).count();
+    }
+
+    private void call(String operation, String key) {
+        calls.add(operation + " " + key);
+        beforeCall.accept(operation, key);
+    }
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+        call("putObject", request.key());
+        byte[] data = read(body);
+        if (request.checksumSHA256() != null && !request.checksumSHA256().equals(sha256(data))) {
+            throw error(400, "BadDigest");
+        }
+        synchronized (objects) {
+            if ("*".equals(header(request.overrideConfiguration().map(c -> c.headers()).orElse(null), "If-None-Match"))
+                    && objects.containsKey(request.key())) {
+                throw error(412, "PreconditionFailed");
+            }
+            StoredObject stored = new StoredObject(data, data.length, request.contentType(), request.metadata(), nextETag());
+            objects.put(request.key(), stored);
+            return PutObjectResponse.builder().eTag(stored.eTag).build();
+        }
+    }
+
+    @Override
+    public <ReturnT> ReturnT getObject(GetObjectRequest request, ResponseTransformer<GetObjectResponse, ReturnT> transformer) {
+        call("getObject", request.key());
+        StoredObject stored = require(request.key());
+        if (request.ifMatch() != null && !request.ifMatch().equals(stored.eTag)) {
+            throw error(412, "PreconditionFailed");
+        }
+        long start = 0;
+        long end = stored.size - 1;
+        boolean partial = request.range() != null;
+        if (partial) {
+            String spec = request.range().substring("bytes=".length());
+            int dash = spec.indexOf('-');
+            if (dash == 0) {
+                start = Math.max(0, stored.size - Long.parseLong(spec.substring(1)));
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                if (dash < spec.length() - 1) {
+                    end = Math.min(end, Long.parseLong(spec.substring(dash + 1)));
+                }
+            }
+            if (start >= stored.size) {
+                throw error(416, "InvalidRange");
+            }
+        }
+        byte[] bytes = Arrays.copyOfRange(stored.data, (int) start, (int) end + 1);
+        GetObjectResponse response = GetObjectResponse.builder()
+                .contentLength((long) bytes.length)
+                .contentRange(partial ? "bytes " + start + "-" + end + "/" + stored.size : null)
+                .contentType(stored.contentType)
+                .metadata(stored.metadata)
+                .eTag(stored.eTag)
+                .build();
+        try {
+            return transformer.transform(response, AbortableInputStream.create(new ByteArrayInputStream(bytes)));
+        } catch (Exception e) {
+            throw SdkClientException.create(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest request) {
+        call("headObject", request.key());
+        StoredObject stored = require(request.key());
+        if (request.ifMatch() != null && !request.ifMatch().equals(stored.eTag)) {
+            throw error(412, "PreconditionFailed");
+        }
+        return HeadObjectResponse.builder()
+                .contentLength(stored.size)
+                .contentType(stored.contentType)
+                .metadata(stored.metadata)
+                .eTag(stored.eTag)
+                .lastModified(Instant.now())
+                .build();
+    }
+
+    @Override
+    public HeadBucketResponse headBucket(HeadBucketRequest request) {
+        call("headBucket", request.bucket());
+        return HeadBucketResponse.builder().build();
+    }
+
+    @Override
+    public CopyObjectResponse copyObject(CopyObjectRequest request) {
+        call("copyObject", request.sourceKey());
+        StoredObject source = require(request.sourceKey());
+        if (source.size > MAX_SINGLE_COPY_SIZE) {
+            throw error(400, "InvalidRequest");
+        }
+        if (request.copySourceIfMatch() != null && !request.copySourceIfMatch().equals(source.eTag)) {
+            throw error(412, "PreconditionFailed");
+        }
+        boolean replace = request.metadataDirective() == MetadataDirective.REPLACE;
+        // Як і в R2, ETag однієї частини — MD5 вмісту, тож копія його зберігає
+        StoredObject copy = new StoredObject(source.data, source.size,
+                replace ? request.contentType() : source.contentType,
+                replace ? request.metadata() : source.metadata, source.eTag);
+        synchronized (objects) {
+            if ("*".equals(header(request.overrideConfiguration().map(c -> c.headers()).orElse(null), "If-None-Match"))
+                    && objects.containsKey(request.destinationKey())) {
+                throw error(412, "PreconditionFailed");
+            }
+            objects.put(request.destinationKey(), copy);
+        }
+        return CopyObjectResponse.builder().copyObjectResult(CopyObjectResult.builder().eTag(copy.eTag).build()).build();
+    }
+
+    @Override
+    public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+        call("deleteObject", request.key());
+        String ifMatch = header(request.overrideConfiguration().map(c -> c.headers()).orElse(null), "If-Match");
+        synchronized (objects) {
+            StoredObject stored = objects.get(request.key());
+            if (ifMatch != null && (stored == null || !ifMatch.equals(stored.eTag))) {
+                throw error(412, "PreconditionFailed");
+            }
+            objects.remove(request.key());
+        }
+        return DeleteObjectResponse.builder().build();
+    }
+
+    @Override
+    public DeleteObjectsResponse deleteObjects(DeleteObjectsRequest request) {
+        call("deleteObjects", Integer.toString(request.delete().objects().size()));
+        List<DeletedObject> deleted = new ArrayList<>();
+        List<S3Error> errors = new ArrayList<>();
+        for (ObjectIdentifier identifier : request.delete().objects()) {
+            if (deleteErrors.contains(identifier.key())) {
+                errors.add(S3Error.builder().key(identifier.key()).code("InternalError").message("Injected failure").build());
+                continue;
+            }
+            objects.remove(identifier.key());
+            deleted.add(DeletedObject.builder().key(identifier.key()).build());
+        }
+        return DeleteObjectsResponse.builder().deleted(deleted).errors(errors).build();
+    }
+
+    @Override
+    public ListObjectsV2Response listObjectsV2(ListObjectsV2Request request) {
+        call("listObjectsV2", request.prefix());
+        String prefix = request.prefix() != null ? request.prefix() : "";
+        String after = request.continuationToken() != null ? request.continuationToken() : request.startAfter();
+        int limit = request.maxKeys() != null ? Math.min(request.maxKeys(), pageSize) : pageSize;
+
+        List<S3Object> contents = new ArrayList<>();
+        Set<String> commonPrefixes = new TreeSet<>(MergedIterator::compareKeys);
+        String last = null;
+        boolean truncated = false;
+        for (Map.Entry<String, StoredObject> entry : objects.entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix) || (after != null && MergedIterator.compareKeys(key, after) <= 0)) {
+                continue;
+            }
+            if (contents.size() + commonPrefixes.size() >= limit) {
+                truncated = true;
+                break;
+            }
+            if (request.delimiter() != null) {
+                int delimiter = key.indexOf(request.delimiter(), prefix.length());
+                if (delimiter >= 0) {
+                    commonPrefixes.add(key.substring(0, delimiter + 1));
+                    last = key;
+                    continue;
+                }
+            }
+            contents.add(S3Object.builder()
+                    .key(key)
+                    .size(entry.getValue().size)
+                    .eTag(entry.getValue().eTag)
+                    .lastModified(Instant.now())
+                    .build());
+            last = key;
+        }
+        List<CommonPrefix> prefixes = new ArrayList<>();
+        for (String commonPrefix : commonPrefixes) {
+            prefixes.add(CommonPrefix.builder().prefix(commonPrefix).build());
+        }
+        return ListObjectsV2Response.builder()
+                .contents(contents)
+                .commonPrefixes(prefixes)
+                .isTruncated(truncated)
+                .nextContinuationToken(truncated ? last : null)
+                .keyCount(contents.size())
+                .build();
+    }
+
+    @Override
+    public ListObjectsV2Iterable listObjectsV2Paginator(ListObjectsV2Request request) {
+        return new ListObjectsV2Iterable(this, request);
+    }
+
+    @Override
+    public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+        call("createMultipartUpload", request.key());
+        String uploadId = "upload-" + versions.incrementAndGet();
+        Map<Integer, StoredObject> parts = new ConcurrentSkipListMap<>();
+        // Нульова частина зберігає тип і метадані майбутнього об'єкта
+        parts.put(0, new StoredObject(new byte[0], 0, request.contentType(), request.metadata(), null));
+        uploads.put(uploadId, parts);
+        return CreateMultipartUploadResponse.builder().uploadId(uploadId).key(request.key()).build();
+    }
+
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+        call("uploadPart", request.key());
+        byte[] data = read(body);
+        StoredObject part = new StoredObject(data, data.length, null, null, nextETag());
+        requireUpload(request.uploadId()).put(request.partNumber(), part);
+        return UploadPartResponse.builder().eTag(part.eTag).build();
+    }
+
+    @Override
+    public UploadPartCopyResponse uploadPartCopy(UploadPartCopyRequest request) {
+        call("uploadPartCopy", request.sourceKey());
+        StoredObject source = require(request.sourceKey());
+        String range = request.copySourceRange().substring("bytes=".length());
+        long start = Long.parseLong(range.substring(0, range.indexOf('-')));
+        long end = Long.parseLong(range.substring(range.indexOf('-') + 1));
+        StoredObject part = source.data != null
+                ? new StoredObject(Arrays.copyOfRange(source.data, (int) start, (int) end + 1), end - start + 1, null, null, nextETag())
+                : new StoredObject(null, end - start + 1, null, null, nextETag());
+        requireUpload(request.uploadId()).put(request.partNumber(), part);
+        return UploadPartCopyResponse.builder().copyPartResult(CopyPartResult.builder().eTag(part.eTag).build()).build();
+    }
+
+    @Override
+    public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        call("completeMultipartUpload", request.key());
+        Map<Integer, StoredObject> parts = uploads.remove(request.uploadId());
+        if (parts == null) {
+            throw error(404, "NoSuchUpload");
+        }
+        StoredObject header = parts.remove(0);
+        long size = 0;
+        boolean virtual = false;
+        for (StoredObject part : parts.values()) {
+            size += part.size;
+            virtual |= part.data == null;
+        }
+        byte[] data = null;
+        if (!virtual) {
+            data = new byte[(int) size];
+            int offset = 0;
+            for (StoredObject part : parts.values()) {
+                System.arraycopy(part.data, 0, data, offset, part.data.length);
+                offset += part.data.length;
+            }
+        }
+        StoredObject stored = new StoredObject(data, size, header.contentType, header.metadata, nextETag());
+        synchronized (objects) {
+            if ("*".equals(header(request.overrideConfiguration().map(c -> c.headers()).orElse(null), "If-None-Match"))
+                    && objects.containsKey(request.key())) {
+                throw error(412, "PreconditionFailed");
+            }
+            objects.put(request.key(), stored);
+        }
+        return CompleteMultipartUploadResponse.builder().key(request.key()).eTag(stored.eTag).build();
+    }
+
+    @Override
+    public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+        call("abortMultipartUpload", request.key());
+        uploads.remove(request.uploadId());
+        return AbortMultipartUploadResponse.builder().build();
+    }
+
+    public int openUploads() {
+        return uploads.size();
+    }
+
+    @Override
+    public String serviceName() {
+        return "s3";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private StoredObject require(String key) {
+        StoredObject stored = objects.get(key);
+        if (stored == null) {
+            throw NoSuchKeyException.builder().statusCode(404).message("Not found: " + key).build();
+        }
+        return stored;
+    }
+
+    private Map<Integer, StoredObject> requireUpload(String uploadId) {
+        Map<Integer, StoredObject> parts = uploads.get(uploadId);
+        if (parts == null) {
+            throw error(404, "NoSuchUpload");
+        }
+        return parts;
+    }
+
+    private String nextETag() {
+        return "\"v" + versions.incrementAndGet() + "\"";
+    }
+
+    private static byte[] read(RequestBody body) {
+        try (InputStream in = body.contentStreamProvider().newStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw SdkClientException.create(e.getMessage(), e);
+        }
+    }
+
+    private static String header(Map<String, List<String>> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty()) {
+                return header.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static S3Exception error(int status, String code) {
+        return (S3Exception) S3Exception.builder()
+                .statusCode(status)
+                .message(code)
+                .build();
+    }
+}
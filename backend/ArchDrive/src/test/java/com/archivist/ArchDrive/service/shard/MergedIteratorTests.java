@@ -0,0 +1,33 @@
+package com.archivist.ArchDrive.service.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MergedIteratorTests {
+
+	@Test
+	void mergesShardListingsInKeyOrderWithoutDuplicates() {
+		List<String> a = List.of("a/1", "a/3", "b/uuid_x", "z");
+		List<String> b = List.of("a/2", "b/uuid_x", "c/1");
+		List<String> c = List.of();
+
+		MergedIterator<String> merged = new MergedIterator<>(List.of(a.iterator(), b.iterator(), c.iterator()), Function.identity());
+		List<String> keys = new ArrayList<>();
+		merged.forEachRemaining(keys::add);
+
+		assertEquals(List.of("a/1", "a/2", "a/3", "b/uuid_x", "c/1", "z"), keys);
+	}
+
+	@Test
+	void comparesByCodePointLikeS3() {
+		// U+FF21 іде перед U+1F600 у UTF-8, хоча в UTF-16 сурогат менший
+		assertTrue(MergedIterator.compareKeys("Ａ", "😀") < 0);
+		assertTrue("Ａ".compareTo("😀") > 0);
+		assertTrue(MergedIterator.compareKeys("a", "ab") < 0);
+	}
+}
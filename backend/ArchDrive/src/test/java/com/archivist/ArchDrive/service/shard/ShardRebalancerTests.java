@@ -0,0 +1,140 @@
+package com.archivist.ArchDrive.service.shard;
+
+import com.archivist.ArchDrive.model.ShardingStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRebalancerTests {
+
+	private final InMemoryS3Client first = new InMemoryS3Client();
+	private final InMemoryS3Client second = new InMemoryS3Client();
+	private final ShardRebalancer rebalancer = new ShardRebalancer();
+	private final List<String> keys = new ArrayList<>();
+	private final List<String> takenOver = new ArrayList<>();
+	private ShardRouter router;
+
+	@BeforeEach
+	void setUp() {
+		// Другий шард додано в конфігурацію, але всі ключі ще лежать на першому
+		router = new ShardRouter(List.of(shard("first", first), shard("second", second)), 64);
+		for (int i = 0; i < 60; i++) {
+			String key = "docs/" + i + "-uuid_file" + i + ".txt";
+			keys.add(key);
+			first.put(key, ("v1 " + i).getBytes(StandardCharsets.UTF_8), "text/plain", Map.of("sha256", "x" + i));
+		}
+
+		ReflectionTestUtils.setField(rebalancer, "shards", router);
+		ReflectionTestUtils.setField(rebalancer, "parallelism", 2);
+		ReflectionTestUtils.invokeMethod(rebalancer, "startExecutors");
+
+		for (String key : keys) {
+			if (router.shardFor(key).getName().equals("second")) {
+				takenOver.add(key);
+			}
+		}
+		assertTrue(takenOver.size() >= 3, "new shard took over " + takenOver.size() + " keys");
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReflectionTestUtils.invokeMethod(rebalancer, "stopExecutors");
+	}
+
+	@Test
+	void movesTakenOverKeysAndKeepsNewerWritesOnTheOwner() {
+		// Після зміни кільця новий запис пішов одразу на власника — стара копія не має його перезаписати
+		String rewritten = takenOver.get(0);
+		second.put(rewritten, "v2".getBytes(StandardCharsets.UTF_8));
+
+		ShardingStatus status = rebalance();
+
+		assertEquals(ShardingStatus.RebalanceState.COMPLETED, status.getRebalanceState());
+		assertEquals(takenOver.size() - 1, status.getMovedObjects());
+		assertEquals("v2", text(second, rewritten));
+		for (String key : keys) {
+			boolean owned = takenOver.contains(key);
+			assertEquals(owned, second.keys().contains(key), key);
+			assertEquals(!owned, first.keys().contains(key), key);
+		}
+		String moved = takenOver.get(1);
+		assertEquals("text/plain", second.get(moved).getContentType());
+		assertEquals(takenOver.size(), first.count("getObject"));
+		assertFalse(router.isRebalancing());
+	}
+
+	@Test
+	void keysAreFoundOnTheirOldShardUntilTheSweepCompletes() {
+		String key = takenOver.get(0);
+		assertTrue(router.isRebalancing());
+		assertEquals("first", router.locate(key).getName());
+
+		rebalance();
+
+		assertFalse(router.isRebalancing());
+		assertEquals("second", router.locate(key).getName());
+	}
+
+	@Test
+	void sourceDeletedDuringTheCopyIsNotResurrected() {
+		String deleted = takenOver.get(0);
+		second.beforeCall = (operation, key) -> {
+			if (operation.equals("putObject") && key.equals(deleted)) {
+				first.deleteObject(DeleteObjectRequest.builder().bucket("bucket").key(deleted).build());
+			}
+		};
+
+		ShardingStatus status = rebalance();
+
+		assertEquals(ShardingStatus.RebalanceState.COMPLETED, status.getRebalanceState());
+		assertFalse(first.keys().contains(deleted));
+		assertFalse(second.keys().contains(deleted));
+	}
+
+	@Test
+	void sourceOverwrittenDuringTheCopyIsRetriedWithTheNewVersion() {
+		String overwritten = takenOver.get(0);
+		second.beforeCall = (operation, key) -> {
+			if (operation.equals("putObject") && key.equals(overwritten)
+					&& text(first, overwritten).startsWith("v1")) {
+				first.put(overwritten, "v2".getBytes(StandardCharsets.UTF_8));
+			}
+		};
+
+		ShardingStatus status = rebalance();
+		assertEquals(ShardingStatus.RebalanceState.FAILED, status.getRebalanceState());
+		assertEquals(1, status.getFailedObjects());
+		// Застарілу копію прибрано, нова версія лишилась на старому шарді й досі знаходиться
+		assertFalse(second.keys().contains(overwritten));
+		assertEquals("v2", text(first, overwritten));
+		assertTrue(router.isRebalancing());
+
+		status = rebalance();
+		assertEquals(ShardingStatus.RebalanceState.COMPLETED, status.getRebalanceState());
+		assertEquals("v2", text(second, overwritten));
+		assertFalse(first.keys().contains(overwritten));
+	}
+
+	private ShardingStatus rebalance() {
+		ReflectionTestUtils.setField(rebalancer, "running", true);
+		ReflectionTestUtils.invokeMethod(rebalancer, "run");
+		return rebalancer.getStatus();
+	}
+
+	private static String text(InMemoryS3Client client, String key) {
+		return new String(client.get(key).getData(), StandardCharsets.UTF_8);
+	}
+
+	private static StorageShard shard(String name, InMemoryS3Client client) {
+		return new StorageShard(name, "http://localhost", "bucket", 1, "https://files.example", "account", () -> client);
+	}
+}
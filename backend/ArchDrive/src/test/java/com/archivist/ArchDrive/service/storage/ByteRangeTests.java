@@ -0,0 +1,37 @@
+package com.archivist.ArchDrive.service.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeTests {
+
+	@Test
+	void parsesSingleRangesAndResolvesThemAgainstTheLength() {
+		assertArrayEquals(new long[]{10, 19}, ByteRange.parse("bytes=10-19").resolve(100));
+		assertArrayEquals(new long[]{10, 99}, ByteRange.parse("bytes=10-").resolve(100));
+		assertArrayEquals(new long[]{90, 99}, ByteRange.parse(" bytes=-10 ").resolve(100));
+		// Кінець за межами об'єкта обрізається, хвіст довший за об'єкт віддає його весь
+		assertArrayEquals(new long[]{50, 99}, ByteRange.parse("bytes=50-500").resolve(100));
+		assertArrayEquals(new long[]{0, 99}, ByteRange.parse("bytes=-500").resolve(100));
+		assertEquals("bytes=10-", ByteRange.parse("bytes=10-").toString());
+		assertEquals("bytes=-10", ByteRange.parse("bytes=-10").toString());
+	}
+
+	@Test
+	void malformedOrMultipleRangesMeanTheWholeObject() {
+		assertNull(ByteRange.parse(null));
+		assertNull(ByteRange.parse("items=0-10"));
+		assertNull(ByteRange.parse("bytes=0-10,20-30"));
+		assertNull(ByteRange.parse("bytes=20-10"));
+		assertNull(ByteRange.parse("bytes=-0"));
+		assertNull(ByteRange.parse("bytes=abc-"));
+		assertNull(ByteRange.parse("bytes=10"));
+	}
+
+	@Test
+	void rangesStartingPastTheEndAreUnsatisfiable() {
+		assertNull(ByteRange.parse("bytes=100-").resolve(100));
+		assertNull(ByteRange.parse("bytes=-5").resolve(0));
+	}
+}
@@ -0,0 +1,87 @@
+package com.archivist.ArchDrive.service.storage;
+
+import com.archivist.ArchDrive.model.ChangeFeed;
+import com.archivist.ArchDrive.model.FileChange;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeJournalTests {
+
+	@Test
+	void returnsOnlyChangesAfterToken() {
+		ChangeJournal journal = new ChangeJournal(10);
+		String start = journal.currentToken();
+		journal.record(new FileChange(FileChange.Type.UPLOAD, "docs/a_1.txt", null, 10, "text/plain"));
+		journal.record(new FileChange(FileChange.Type.DELETE, "docs/a_1.txt", null, 10, null));
+
+		ChangeFeed feed = journal.since(start, 100);
+		assertFalse(feed.isResetRequired());
+		assertEquals(2, feed.getChanges().size());
+		assertEquals(FileChange.Type.DELETE, feed.getChanges().get(1).getType());
+
+		ChangeFeed next = journal.since(feed.getNextToken(), 100);
+		assertTrue(next.getChanges().isEmpty());
+		assertEquals(feed.getNextToken(), next.getNextToken());
+	}
+
+	@Test
+	void pagesThroughLimit() {
+		ChangeJournal journal = new ChangeJournal(10);
+		String start = journal.currentToken();
+		for (int i = 0; i < 5; i++) {
+			journal.record(new FileChange(FileChange.Type.UPLOAD, "f" + i, null, 1, null));
+		}
+
+		ChangeFeed first = journal.since(start, 3);
+		assertEquals(3, first.getChanges().size());
+		assertTrue(first.isHasMore());
+		ChangeFeed second = journal.since(first.getNextToken(), 3);
+		assertEquals(2, second.getChanges().size());
+		assertFalse(second.isHasMore());
+	}
+
+	@Test
+	void requiresResetForUnknownOrEvictedTokens() {
+		ChangeJournal journal = new ChangeJournal(3);
+		String start = journal.currentToken();
+		for (int i = 0; i < 5; i++) {
+			journal.record(new FileChange(FileChange.Type.UPLOAD, "f" + i, null, 1, null));
+		}
+
+		assertTrue(journal.since(start, 100).isResetRequired());
+		assertTrue(journal.since("other-epoch:1", 100).isResetRequired());
+		assertTrue(journal.since(null, 100).isResetRequired());
+		assertEquals(journal.currentToken(), journal.since(null, 100).getNextToken());
+	}
+
+	@Test
+	void listenersSeeConcurrentChangesInSequenceOrder() throws Exception {
+		ChangeJournal journal = new ChangeJournal(10000);
+		List<Long> seen = Collections.synchronizedList(new ArrayList<>());
+		journal.addListener(change -> {
+			Thread.yield();
+			seen.add(change.getSequence());
+		});
+
+		ExecutorService writers = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 2000; i++) {
+			String key = "f" + i;
+			writers.execute(() -> journal.record(new FileChange(FileChange.Type.UPLOAD, key, null, 1, null)));
+		}
+		writers.shutdown();
+		assertTrue(writers.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertEquals(2000, seen.size());
+		for (int i = 0; i < seen.size(); i++) {
+			assertEquals(i + 1, seen.get(i));
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.archivist.ArchDrive.service.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionCodecTests {
+
+	@Test
+	void parsesAcceptEncodingQualities() {
+		CompressionCodec gzip = CompressionCodec.GZIP;
+		assertTrue(gzip.isAcceptedBy("gzip, deflate, br"));
+		assertTrue(gzip.isAcceptedBy("br;q=1.0, GZIP;q=0.5"));
+		assertTrue(gzip.isAcceptedBy("*"));
+		assertTrue(gzip.isAcceptedBy("gzip; Q = 0.1"));
+		assertFalse(gzip.isAcceptedBy(null));
+		assertFalse(gzip.isAcceptedBy(""));
+		assertFalse(gzip.isAcceptedBy("deflate, br"));
+		assertFalse(gzip.isAcceptedBy("gzip;q=0"));
+		assertFalse(gzip.isAcceptedBy("gzip;q=0.000"));
+		assertFalse(gzip.isAcceptedBy("*;q=0"));
+		// Явна відмова важить більше за "*", незалежно від порядку
+		assertFalse(gzip.isAcceptedBy("*, gzip;q=0"));
+		assertFalse(gzip.isAcceptedBy("gzip;q=0, *"));
+		assertTrue(gzip.isAcceptedBy("*;q=0, gzip"));
+		assertFalse(CompressionCodec.DEFLATE.isAcceptedBy("gzip"));
+		assertTrue(CompressionCodec.DEFLATE.isAcceptedBy("gzip, deflate"));
+	}
+
+	@Test
+	void roundTripsThroughEveryCodec() throws Exception {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			text.append("2024-01-01 12:00:").append(i % 60).append(" INFO запит ").append(i).append('\n');
+		}
+		byte[] original = text.toString().getBytes(StandardCharsets.UTF_8);
+
+		for (CompressionCodec codec : CompressionCodec.values()) {
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			try (OutputStream out = codec.compress(compressed, 6)) {
+				out.write(original);
+			}
+			assertTrue(compressed.size() < original.length / 4, codec + " did not compress");
+
+			try (InputStream in = codec.decompress(new ByteArrayInputStream(compressed.toByteArray()))) {
+				assertArrayEquals(original, in.readAllBytes(), codec + " round trip");
+			}
+			assertSame(codec, CompressionCodec.fromToken(" " + codec.getToken().toUpperCase() + " "));
+		}
+		assertNull(CompressionCodec.fromToken("zstd"));
+	}
+}
@@ -0,0 +1,40 @@
+package com.archivist.ArchDrive.service.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentSnifferTests {
+
+	@Test
+	void trustsSignatureOverExtension() {
+		byte[] png = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13};
+		ContentSniffer.Result result = ContentSniffer.sniff(png, png.length, "notes.txt");
+		assertEquals("image/png", result.getContentType());
+		assertFalse(result.isText());
+	}
+
+	@Test
+	void detectsUtf8AndCyrillicSingleByteText() {
+		byte[] utf8 = "Привіт, архів".getBytes(StandardCharsets.UTF_8);
+		ContentSniffer.Result unicode = ContentSniffer.sniff(utf8, utf8.length, "readme");
+		assertEquals("text/plain;charset=UTF-8", unicode.getContentType());
+		assertTrue(unicode.isText());
+
+		byte[] cp1251 = "Привіт, архів".getBytes(Charset.forName("windows-1251"));
+		ContentSniffer.Result legacy = ContentSniffer.sniff(cp1251, cp1251.length, "data.csv");
+		assertEquals("text/csv;charset=windows-1251", legacy.getContentType());
+		assertEquals("windows-1251", legacy.getCharset());
+	}
+
+	@Test
+	void treatsNulBytesAsBinary() {
+		byte[] data = {'a', 'b', 0, 'c'};
+		ContentSniffer.Result result = ContentSniffer.sniff(data, data.length, "dump.sql");
+		assertEquals(ContentTypes.DEFAULT, result.getContentType());
+		assertNull(result.getCharset());
+	}
+}
@@ -0,0 +1,97 @@
+package com.archivist.ArchDrive.service.storage;
+
+import com.archivist.ArchDrive.model.IntegrityReport;
+import com.archivist.ArchDrive.service.index.FileSearchIndex;
+import com.archivist.ArchDrive.service.shard.InMemoryS3Client;
+import com.archivist.ArchDrive.service.shard.ShardRouter;
+import com.archivist.ArchDrive.service.shard.StorageShard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntegrityScrubberTests {
+
+	private final InMemoryS3Client client = new InMemoryS3Client();
+	private final R2StorageService storage = new R2StorageService();
+	private final IntegrityMonitor monitor = new IntegrityMonitor();
+	private final IntegrityScrubber scrubber = new IntegrityScrubber();
+
+	@BeforeEach
+	void setUp() {
+		StorageShard shard = new StorageShard("primary", "http://localhost", "bucket", 1, "https://files.example", "account", () -> client);
+		ReflectionTestUtils.setField(storage, "shards", new ShardRouter(List.of(shard), 16));
+		ReflectionTestUtils.setField(storage, "changeJournal", new ChangeJournal(100));
+		ReflectionTestUtils.setField(storage, "fileSearchIndex", new FileSearchIndex());
+		ReflectionTestUtils.setField(storage, "parallelDownloads", new ParallelDownloadEngine());
+		ReflectionTestUtils.setField(storage, "compressionEnabled", true);
+		ReflectionTestUtils.setField(storage, "compressionCodec", "gzip");
+		ReflectionTestUtils.setField(storage, "compressionLevel", 6);
+		ReflectionTestUtils.setField(storage, "compressionMinSize", 1024L);
+		ReflectionTestUtils.setField(storage, "compressionPartSize", 64 * 1024);
+		ReflectionTestUtils.setField(scrubber, "fileStorageService", storage);
+		ReflectionTestUtils.setField(scrubber, "integrityMonitor", monitor);
+	}
+
+	@Test
+	void corruptObjectsAreReportedAndLegacyOnesSkipped() {
+		String plain = upload("photo.bin", randomBytes(200_000));
+		String compressed = upload("notes.txt", "meeting notes\n".repeat(5000).getBytes(StandardCharsets.UTF_8));
+		client.put("legacy/old.bin", randomBytes(1000));
+
+		// Підміняємо байти, залишаючи записаний при завантаженні хеш
+		InMemoryS3Client.StoredObject original = client.get(plain);
+		byte[] corrupt = original.getData().clone();
+		corrupt[1234] ^= 1;
+		client.put(plain, corrupt, original.getContentType(), new HashMap<>(original.getMetadata()));
+		assertEquals("gzip", client.get(compressed).getMetadata().get("codec"));
+
+		ReflectionTestUtils.invokeMethod(scrubber, "scrub");
+
+		IntegrityReport report = monitor.getReport();
+		assertEquals(2, report.getObjectsChecked());
+		assertEquals(1, report.getObjectsSkipped());
+		assertEquals(1, report.getCorruptObjects().size());
+		assertEquals(plain, report.getCorruptObjects().get(0).getKey());
+		assertEquals("scrubber", report.getCorruptObjects().get(0).getDetectedBy());
+	}
+
+	@Test
+	void eachObjectIsReadWithOneSequentialGet() {
+		ReflectionTestUtils.setField(storage, "parallelDownloads", parallelEngine());
+		upload("archive.bin", randomBytes(3 * 1024 * 1024));
+		client.calls.clear();
+
+		ReflectionTestUtils.invokeMethod(scrubber, "scrub");
+
+		assertEquals(1, monitor.getReport().getObjectsChecked());
+		assertTrue(monitor.getReport().getCorruptObjects().isEmpty());
+		assertEquals(1, client.count("getObject"));
+	}
+
+	private String upload(String name, byte[] data) {
+		return storage.uploadFile(new MockMultipartFile("file", name, null, data)).getId();
+	}
+
+	private static byte[] randomBytes(int size) {
+		byte[] data = new byte[size];
+		new Random(size).nextBytes(data);
+		return data;
+	}
+
+	private static ParallelDownloadEngine parallelEngine() {
+		// Рушій, який розбив би такий файл на кілька діапазонів
+		ParallelDownloadEngine engine = new ParallelDownloadEngine();
+		ReflectionTestUtils.setField(engine, "enabled", true);
+		ReflectionTestUtils.setField(engine, "thresholdBytes", 1024 * 1024L);
+		ReflectionTestUtils.setField(engine, "chunkSize", 1024 * 1024);
+		return engine;
+	}
+}
@@ -0,0 +1,205 @@
+package com.archivist.ArchDrive.service.storage;
+
+import com.archivist.ArchDrive.model.BatchResult;
+import com.archivist.ArchDrive.model.ChangeFeed;
+import com.archivist.ArchDrive.model.FileChange;
+import com.archivist.ArchDrive.model.MoveJob;
+import com.archivist.ArchDrive.service.index.FileSearchIndex;
+import com.archivist.ArchDrive.service.shard.InMemoryS3Client;
+import com.archivist.ArchDrive.service.shard.ShardRouter;
+import com.archivist.ArchDrive.service.shard.StorageShard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MoveJobTests {
+
+	private final InMemoryS3Client client = new InMemoryS3Client();
+	private final ChangeJournal journal = new ChangeJournal(100);
+	private final R2StorageService storage = new R2StorageService();
+
+	@BeforeEach
+	void setUp() {
+		StorageShard shard = new StorageShard("primary", "http://localhost", "bucket", 1, "https://files.example", "account", () -> client);
+		ReflectionTestUtils.setField(storage, "shards", new ShardRouter(List.of(shard), 16));
+		ReflectionTestUtils.setField(storage, "changeJournal", journal);
+		ReflectionTestUtils.setField(storage, "fileSearchIndex", new FileSearchIndex());
+		ReflectionTestUtils.setField(storage, "moveParallelism", 4);
+		ReflectionTestUtils.setField(storage, "copyPartSize", 2L * 1024 * 1024 * 1024);
+		storage.startExecutors();
+	}
+
+	@AfterEach
+	void tearDown() {
+		storage.stopExecutors();
+	}
+
+	@Test
+	void resumedJobMovesWhatTheFailedRunLeftBehind() throws Exception {
+		client.pageSize = 2;
+		for (int i = 1; i <= 5; i++) {
+			client.put("docs/u" + i + "_file.txt", ("file " + i).getBytes());
+		}
+		// Друга сторінка лістингу падає: перша вже перенесена, решта лишається на місці
+		AtomicInteger listings = new AtomicInteger();
+		client.beforeCall = (operation, key) -> {
+			if (operation.equals("listObjectsV2") && "docs/".equals(key) && listings.incrementAndGet() == 2) {
+				throw new IllegalStateException("R2 unavailable");
+			}
+		};
+
+		MoveJob job = await(storage.renameFolder("docs", "archive/docs"));
+		assertEquals(MoveJob.Status.FAILED, job.getStatus());
+		assertEquals("R2 unavailable", job.getError());
+		assertEquals(2, job.getDeletedObjects());
+		assertEquals(List.of("archive/docs/u1_file.txt", "archive/docs/u2_file.txt",
+				"docs/u3_file.txt", "docs/u4_file.txt", "docs/u5_file.txt"), List.copyOf(client.keys()));
+
+		String token = journal.currentToken();
+		await(storage.resumeMoveJob(job.getId()));
+		assertEquals(MoveJob.Status.COMPLETED, job.getStatus());
+		assertEquals(2, job.getAttempts());
+		assertEquals(5, job.getDeletedObjects());
+		assertTrue(client.keys().stream().allMatch(key -> key.startsWith("archive/docs/")));
+		assertArrayEquals("file 4".getBytes(), client.get("archive/docs/u4_file.txt").getData());
+
+		// Друга спроба журналює лише те, що перенесла сама
+		ChangeFeed feed = journal.since(token, 100);
+		assertEquals(List.of("docs/u3_file.txt", "docs/u4_file.txt", "docs/u5_file.txt"),
+				feed.getChanges().stream().map(FileChange::getPreviousKey).sorted().collect(Collectors.toList()));
+	}
+
+	@Test
+	void objectsOverFiveGigabytesAreCopiedInParts() throws Exception {
+		long size = 6L * 1024 * 1024 * 1024;
+		client.putVirtual("videos/u1_film.mkv", size);
+		client.put("videos/u2_trailer.mp4", new byte[100]);
+
+		MoveJob job = await(storage.renameFolder("videos/", "media/videos/"));
+
+		assertEquals(MoveJob.Status.COMPLETED, job.getStatus());
+		assertEquals(size, client.get("media/videos/u1_film.mkv").getSize());
+		assertNull(client.get("videos/u1_film.mkv"));
+		// 6 GB частинами по 2 GB; малий файл — звичайним CopyObject
+		assertEquals(3, client.count("uploadPartCopy"));
+		assertEquals(1, client.count("copyObject"));
+		assertEquals(0, client.openUploads());
+		assertEquals(size + 100, job.getCopiedBytes());
+	}
+
+	@Test
+	void sourcesThatFailToDeleteAreReportedAndRetried() throws Exception {
+		client.put("photos/u1_a.jpg", new byte[10]);
+		client.put("photos/u2_b.jpg", new byte[20]);
+		client.put("photos/u3_c.jpg", new byte[30]);
+		client.deleteErrors.add("photos/u2_b.jpg");
+		String token = journal.currentToken();
+
+		MoveJob job = await(storage.renameFolder("photos", "trip"));
+
+		assertEquals(MoveJob.Status.FAILED, job.getStatus());
+		assertEquals(1, job.getFailedObjects());
+		assertEquals(3, job.getCopiedObjects());
+		assertEquals(2, job.getDeletedObjects());
+		// Копія вже є, джерело лишилось — MOVE у журналі лише для видалених
+		assertNotNull(client.get("trip/u2_b.jpg"));
+		assertNotNull(client.get("photos/u2_b.jpg"));
+		assertEquals(List.of("photos/u1_a.jpg", "photos/u3_c.jpg"),
+				journal.since(token, 100).getChanges().stream().map(FileChange::getPreviousKey).sorted().collect(Collectors.toList()));
+
+		client.deleteErrors.clear();
+		await(storage.resumeMoveJob(job.getId()));
+		assertEquals(MoveJob.Status.COMPLETED, job.getStatus());
+		assertEquals(0, job.getFailedObjects());
+		assertEquals(List.of("trip/u1_a.jpg", "trip/u2_b.jpg", "trip/u3_c.jpg"), List.copyOf(client.keys()));
+	}
+
+	@Test
+	void occupiedTargetsAreNeverOverwritten() {
+		client.put("docs/u1_a.txt", "new".getBytes());
+		client.put("archive/u1_a.txt", "old".getBytes());
+		client.put("archive/docs/u2_b.txt", "old".getBytes());
+
+		assertThrows(TargetExistsException.class, () -> storage.renameFolder("docs", "archive/docs"));
+		assertThrows(TargetExistsException.class, () -> storage.moveFile("docs/u1_a.txt", "archive"));
+
+		assertArrayEquals("old".getBytes(), client.get("archive/u1_a.txt").getData());
+		assertArrayEquals("new".getBytes(), client.get("docs/u1_a.txt").getData());
+		assertEquals(0, client.count("deleteObject"));
+	}
+
+	@Test
+	void overlappingRenamesAreRefusedWhileAJobRuns() throws Exception {
+		client.put("docs/u1_a.txt", new byte[10]);
+		CountDownLatch listing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		client.beforeCall = (operation, key) -> {
+			if (operation.equals("listObjectsV2") && "docs/".equals(key)) {
+				listing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+
+		MoveJob job = storage.renameFolder("docs", "archive/docs");
+		assertTrue(listing.await(5, TimeUnit.SECONDS));
+		// Той самий запит повертає вже запущене завдання, інший на тих самих папках — відмова
+		assertSame(job, storage.renameFolder("docs/", "archive/docs/"));
+		assertThrows(IllegalStateException.class, () -> storage.renameFolder("docs", "trash/docs"));
+		assertThrows(IllegalStateException.class, () -> storage.renameFolder("archive", "old-archive"));
+
+		release.countDown();
+		await(job);
+		assertEquals(MoveJob.Status.COMPLETED, job.getStatus());
+		assertEquals(List.of("archive/docs/u1_a.txt"), List.copyOf(client.keys()));
+	}
+
+	@Test
+	void batchDeleteTakesSizesFromTheIndex() {
+		client.put("docs/u1_a.txt", new byte[10]);
+		client.put("docs/u2_b.txt", new byte[20]);
+		// Індекс знає оригінальний розмір стисненого u1; u2 ще не проіндексовано
+		FileSearchIndex index = mock(FileSearchIndex.class);
+		when(index.sizeOf(anyString())).thenReturn(-1L);
+		when(index.sizeOf("docs/u1_a.txt")).thenReturn(1000L);
+		ReflectionTestUtils.setField(storage, "fileSearchIndex", index);
+		String token = journal.currentToken();
+
+		List<BatchResult> results = storage.deleteFiles(List.of("docs/u1_a.txt", "docs/u2_b.txt", "docs/u3_gone.txt"));
+
+		assertEquals(2, client.count("headObject"));
+		assertEquals(1, client.count("deleteObjects"));
+		assertEquals(List.of("docs/u3_gone.txt"), results.stream()
+				.filter(result -> result.getStatus() == BatchResult.Status.FAILED).map(BatchResult::getFileName).collect(Collectors.toList()));
+		assertTrue(client.keys().isEmpty());
+		assertEquals(List.of(1000L, 20L), journal.since(token, 10).getChanges().stream().map(FileChange::getSize).collect(Collectors.toList()));
+	}
+
+	private MoveJob await(MoveJob job) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < deadline) {
+			MoveJob.Status status = job.getStatus();
+			if ((status == MoveJob.Status.COMPLETED || status == MoveJob.Status.FAILED) && job.getFinishedAt() != null) {
+				return job;
+			}
+			Thread.sleep(10);
+		}
+		fail("Move job did not finish: " + job.getStatus());
+		return job;
+	}
+}
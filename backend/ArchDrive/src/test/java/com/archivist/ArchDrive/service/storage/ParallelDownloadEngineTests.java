@@ -0,0 +1,148 @@
+package com.archivist.ArchDrive.service.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.http.Abortable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelDownloadEngineTests {
+
+	private static final int CHUNK = 1000;
+
+	private final ParallelDownloadEngine engine = new ParallelDownloadEngine();
+	private final byte[] data = new byte[10 * CHUNK + 123];
+
+	@BeforeEach
+	void setUp() {
+		new Random(11).nextBytes(data);
+		ReflectionTestUtils.setField(engine, "enabled", true);
+		ReflectionTestUtils.setField(engine, "chunkSize", CHUNK);
+		ReflectionTestUtils.setField(engine, "parallelism", 4);
+		ReflectionTestUtils.setField(engine, "poolSize", 8);
+		ReflectionTestUtils.setField(engine, "hedgePercentile", 95.0);
+		ReflectionTestUtils.setField(engine, "hedgeMinDelayMs", 20L);
+		ReflectionTestUtils.setField(engine, "hedgeInitialDelayMs", 100L);
+		engine.startExecutor();
+	}
+
+	@AfterEach
+	void tearDown() {
+		engine.stopExecutor();
+	}
+
+	@Test
+	void rangesFinishingOutOfOrderAreReassembledInOrder() throws Exception {
+		ParallelDownloadEngine.RangeFetcher fetcher = (start, end) -> {
+			sleep(ThreadLocalRandom.current().nextInt(10));
+			return slice(start, end);
+		};
+
+		try (InputStream in = engine.open(fetcher, 0, data.length - 1, null, -1)) {
+			assertArrayEquals(data, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void slowRangeIsHedgedAndTheLosingGetAborted() throws Exception {
+		Map<Long, AtomicInteger> attempts = new ConcurrentHashMap<>();
+		List<StalledStream> stalled = new CopyOnWriteArrayList<>();
+		ParallelDownloadEngine.RangeFetcher fetcher = (start, end) -> {
+			int attempt = attempts.computeIfAbsent(start, s -> new AtomicInteger()).incrementAndGet();
+			if (start == 3 * CHUNK && attempt == 1) {
+				StalledStream stream = new StalledStream();
+				stalled.add(stream);
+				return stream;
+			}
+			return slice(start, end);
+		};
+
+		long started = System.nanoTime();
+		try (InputStream in = engine.open(fetcher, 0, data.length - 1, null, -1)) {
+			assertArrayEquals(data, in.readAllBytes());
+		}
+		long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+		assertEquals(2, attempts.get(3L * CHUNK).get());
+		assertEquals(1, attempts.get(0L).get());
+		// Дубль іде після початкової затримки, а не одразу і не після повного таймауту
+		assertTrue(tookMs >= 100, "hedged after " + tookMs + " ms");
+		assertTrue(tookMs < 5000, "hedged after " + tookMs + " ms");
+		assertTrue(stalled.get(0).aborted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void closingTheReaderAbortsRangesInFlight() throws Exception {
+		List<StalledStream> stalled = new CopyOnWriteArrayList<>();
+		CountDownLatch opened = new CountDownLatch(3);
+		ParallelDownloadEngine.RangeFetcher fetcher = (start, end) -> {
+			if (start == 0) {
+				return slice(start, end);
+			}
+			StalledStream stream = new StalledStream();
+			stalled.add(stream);
+			opened.countDown();
+			return stream;
+		};
+
+		InputStream in = engine.open(fetcher, 0, data.length - 1, null, -1);
+		assertEquals(CHUNK, in.readNBytes(CHUNK).length);
+		assertTrue(opened.await(5, TimeUnit.SECONDS));
+		in.close();
+
+		for (StalledStream stream : stalled) {
+			assertTrue(stream.aborted.await(5, TimeUnit.SECONDS));
+		}
+		assertThrows(IOException.class, in::read);
+	}
+
+	private InputStream slice(long start, long end) {
+		return new ByteArrayInputStream(Arrays.copyOfRange(data, (int) start, (int) end + 1));
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A GET whose body never arrives; only abort() releases the reading thread.
+	 */
+	private static class StalledStream extends InputStream implements Abortable {
+		final CountDownLatch aborted = new CountDownLatch(1);
+
+		@Override
+		public int read() throws IOException {
+			try {
+				aborted.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			throw new IOException("Aborted");
+		}
+
+		@Override
+		public void abort() {
+			aborted.countDown();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.archivist.ArchDrive.service.storage;
+
+import com.archivist.ArchDrive.model.StoredFile;
+import com.archivist.ArchDrive.service.index.FileSearchIndex;
+import com.archivist.ArchDrive.service.shard.InMemoryS3Client;
+import com.archivist.ArchDrive.service.shard.ShardRouter;
+import com.archivist.ArchDrive.service.shard.StorageShard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadTests {
+
+	private final InMemoryS3Client client = new InMemoryS3Client();
+	private final ChangeJournal journal = new ChangeJournal(100);
+	private final R2StorageService storage = new R2StorageService();
+
+	@BeforeEach
+	void setUp() {
+		StorageShard shard = new StorageShard("primary", "http://localhost", "bucket", 1, "https://files.example", "account", () -> client);
+		ReflectionTestUtils.setField(storage, "shards", new ShardRouter(List.of(shard), 16));
+		ReflectionTestUtils.setField(storage, "changeJournal", journal);
+		ReflectionTestUtils.setField(storage, "fileSearchIndex", new FileSearchIndex());
+		ReflectionTestUtils.setField(storage, "compressionEnabled", true);
+		ReflectionTestUtils.setField(storage, "compressionCodec", "gzip");
+		ReflectionTestUtils.setField(storage, "compressionLevel", 6);
+		ReflectionTestUtils.setField(storage, "compressionMinSize", 1024L);
+		ReflectionTestUtils.setField(storage, "compressionPartSize", 64 * 1024);
+	}
+
+	@Test
+	void compressedUploadIsStreamedInEqualParts() throws Exception {
+		// Випадкові hex-рядки стискаються лише вдвічі — стиснене не влазить в одну частину
+		Random random = new Random(7);
+		StringBuilder text = new StringBuilder();
+		while (text.length() < 1_000_000) {
+			text.append(Long.toHexString(random.nextLong())).append('\n');
+		}
+		byte[] original = text.toString().getBytes(StandardCharsets.US_ASCII);
+
+		String key = storage.uploadFile(new MockMultipartFile("file", "server.log", "text/plain", original), "logs/").getId();
+
+		InMemoryS3Client.StoredObject stored = client.get(key);
+		assertEquals("gzip", stored.getMetadata().get("codec"));
+		assertEquals(Long.toString(original.length), stored.getMetadata().get("original-size"));
+		assertEquals(sha256(original), stored.getMetadata().get("sha256"));
+		assertEquals("text/plain;charset=UTF-8", stored.getContentType());
+		assertTrue(client.count("uploadPart") > 1);
+		assertEquals(0, client.count("putObject"));
+		assertEquals(0, client.count("copyObject"));
+		assertEquals(0, client.openUploads());
+		try (InputStream in = CompressionCodec.GZIP.decompress(new ByteArrayInputStream(stored.getData()))) {
+			assertArrayEquals(original, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void smallCompressedUploadIsOnePut() throws Exception {
+		byte[] original = "SELECT * FROM files;\n".repeat(2000).getBytes(StandardCharsets.US_ASCII);
+
+		String key = storage.uploadFile(new MockMultipartFile("file", "dump.sql", "application/sql", original)).getId();
+
+		InMemoryS3Client.StoredObject stored = client.get(key);
+		assertEquals("gzip", stored.getMetadata().get("codec"));
+		assertEquals(sha256(original), stored.getMetadata().get("sha256"));
+		assertEquals(1, client.count("putObject"));
+		assertEquals(0, client.count("createMultipartUpload"));
+		assertEquals(0, client.count("copyObject"));
+	}
+
+	@Test
+	void compressedFilesReportTheirOriginalSize() throws Exception {
+		byte[] original = "SELECT * FROM files;\n".repeat(2000).getBytes(StandardCharsets.US_ASCII);
+		String key = storage.uploadFile(new MockMultipartFile("file", "dump.sql", "application/sql", original)).getId();
+		assertTrue(client.get(key).getSize() < original.length);
+
+		assertEquals(original.length, storage.listFiles().get(0).getSize());
+		String token = journal.currentToken();
+		StoredFile moved = storage.moveFile(key, "backups");
+		assertEquals(original.length, moved.getSize());
+		assertEquals(original.length, storage.listFiles("backups/").get(0).getSize());
+		assertEquals(original.length, journal.since(token, 10).getChanges().get(0).getSize());
+	}
+
+	@Test
+	void incompressibleUploadIsStoredAsIs() throws Exception {
+		byte[] original = new byte[300_000];
+		new Random(3).nextBytes(original);
+
+		String key = storage.uploadFile(new MockMultipartFile("file", "notes.txt", "text/plain", original)).getId();
+
+		InMemoryS3Client.StoredObject stored = client.get(key);
+		assertNull(stored.getMetadata().get("codec"));
+		assertArrayEquals(original, stored.getData());
+		// Хеш іде разом з PUT — без повторного запису об'єкта копіюванням
+		assertEquals(sha256(original), stored.getMetadata().get("sha256"));
+		assertEquals(1, client.count("putObject"));
+		assertEquals(0, client.count("copyObject"));
+		// Розпочате multipart-завантаження стисненого варіанту скасовано
+		assertEquals(1, client.count("abortMultipartUpload"));
+		assertEquals(0, client.openUploads());
+	}
+
+	private static String sha256(byte[] bytes) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+	}
+}
@@ -0,0 +1,60 @@
+package com.archivist.ArchDrive.service.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifyingInputStreamTests {
+
+	private static final byte[] CONTENT = "archived content\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+	private final List<IntegrityException> mismatches = new ArrayList<>();
+
+	@Test
+	void matchingContentReadsThrough() throws Exception {
+		try (InputStream in = verifying(CONTENT, sha256(CONTENT))) {
+			assertArrayEquals(CONTENT, in.readAllBytes());
+		}
+		assertTrue(mismatches.isEmpty());
+	}
+
+	@Test
+	void mismatchFailsTheLastReadAndIsReported() throws Exception {
+		byte[] corrupt = CONTENT.clone();
+		corrupt[corrupt.length / 2] ^= 1;
+
+		try (InputStream in = verifying(corrupt, sha256(CONTENT))) {
+			IntegrityException thrown = assertThrows(IntegrityException.class, in::readAllBytes);
+			assertEquals("files/report.txt", thrown.getKey());
+			assertEquals(sha256(CONTENT), thrown.getExpectedSha256());
+			assertEquals(sha256(corrupt), thrown.getActualSha256());
+		}
+		assertEquals(1, mismatches.size());
+	}
+
+	@Test
+	void skippedBytesAreHashed() throws Exception {
+		try (InputStream in = verifying(CONTENT, sha256(CONTENT))) {
+			assertEquals(100, in.skip(100));
+			assertEquals(CONTENT[100], (byte) in.read());
+			in.readAllBytes();
+		}
+		assertTrue(mismatches.isEmpty());
+	}
+
+	private InputStream verifying(byte[] data, String expected) {
+		return new VerifyingInputStream(new ByteArrayInputStream(data), "files/report.txt", expected, mismatches::add);
+	}
+
+	private static String sha256(byte[] bytes) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+	}
+}
@@ -13,6 +13,43 @@ export interface StoredFile {
   uploadedAt: string;
 }
 
+export interface FileInfo {
+  id: string;
+  fileName: string;
+  size: number;
+  contentType: string;
+  charset?: string;
+  text: boolean;
+  sha256?: string;
+  uploadedAt?: string;
+}
+
+export interface TextPage {
+  fileName: string;
+  charset: string;
+  offset: number;
+  firstLine: number;
+  lines: string[];
+  nextCursor?: string;
+  totalSize: number;
+  truncated: boolean;
+}
+
+export interface BatchOperation {
+  op: 'DELETE' | 'COPY' | 'MOVE';
+  fileName: string;
+  targetFolder?: string;
+}
+
+export interface BatchResult {
+  index: number;
+  op: 'DELETE' | 'COPY' | 'MOVE' | 'UPLOAD';
+  fileName: string;
+  status: 'OK' | 'FAILED';
+  file?: StoredFile;
+  error?: string;
+}
+
 export interface Folder {
   id: string;
   name: string;
@@ -63,7 +100,26 @@ export const downloadFile = async (fileName: string): Promise<void> => {
   window.URL.revokeObjectURL(url);
 };
 
+export const getTextPage = async (fileName: string, cursor?: string, maxBytes = 65536): Promise<TextPage> => {
+  const response = await api.get<TextPage>('/api/files/text', { params: { fileName, cursor, maxBytes } });
+  return response.data;
+};
+
 export const previewFile = async (fileName: string): Promise<{ url: string; contentType: string; data: Blob; textContent?: string }> => {
+  // Text files: fetch only the first page instead of the whole blob
+  const info = await getFileInfo(fileName);
+  if (info.text) {
+    const page = await getTextPage(fileName);
+    const textContent = page.lines.join('\n') + (page.nextCursor ? '\n…' : '');
+    const data = new Blob([textContent], { type: 'text/plain;charset=utf-8' });
+    return {
+      url: window.URL.createObjectURL(data),
+      contentType: info.contentType,
+      data,
+      textContent
+    };
+  }
+
   const response = await api.get('/api/files/preview', {
     params: { fileName },
     responseType: 'blob',
@@ -72,10 +128,11 @@ export const previewFile = async (fileName: string): Promise<{ url: string; cont
   const contentType = response.headers['content-type'] || 'application/octet-stream';
   const url = window.URL.createObjectURL(response.data);
 
-  // For text files, also get text content
+  // For text files, also get text content (the server detects the charset on upload)
   let textContent: string | undefined;
-  if (contentType.startsWith('text/') || contentType.includes('javascript') || contentType.includes('json') || contentType.includes('xml')) {
-    textContent = await response.data.text();
+  if (contentType.startsWith('text/') || contentType.includes('charset=') || contentType.includes('javascript') || contentType.includes('json') || contentType.includes('xml')) {
+    const charset = /charset=([^;]+)/i.exec(contentType)?.[1]?.trim() || 'utf-8';
+    textContent = new TextDecoder(charset).decode(await response.data.arrayBuffer());
   }
 
   return {
@@ -86,6 +143,11 @@ export const previewFile = async (fileName: string): Promise<{ url: string; cont
   };
 };
 
+export const getFileInfo = async (fileName: string): Promise<FileInfo> => {
+  const response = await api.get<FileInfo>('/api/files/info', { params: { fileName } });
+  return response.data;
+};
+
 export const deleteFile = async (fileName: string): Promise<void> => {
   await api.delete('/api/files', { params: { fileName } });
 };
@@ -110,6 +172,59 @@ export const uploadFileToFolder = async (file: File, folder?: string): Promise<S
   return response.data;
 };
 
+export const uploadFiles = async (files: File[], folder?: string): Promise<BatchResult[]> => {
+  const formData = new FormData();
+  files.forEach((file) => formData.append('files', file));
+  if (folder) {
+    formData.append('folder', folder);
+  }
+
+  // 207 означає, що частина файлів не завантажилась — статус кожного файлу в результатах
+  const response = await api.post<BatchResult[]>('/api/files/upload/batch', formData, {
+    headers: {
+      'Content-Type': 'multipart/form-data',
+    },
+  });
+  return response.data;
+};
+
+// Результати приходять по одному рядку NDJSON, щойно операція завершилась
+export const runBatch = async (
+  operations: BatchOperation[],
+  onResult?: (result: BatchResult) => void,
+): Promise<BatchResult[]> => {
+  const response = await fetch(`${api.defaults.baseURL}/api/files/batch`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({ operations }),
+  });
+  if (!response.ok || !response.body) {
+    throw new Error(`Batch request failed: ${response.status}`);
+  }
+
+  const results: BatchResult[] = [];
+  const reader = response.body.getReader();
+  const decoder = new TextDecoder();
+  let buffered = '';
+  for (;;) {
+    const { done, value } = await reader.read();
+    buffered += done ? decoder.decode() : decoder.decode(value, { stream: true });
+    const lines = buffered.split('\n');
+    buffered = done ? '' : lines.pop() ?? '';
+    for (const line of lines) {
+      if (line.trim()) {
+        const result: BatchResult = JSON.parse(line);
+        results.push(result);
+        onResult?.(result);
+      }
+    }
+    if (done) {
+      break;
+    }
+  }
+  return results;
+};
+
 export const getFilesInFolder = async (folder?: string): Promise<StoredFile[]> => {
   const params = folder ? { folder } : {};
   const response = await api.get<StoredFile[]>('/api/files', { params });